@@ -0,0 +1,47 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "admission")
+public record AdmissionProperties(
+        String clientHeader,
+        int maxClients,
+        List<Route> routes,
+        Concurrency concurrency
+) {
+
+    public AdmissionProperties {
+        routes = routes == null ? List.of() : List.copyOf(routes);
+    }
+
+    // Лимит на клиента для маршрута: всплеск до capacity запросов, затем refillPerSecond в секунду
+    public record Route(String pattern, Set<String> methods, long capacity, double refillPerSecond) {
+
+        public Route {
+            methods = methods == null ? Set.of() : Set.copyOf(methods);
+        }
+    }
+
+    // Адаптивный лимит одновременных запросов (AIMD по наблюдаемой задержке).
+    // streamPaths — маршруты SSE (GET), которые лимит не учитывает
+    public record Concurrency(
+            boolean enabled,
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            Duration latencyThreshold,
+            double backoffRatio,
+            int maxQueue,
+            Duration maxQueueWait,
+            List<String> streamPaths
+    ) {
+
+        public Concurrency {
+            streamPaths = streamPaths == null ? List.of() : List.copyOf(streamPaths);
+        }
+    }
+}
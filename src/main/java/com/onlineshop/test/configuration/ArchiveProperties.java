@@ -0,0 +1,12 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// directory читается на каждом узле (для нескольких узлов — общий том), а переносом из Postgres
+// занимается только узел с job-enabled=true. Заказы старше cutoff переносятся сегментами по segment-size
+@ConfigurationProperties(prefix = "archive")
+public record ArchiveProperties(Path directory, boolean jobEnabled, Duration cutoff, int segmentSize,
+                                int blockSize, int deleteBatchSize) {}
@@ -0,0 +1,24 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// durability=async — запись аудита не задерживает ответ, но события в очереди теряются при падении узла;
+// sync-on-commit — после коммита вызывающий ждёт (до sync-timeout), пока писатель сохранит его события.
+// Пакет, не записанный за max-retries попыток, пишется по одному событию; незаписанные события теряются
+@ConfigurationProperties(prefix = "audit")
+public record AuditProperties(boolean enabled,
+                              Durability durability,
+                              int queueCapacity,
+                              int batchSize,
+                              Duration flushInterval,
+                              Duration syncTimeout,
+                              Duration retryBackoff,
+                              int maxRetries) {
+
+    public enum Durability {
+        ASYNC,
+        SYNC_ON_COMMIT
+    }
+}
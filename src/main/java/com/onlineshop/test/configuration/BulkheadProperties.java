@@ -0,0 +1,16 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "bulkhead")
+public record BulkheadProperties(Map<String, Limit> limits) {
+
+    public BulkheadProperties {
+        limits = limits == null ? Map.of() : Map.copyOf(limits);
+    }
+
+    public record Limit(int maxConcurrent, Duration maxWait) {}
+}
@@ -0,0 +1,10 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// maxCarts — предел корзин в памяти; при переполнении давно не использованные корзины
+// сбрасываются в Postgres (spill=true) или теряются (spill=false)
+@ConfigurationProperties(prefix = "cart")
+public record CartProperties(int maxCarts, int maxItems, int maxQuantity, Duration ttl, boolean spill) {}
@@ -0,0 +1,9 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// retention — сколько хранятся записи об удалении; потребитель, не синхронизировавшийся дольше, делает полную выгрузку
+@ConfigurationProperties(prefix = "change-journal")
+public record ChangeJournalProperties(int batchSize, Duration retention, int defaultLimit, int maxLimit) {}
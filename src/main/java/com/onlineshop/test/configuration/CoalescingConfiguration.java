@@ -0,0 +1,74 @@
+package com.onlineshop.test.configuration;
+
+import com.onlineshop.test.dto.response.CustomerResponse;
+import com.onlineshop.test.dto.response.OrderResponse;
+import com.onlineshop.test.dto.response.ProductResponse;
+import com.onlineshop.test.entity.Customer;
+import com.onlineshop.test.entity.OrderView;
+import com.onlineshop.test.entity.Product;
+import com.onlineshop.test.mapper.CustomerMapper;
+import com.onlineshop.test.mapper.OrderMapper;
+import com.onlineshop.test.mapper.ProductMapper;
+import com.onlineshop.test.repository.CustomerRepository;
+import com.onlineshop.test.repository.OrderViewRepository;
+import com.onlineshop.test.repository.ProductRepository;
+import com.onlineshop.test.support.coalescing.CoalescingLoader;
+import com.onlineshop.test.support.coalescing.MicroBatcher;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Загрузчики горячих чтений по ID. Single-flight ничего не кэширует, а только объединяет одновременные загрузки
+// одного ID. Общим результатом служит готовый ответ, а не сущность: его безопасно отдавать нескольким потокам,
+// и маппер вызывается один раз на загрузку.
+@Configuration
+@EnableConfigurationProperties(CoalescingProperties.class)
+public class CoalescingConfiguration {
+
+    @Bean
+    public CoalescingLoader<Long, ProductResponse> productResponseLoader(ProductRepository productRepository,
+                                                                         ProductMapper productMapper,
+                                                                         CoalescingProperties properties) {
+        return loader("product", properties,
+                id -> productRepository.findById(id).map(productMapper::toResponse),
+                ids -> productRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Product::getId, productMapper::toResponse)));
+    }
+
+    @Bean
+    public CoalescingLoader<Long, OrderResponse> orderResponseLoader(OrderViewRepository orderViewRepository,
+                                                                     OrderMapper orderMapper,
+                                                                     CoalescingProperties properties) {
+        return loader("order", properties,
+                id -> orderViewRepository.findById(id).map(orderMapper::toResponse),
+                ids -> orderViewRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(OrderView::getId, orderMapper::toResponse)));
+    }
+
+    @Bean
+    public CoalescingLoader<Long, CustomerResponse> customerResponseLoader(CustomerRepository customerRepository,
+                                                                           CustomerMapper customerMapper,
+                                                                           CoalescingProperties properties) {
+        return loader("customer", properties,
+                id -> customerRepository.findById(id).map(customerMapper::toResponse),
+                ids -> customerRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Customer::getId, customerMapper::toResponse)));
+    }
+
+    private static <V> CoalescingLoader<Long, V> loader(String name,
+                                                        CoalescingProperties properties,
+                                                        Function<Long, Optional<V>> singleLoader,
+                                                        Function<Set<Long>, Map<Long, V>> batchLoader) {
+        if (!properties.enabled()) {
+            return new CoalescingLoader<>(singleLoader);
+        }
+        return new CoalescingLoader<>(singleLoader, new MicroBatcher<>(name, batchLoader,
+                properties.window().toNanos(), properties.maxSize(), properties.threads()));
+    }
+}
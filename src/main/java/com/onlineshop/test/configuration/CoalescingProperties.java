@@ -0,0 +1,9 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Micro-batching чтений по ID: выключено по умолчанию, single-flight работает всегда
+@ConfigurationProperties(prefix = "coalescing.batch")
+public record CoalescingProperties(boolean enabled, Duration window, int maxSize, int threads) {}
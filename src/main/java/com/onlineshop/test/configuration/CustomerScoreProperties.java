@@ -0,0 +1,7 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Пересчёт RFM-оценок: ranges диапазонов ID клиентов в parallelism потоков, кусками по chunk-size клиентов
+@ConfigurationProperties(prefix = "customer-score")
+public record CustomerScoreProperties(int parallelism, int ranges, int chunkSize) {}
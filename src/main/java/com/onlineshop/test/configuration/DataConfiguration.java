@@ -1,11 +1,15 @@
 package com.onlineshop.test.configuration;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @Configuration
 @EnableTransactionManagement
+@EnableConfigurationProperties({StockProperties.class, CartProperties.class, LeaderboardProperties.class, QueryProperties.class,
+        OrderFeedProperties.class, ChangeJournalProperties.class, ArchiveProperties.class, JobsProperties.class,
+        RecommendationProperties.class, CustomerScoreProperties.class, AuditProperties.class})
 @EnableJpaRepositories(basePackages = "com.onlineshop.test.repository")
 public class DataConfiguration {
 }
@@ -0,0 +1,30 @@
+package com.onlineshop.test.configuration;
+
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.scalars.ExtendedScalars;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+
+// Запросы глубже max-depth или сложнее max-complexity отклоняются до выполнения, не доходя до БД
+@Configuration
+@EnableConfigurationProperties(GraphQlLimitsProperties.class)
+public class GraphQlConfiguration {
+
+    @Bean
+    public RuntimeWiringConfigurer longScalarConfigurer() {
+        return wiring -> wiring.scalar(ExtendedScalars.GraphQLLong);
+    }
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(GraphQlLimitsProperties properties) {
+        return new MaxQueryDepthInstrumentation(properties.maxDepth());
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(GraphQlLimitsProperties properties) {
+        return new MaxQueryComplexityInstrumentation(properties.maxComplexity());
+    }
+}
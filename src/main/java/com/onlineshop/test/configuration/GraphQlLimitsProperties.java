@@ -0,0 +1,7 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// maxComplexity считается в полях запроса: каждое поле связи — один пакетный SQL-запрос на весь ответ
+@ConfigurationProperties(prefix = "graphql-limits")
+public record GraphQlLimitsProperties(int maxDepth, int maxComplexity, int maxPageSize) {}
@@ -0,0 +1,23 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+// enabled=false — узел только ставит задачи, но не выполняет их. schedules — тип задачи и cron
+// в формате Spring (секунды, минуты, часы, день, месяц, день недели)
+@ConfigurationProperties(prefix = "jobs")
+public record JobsProperties(boolean enabled,
+                             int concurrency,
+                             boolean virtualThreads,
+                             Duration lease,
+                             int maxAttempts,
+                             Duration retryBackoff,
+                             Duration retention,
+                             Map<String, String> schedules) {
+
+    public JobsProperties {
+        schedules = schedules != null ? schedules : Map.of();
+    }
+}
@@ -0,0 +1,9 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// retention — самое длинное окно рейтинга; столько минутных корзин хранится на сотрудника
+@ConfigurationProperties(prefix = "leaderboard")
+public record LeaderboardProperties(Duration retention, Duration reconcileInterval) {}
@@ -0,0 +1,40 @@
+package com.onlineshop.test.configuration;
+
+import com.onlineshop.test.dto.response.CustomerResponse;
+import com.onlineshop.test.dto.response.DepartmentResponse;
+import com.onlineshop.test.dto.response.ProductResponse;
+import com.onlineshop.test.support.cache.LocalCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Кэши ответов по ID внутри узла; имя кэша — часть сообщения инвалидации между узлами
+@Configuration
+@EnableConfigurationProperties(LocalCacheProperties.class)
+public class LocalCacheConfiguration {
+
+    public static final String PRODUCTS = "products";
+    public static final String CUSTOMERS = "customers";
+    public static final String DEPARTMENTS = "departments";
+
+    @Bean
+    public LocalCache<ProductResponse> productCache(LocalCacheProperties properties, MeterRegistry meterRegistry) {
+        return cache(PRODUCTS, properties, meterRegistry);
+    }
+
+    @Bean
+    public LocalCache<CustomerResponse> customerCache(LocalCacheProperties properties, MeterRegistry meterRegistry) {
+        return cache(CUSTOMERS, properties, meterRegistry);
+    }
+
+    @Bean
+    public LocalCache<DepartmentResponse> departmentCache(LocalCacheProperties properties, MeterRegistry meterRegistry) {
+        return cache(DEPARTMENTS, properties, meterRegistry);
+    }
+
+    // Выключенный кэш (enabled=false) всегда читает из загрузчика
+    private static <V> LocalCache<V> cache(String name, LocalCacheProperties properties, MeterRegistry meterRegistry) {
+        return new LocalCache<>(name, properties.enabled() ? properties.maxSize() : 0, properties.ttl().toNanos(), meterRegistry);
+    }
+}
@@ -0,0 +1,22 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// channel подставляется в LISTEN как идентификатор, поэтому допускаются только буквы, цифры и подчёркивание
+@ConfigurationProperties(prefix = "local-cache")
+public record LocalCacheProperties(boolean enabled,
+                                   int maxSize,
+                                   Duration ttl,
+                                   String channel,
+                                   Duration pollTimeout,
+                                   Duration reconnectBackoff,
+                                   int burstThreshold) {
+
+    public LocalCacheProperties {
+        if (channel == null || !channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Недопустимое имя канала local-cache.channel: " + channel);
+        }
+    }
+}
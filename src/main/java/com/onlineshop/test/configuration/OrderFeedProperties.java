@@ -0,0 +1,9 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// bufferSize — сколько последних событий хранится для отстающих подписчиков и Last-Event-ID (степень двойки)
+@ConfigurationProperties(prefix = "order-feed")
+public record OrderFeedProperties(int bufferSize, int maxSubscribers, Duration timeout, Duration heartbeat) {}
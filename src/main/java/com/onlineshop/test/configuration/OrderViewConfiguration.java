@@ -0,0 +1,17 @@
+package com.onlineshop.test.configuration;
+
+import com.onlineshop.test.support.view.OrderViewEndpoint;
+import com.onlineshop.test.support.view.OrderViewRebuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(OrderViewProperties.class)
+public class OrderViewConfiguration {
+
+    @Bean
+    public OrderViewEndpoint orderViewEndpoint(OrderViewRebuilder orderViewRebuilder) {
+        return new OrderViewEndpoint(orderViewRebuilder);
+    }
+}
@@ -0,0 +1,7 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Пересборка order_view: диапазоны id по rebuild-chunk-size заказов в rebuild-parallelism потоков
+@ConfigurationProperties(prefix = "order-view")
+public record OrderViewProperties(int rebuildChunkSize, int rebuildParallelism) {}
@@ -0,0 +1,10 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// largeTableRows — с какой оценки числа строк (pg_class.reltuples) запрос без индексного условия
+// или индексной сортировки отклоняется
+@ConfigurationProperties(prefix = "query")
+public record QueryProperties(long largeTableRows, Duration statisticsTtl, int defaultLimit, int maxLimit) {}
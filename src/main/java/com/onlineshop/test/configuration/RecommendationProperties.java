@@ -0,0 +1,9 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Пересборка матрицы совместных покупок: диапазоны id по build-chunk-size заказов в build-parallelism потоков
+@ConfigurationProperties(prefix = "recommendations")
+public record RecommendationProperties(Duration rebuildInterval, int buildParallelism, int buildChunkSize) {}
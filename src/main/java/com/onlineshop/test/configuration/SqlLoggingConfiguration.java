@@ -0,0 +1,54 @@
+package com.onlineshop.test.configuration;
+
+import com.onlineshop.test.support.sql.SlowQueryEndpoint;
+import com.onlineshop.test.support.sql.SlowQueryLog;
+import com.onlineshop.test.support.sql.SqlExecutionListener;
+import com.onlineshop.test.support.tracing.TracingJdbcListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Пул HikariCP оборачивается прокси datasource-proxy: каждый выполненный JDBC-запрос
+// проходит через SqlExecutionListener (выборочный лог и захват медленных запросов),
+// а получение соединения и операторы трассируемого запроса — через TracingJdbcListener
+@Configuration
+@EnableConfigurationProperties(SqlLoggingProperties.class)
+public class SqlLoggingConfiguration {
+
+    @Bean
+    public SlowQueryLog slowQueryLog(SqlLoggingProperties properties, ObjectProvider<DataSource> dataSource) {
+        return new SlowQueryLog(properties, dataSource);
+    }
+
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(SlowQueryLog slowQueryLog) {
+        return new SlowQueryEndpoint(slowQueryLog);
+    }
+
+    // static: постпроцессор создаётся раньше остальных бинов конфигурации
+    @Bean
+    public static BeanPostProcessor sqlLoggingDataSourcePostProcessor(ObjectProvider<SqlLoggingProperties> properties,
+                                                                      ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    var tracing = new TracingJdbcListener();
+                    return ProxyDataSourceBuilder
+                            .create(beanName, dataSource)
+                            .listener(new SqlExecutionListener(properties.getObject(), slowQueryLog))
+                            .listener(tracing)
+                            .methodListener(tracing)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
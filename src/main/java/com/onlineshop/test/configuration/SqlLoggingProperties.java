@@ -0,0 +1,14 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "sql-log")
+public record SqlLoggingProperties(
+        double sampleRate,
+        Duration slowThreshold,
+        boolean explain,
+        Duration explainTimeout,
+        int slowBufferSize
+) {}
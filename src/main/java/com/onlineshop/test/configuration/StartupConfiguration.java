@@ -0,0 +1,61 @@
+package com.onlineshop.test.configuration;
+
+import com.onlineshop.test.support.cache.InvalidationListener;
+import com.onlineshop.test.support.jobs.JobHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+@Slf4j
+@Configuration
+public class StartupConfiguration {
+
+    // При spring.main.lazy-initialization=true бины пути запроса (контроллеры, сервисы, мапперы)
+    // всё равно создаются при старте, чтобы первый запрос не платил за их инициализацию
+    @Bean
+    public static LazyInitializationExcludeFilter requestPathEagerInitialization() {
+        return (beanName, beanDefinition, beanType) -> beanType.isAnnotationPresent(RestController.class)
+                || beanType.isAnnotationPresent(Service.class)
+                || isMapper(beanType);
+    }
+
+    // Фоновую работу никто не запрашивает: ленивый бин с @Scheduled не создаётся, и его задачи
+    // не регистрируются, обработчик задач очереди не находится воркером, а слушатель инвалидации кэша
+    // не подписывается на NOTIFY. Такие бины создаются при старте
+    @Bean
+    public static LazyInitializationExcludeFilter backgroundWorkEagerInitialization() {
+        return (beanName, beanDefinition, beanType) -> JobHandler.class.isAssignableFrom(beanType)
+                || InvalidationListener.class.isAssignableFrom(beanType)
+                || hasScheduledMethods(beanType);
+    }
+
+    // Время от старта JVM до готовности принимать запросы
+    @EventListener(ApplicationReadyEvent.class)
+    public void logStartupTime(ApplicationReadyEvent event) {
+        log.info("Application ready in {} ms since JVM start (context: {} ms)",
+                ManagementFactory.getRuntimeMXBean().getUptime(),
+                event.getTimeTaken().toMillis());
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        return Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(beanType)))
+                .anyMatch(method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class));
+    }
+
+    // @Mapper не доступна в рантайме, поэтому MapStruct-реализации узнаём по пакету
+    private static boolean isMapper(Class<?> beanType) {
+        return beanType.getPackageName().equals("com.onlineshop.test.mapper");
+    }
+}
@@ -0,0 +1,8 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "stock")
+public record StockProperties(Duration reservationTtl, int expirySweepBatch) {}
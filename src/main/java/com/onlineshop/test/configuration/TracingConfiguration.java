@@ -0,0 +1,66 @@
+package com.onlineshop.test.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlineshop.test.support.tracing.OtlpFileExporter;
+import com.onlineshop.test.support.tracing.SlowRequestEndpoint;
+import com.onlineshop.test.support.tracing.TraceCollector;
+import com.onlineshop.test.support.tracing.TracingAspect;
+import com.onlineshop.test.support.tracing.TracingFilter;
+import com.onlineshop.test.support.tracing.TracingTaskDecorator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Трассировка запросов /api: корневой спан в фильтре, спаны слоёв в аспекте, JDBC — в прокси datasource-proxy
+// (SqlLoggingConfiguration), сериализация — в обёртке конвертеров Jackson (WebConfiguration). Трассы копятся в памяти
+// и отдаются actuator-эндпоинтом GET /actuator/slowrequests; при заданном tracing.export-file дублируются в файл OTLP/JSON.
+// tracing.enabled=false выключает только корневой спан: без трассы остальные точки ничего не записывают.
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+public class TracingConfiguration {
+
+    @Bean
+    public TraceCollector traceCollector(TracingProperties properties, ObjectProvider<OtlpFileExporter> exporter,
+                                         MeterRegistry meterRegistry) {
+        return new TraceCollector(properties, exporter.getIfAvailable(), meterRegistry);
+    }
+
+    @Bean
+    public SlowRequestEndpoint slowRequestEndpoint(TraceCollector traceCollector) {
+        return new SlowRequestEndpoint(traceCollector);
+    }
+
+    @Bean
+    @ConditionalOnExpression("!'${tracing.export-file:}'.isBlank()")
+    public OtlpFileExporter otlpFileExporter(TracingProperties properties,
+                                             @Value("${spring.application.name}") String serviceName,
+                                             ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new OtlpFileExporter(properties, serviceName, objectMapper, meterRegistry);
+    }
+
+    // Перед контролем допуска: ожидание в очереди допуска входит в собственное время HTTP
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter(TracingProperties properties, TraceCollector traceCollector) {
+        var registration = new FilterRegistrationBean<>(new TracingFilter(properties, traceCollector));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    @Bean
+    public TracingAspect tracingAspect() {
+        return new TracingAspect();
+    }
+
+    // Spring Boot применяет единственный TaskDecorator к applicationTaskExecutor
+    @Bean
+    public TracingTaskDecorator tracingTaskDecorator() {
+        return new TracingTaskDecorator();
+    }
+}
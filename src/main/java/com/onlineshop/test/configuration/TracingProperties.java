@@ -0,0 +1,14 @@
+package com.onlineshop.test.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// export-file — файл OTLP/JSON (по строке ExportTraceServiceRequest на трассу); пустой — только в памяти
+@ConfigurationProperties(prefix = "tracing")
+public record TracingProperties(
+        boolean enabled,
+        double sampleRate,
+        int maxSpans,
+        int bufferSize,
+        String exportFile,
+        int exportQueueCapacity
+) {}
@@ -0,0 +1,60 @@
+package com.onlineshop.test.configuration;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.onlineshop.test.support.bulkhead.BulkheadInterceptor;
+import com.onlineshop.test.support.tracing.TracingHttpMessageConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class WebConfiguration implements WebMvcConfigurer {
+
+    private final BulkheadInterceptor bulkheadInterceptor;
+
+    // MeterRegistry может отсутствовать в срезах тестов (@WebMvcTest)
+    public WebConfiguration(BulkheadProperties bulkheadProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.bulkheadInterceptor = new BulkheadInterceptor(bulkheadProperties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(bulkheadInterceptor).addPathPatterns("/api/**");
+    }
+
+    // Чтение и запись тел через Jackson (JSON, CBOR, Smile) попадают в трассу запроса отдельными спанами
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> converter instanceof AbstractJackson2HttpMessageConverter jackson
+                ? new TracingHttpMessageConverter(jackson)
+                : converter);
+    }
+
+    // Бинарные форматы ответа выбираются клиентом через Accept, JSON остаётся форматом по умолчанию.
+    // Конвертеры строятся из того же Jackson2ObjectMapperBuilder, что и JSON (даты, модули совпадают).
+    // application/cbor
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    // application/x-jackson-smile
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
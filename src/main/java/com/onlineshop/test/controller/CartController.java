@@ -0,0 +1,68 @@
+package com.onlineshop.test.controller;
+
+import com.onlineshop.test.dto.request.CartItemRequest;
+import com.onlineshop.test.dto.request.CartRequest;
+import com.onlineshop.test.dto.request.CheckoutRequest;
+import com.onlineshop.test.dto.response.CartResponse;
+import com.onlineshop.test.dto.response.OrderResponse;
+import com.onlineshop.test.service.CartService;
+import jakarta.validation.Valid;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/carts")
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class CartController {
+
+    CartService cartService;
+
+    // Создание корзины
+    @PostMapping
+    public CartResponse createCart(@RequestBody @Valid CartRequest request) {
+        return cartService.createCart(request);
+    }
+
+    // Получение корзины по ID
+    @GetMapping("/{id}")
+    public CartResponse getCart(@PathVariable UUID id) {
+        return cartService.getCart(id);
+    }
+
+    // Удаление корзины
+    @DeleteMapping("/{id}")
+    public void deleteCart(@PathVariable UUID id) {
+        cartService.deleteCart(id);
+    }
+
+    // Установка количества продукта в корзине
+    @PutMapping("/{id}/items/{productId}")
+    public CartResponse setItem(@PathVariable UUID id, @PathVariable Long productId,
+                                @RequestBody @Valid CartItemRequest request) {
+        return cartService.setItem(id, productId, request);
+    }
+
+    // Удаление продукта из корзины
+    @DeleteMapping("/{id}/items/{productId}")
+    public CartResponse removeItem(@PathVariable UUID id, @PathVariable Long productId) {
+        return cartService.removeItem(id, productId);
+    }
+
+    // Оформление заказа из корзины
+    @PostMapping("/{id}/checkout")
+    public OrderResponse checkout(@PathVariable UUID id, @RequestBody @Valid CheckoutRequest request) {
+        return cartService.checkout(id, request);
+    }
+}
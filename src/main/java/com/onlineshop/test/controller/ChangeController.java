@@ -0,0 +1,28 @@
+package com.onlineshop.test.controller;
+
+import com.onlineshop.test.dto.request.ChangesRequest;
+import com.onlineshop.test.dto.response.ChangePageResponse;
+import com.onlineshop.test.service.ChangeJournalService;
+import jakarta.validation.Valid;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/changes")
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ChangeController {
+
+    ChangeJournalService changeJournalService;
+
+    // Изменения отделов, сотрудников, клиентов, заказов и продуктов после курсора since
+    @GetMapping
+    public ChangePageResponse getChanges(@ModelAttribute @Valid ChangesRequest request) {
+        return changeJournalService.getChanges(request);
+    }
+}
@@ -1,20 +1,31 @@
 package com.onlineshop.test.controller;
 
 import com.onlineshop.test.dto.request.CustomerRequest;
+import com.onlineshop.test.dto.request.ListQuery;
+import com.onlineshop.test.dto.request.OrderPageRequest;
 import com.onlineshop.test.dto.response.CustomerResponse;
+import com.onlineshop.test.dto.response.CustomerScoreResponse;
+import com.onlineshop.test.dto.response.OrderPageResponse;
 import com.onlineshop.test.service.CustomerService;
+import com.onlineshop.test.service.OrderService;
+import com.onlineshop.test.support.bulkhead.Bulkhead;
 import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.MediaType;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -25,11 +36,20 @@ import java.util.List;
 public class CustomerController {
 
     CustomerService customerService;
+    OrderService orderService;
 
-    // Получение всех клиентов
+    // Получение клиентов; фильтры и сортировка по белому списку полей (см. CustomerSpecifications)
     @GetMapping
-    public List<CustomerResponse> getAllCustomers() {
-        return customerService.getAllCustomers();
+    @Bulkhead(Bulkhead.HEAVY)
+    public List<CustomerResponse> getAllCustomers(@RequestParam MultiValueMap<String, String> params) {
+        return customerService.getAllCustomers(ListQuery.from(params));
+    }
+
+    // Потоковая выгрузка всех клиентов без буферизации всего ответа
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Bulkhead(Bulkhead.HEAVY)
+    public StreamingResponseBody exportCustomers() {
+        return customerService.exportCustomers();
     }
 
     // Получение клиента по ID
@@ -38,6 +58,12 @@ public class CustomerController {
         return customerService.getCustomerById(id);
     }
 
+    // RFM-оценка клиента: давность, частота и сумма заказов
+    @GetMapping("/{id}/score")
+    public CustomerScoreResponse getCustomerScore(@PathVariable Long id) {
+        return customerService.getCustomerScore(id);
+    }
+
     // Создание нового клиента
     @PostMapping
     public CustomerResponse createCustomer(@RequestBody @Valid CustomerRequest request) {
@@ -55,4 +81,10 @@ public class CustomerController {
     public void deleteCustomer(@PathVariable Long id) {
         customerService.deleteCustomer(id);
     }
-}
\ No newline at end of file
+
+    // История заказов клиента постранично, новые первыми
+    @GetMapping("/{id}/orders")
+    public OrderPageResponse getCustomerOrders(@PathVariable Long id, @ModelAttribute @Valid OrderPageRequest page) {
+        return orderService.getCustomerOrders(id, page);
+    }
+}
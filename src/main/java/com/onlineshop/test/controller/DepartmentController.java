@@ -3,10 +3,12 @@ package com.onlineshop.test.controller;
 import com.onlineshop.test.dto.request.DepartmentRequest;
 import com.onlineshop.test.dto.response.DepartmentResponse;
 import com.onlineshop.test.service.DepartmentService;
+import com.onlineshop.test.support.bulkhead.Bulkhead;
 import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -28,10 +31,18 @@ public class DepartmentController {
 
     // Получение всех департаментов
     @GetMapping
+    @Bulkhead(Bulkhead.HEAVY)
     public List<DepartmentResponse> getAllDepartments() {
         return departmentService.getAllDepartments();
     }
 
+    // Потоковая выгрузка всех департаментов без буферизации всего ответа
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Bulkhead(Bulkhead.HEAVY)
+    public StreamingResponseBody exportDepartments() {
+        return departmentService.exportDepartments();
+    }
+
     // Получение департамента по ID
     @GetMapping("/{id}")
     public DepartmentResponse getDepartmentById(@PathVariable Long id) {
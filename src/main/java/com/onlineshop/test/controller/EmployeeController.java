@@ -1,20 +1,32 @@
 package com.onlineshop.test.controller;
 
 import com.onlineshop.test.dto.request.EmployeeRequest;
+import com.onlineshop.test.dto.request.LeaderboardRequest;
+import com.onlineshop.test.dto.request.ListQuery;
+import com.onlineshop.test.dto.request.OrderPageRequest;
 import com.onlineshop.test.dto.response.EmployeeResponse;
+import com.onlineshop.test.dto.response.LeaderboardEntryResponse;
+import com.onlineshop.test.dto.response.OrderPageResponse;
 import com.onlineshop.test.service.EmployeeService;
+import com.onlineshop.test.service.OrderService;
+import com.onlineshop.test.support.bulkhead.Bulkhead;
 import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.MediaType;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -25,11 +37,26 @@ import java.util.List;
 public class EmployeeController {
 
     EmployeeService employeeService;
+    OrderService orderService;
 
-    // Получение всех сотрудников
+    // Получение сотрудников; фильтры и сортировка по белому списку полей (см. EmployeeSpecifications)
     @GetMapping
-    public List<EmployeeResponse> getAllEmployees() {
-        return employeeService.getAllEmployees();
+    @Bulkhead(Bulkhead.HEAVY)
+    public List<EmployeeResponse> getAllEmployees(@RequestParam MultiValueMap<String, String> params) {
+        return employeeService.getAllEmployees(ListQuery.from(params));
+    }
+
+    // Потоковая выгрузка всех сотрудников без буферизации всего ответа
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Bulkhead(Bulkhead.HEAVY)
+    public StreamingResponseBody exportEmployees() {
+        return employeeService.exportEmployees();
+    }
+
+    // Рейтинг сотрудников по продажам за окно (window=15m, 1h, 1d)
+    @GetMapping("/leaderboard")
+    public List<LeaderboardEntryResponse> getLeaderboard(@ModelAttribute @Valid LeaderboardRequest request) {
+        return employeeService.getLeaderboard(request);
     }
 
     // Получение сотрудника по ID
@@ -55,4 +82,10 @@ public class EmployeeController {
     public void deleteEmployee(@PathVariable Long id) {
         employeeService.deleteEmployee(id);
     }
-}
\ No newline at end of file
+
+    // История заказов сотрудника постранично, новые первыми
+    @GetMapping("/{id}/orders")
+    public OrderPageResponse getEmployeeOrders(@PathVariable Long id, @ModelAttribute @Valid OrderPageRequest page) {
+        return orderService.getEmployeeOrders(id, page);
+    }
+}
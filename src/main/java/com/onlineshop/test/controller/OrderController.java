@@ -1,20 +1,28 @@
 package com.onlineshop.test.controller;
 
+import com.onlineshop.test.dto.request.OrderFilterRequest;
 import com.onlineshop.test.dto.request.OrderRequest;
+import com.onlineshop.test.dto.response.OrderItemPriceResponse;
 import com.onlineshop.test.dto.response.OrderResponse;
 import com.onlineshop.test.service.OrderService;
+import com.onlineshop.test.support.bulkhead.Bulkhead;
 import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -26,10 +34,24 @@ public class OrderController {
 
     OrderService orderService;
 
-    // Получение всех заказов
+    // Получение заказов с фильтрацией по периоду, сумме, клиенту и сотруднику
     @GetMapping
-    public List<OrderResponse> getAllOrders() {
-        return orderService.getAllOrders();
+    @Bulkhead(Bulkhead.HEAVY)
+    public List<OrderResponse> getAllOrders(@ModelAttribute @Valid OrderFilterRequest filter) {
+        return orderService.getAllOrders(filter);
+    }
+
+    // Потоковая выгрузка всех заказов без буферизации всего ответа
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Bulkhead(Bulkhead.HEAVY)
+    public StreamingResponseBody exportOrders() {
+        return orderService.exportOrders();
+    }
+
+    // Живая лента изменений заказов (SSE): события created, updated, deleted и reset
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrders(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return orderService.streamOrders(lastEventId);
     }
 
     // Получение заказа по ID
@@ -38,6 +60,12 @@ public class OrderController {
         return orderService.getOrderById(id);
     }
 
+    // Позиции заказа с ценой на момент его создания и текущей ценой (аудит, пересчёт)
+    @GetMapping("/{id}/prices")
+    public List<OrderItemPriceResponse> getOrderItemPrices(@PathVariable Long id) {
+        return orderService.getOrderItemPrices(id);
+    }
+
     // Создание нового заказа
     @PostMapping
     public OrderResponse createOrder(@RequestBody @Valid OrderRequest request) {
@@ -1,21 +1,37 @@
 package com.onlineshop.test.controller;
 
+import com.onlineshop.test.dto.request.ListQuery;
+import com.onlineshop.test.dto.request.PriceBatchRequest;
 import com.onlineshop.test.dto.request.ProductRequest;
+import com.onlineshop.test.dto.request.RelatedProductsRequest;
+import com.onlineshop.test.dto.request.StockRequest;
+import com.onlineshop.test.dto.response.ProductPriceResponse;
 import com.onlineshop.test.dto.response.ProductResponse;
+import com.onlineshop.test.dto.response.RelatedProductResponse;
+import com.onlineshop.test.dto.response.StockResponse;
 import com.onlineshop.test.service.ProductService;
+import com.onlineshop.test.service.StockService;
+import com.onlineshop.test.support.bulkhead.Bulkhead;
 import jakarta.validation.Valid;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -25,11 +41,20 @@ import java.util.List;
 public class ProductController {
 
     ProductService productService;
+    StockService stockService;
 
-    // Получение всех продуктов
+    // Получение продуктов; фильтры и сортировка по белому списку полей (см. ProductSpecifications)
     @GetMapping
-    public List<ProductResponse> getAllProducts() {
-        return productService.getAllProducts();
+    @Bulkhead(Bulkhead.HEAVY)
+    public List<ProductResponse> getAllProducts(@RequestParam MultiValueMap<String, String> params) {
+        return productService.getAllProducts(ListQuery.from(params));
+    }
+
+    // Потоковая выгрузка всех продуктов без буферизации всего ответа
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Bulkhead(Bulkhead.HEAVY)
+    public StreamingResponseBody exportProducts() {
+        return productService.exportProducts();
     }
 
     // Получение продукта по ID
@@ -38,6 +63,26 @@ public class ProductController {
         return productService.getProductById(id);
     }
 
+    // Цена продукта на момент ?at= (ISO, например 2024-05-01T12:00:00)
+    @GetMapping("/{id}/price")
+    public ProductPriceResponse getPriceAt(@PathVariable Long id,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return productService.getPriceAt(id, at);
+    }
+
+    // Цены для пакета пар (продукт, момент), например позиций заказов при сверке
+    @PostMapping("/prices")
+    public List<ProductPriceResponse> getPricesAt(@RequestBody @Valid PriceBatchRequest request) {
+        return productService.getPricesAt(request);
+    }
+
+    // Часто покупают вместе: ?n= — число рекомендаций (по умолчанию 10)
+    @GetMapping("/{id}/related")
+    public List<RelatedProductResponse> getRelatedProducts(@PathVariable Long id,
+                                                           @ModelAttribute @Valid RelatedProductsRequest request) {
+        return productService.getRelatedProducts(id, request);
+    }
+
     // Создание нового продукта
     @PostMapping
     public ProductResponse createProduct(@RequestBody @Valid ProductRequest request) {
@@ -55,4 +100,16 @@ public class ProductController {
     public void deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
     }
+
+    // Получение остатка продукта
+    @GetMapping("/{id}/stock")
+    public StockResponse getStock(@PathVariable Long id) {
+        return stockService.getStock(id);
+    }
+
+    // Установка остатка продукта и числа шардов
+    @PutMapping("/{id}/stock")
+    public StockResponse setStock(@PathVariable Long id, @RequestBody @Valid StockRequest request) {
+        return stockService.setStock(id, request);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.onlineshop.test.controller;
+
+import com.onlineshop.test.dto.request.ReservationRequest;
+import com.onlineshop.test.dto.response.ReservationResponse;
+import com.onlineshop.test.service.StockService;
+import jakarta.validation.Valid;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/reservations")
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ReservationController {
+
+    StockService stockService;
+
+    // Временный резерв остатка (например, на время оформления заказа)
+    @PostMapping
+    public ReservationResponse reserve(@RequestBody @Valid ReservationRequest request) {
+        return stockService.reserve(request);
+    }
+
+    // Снятие резерва
+    @DeleteMapping("/{id}")
+    public void release(@PathVariable Long id) {
+        stockService.release(id);
+    }
+}
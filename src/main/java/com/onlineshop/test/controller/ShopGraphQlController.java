@@ -0,0 +1,187 @@
+package com.onlineshop.test.controller;
+
+import com.onlineshop.test.configuration.GraphQlLimitsProperties;
+import com.onlineshop.test.dto.graphql.CustomerNode;
+import com.onlineshop.test.dto.graphql.DepartmentNode;
+import com.onlineshop.test.dto.graphql.EmployeeNode;
+import com.onlineshop.test.dto.graphql.OrderItemNode;
+import com.onlineshop.test.dto.graphql.OrderNode;
+import com.onlineshop.test.dto.graphql.ProductNode;
+import com.onlineshop.test.repository.CustomerRepository;
+import com.onlineshop.test.repository.DepartmentRepository;
+import com.onlineshop.test.repository.EmployeeRepository;
+import com.onlineshop.test.repository.OrderItemRepository;
+import com.onlineshop.test.repository.OrderRepository;
+import com.onlineshop.test.repository.ProductRepository;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Limit;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// GraphQL поверх сущностей магазина. Корневые запросы читают проекции с внешними ключами,
+// а каждая связь — @BatchMapping: Spring GraphQL заводит на запрос DataLoader, который собирает
+// ключи со всего уровня ответа, и связь загружается одним WHERE id IN (...) по уникальным ID.
+@Controller
+@AllArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ShopGraphQlController {
+
+    OrderRepository orderRepository;
+    OrderItemRepository orderItemRepository;
+    CustomerRepository customerRepository;
+    EmployeeRepository employeeRepository;
+    DepartmentRepository departmentRepository;
+    ProductRepository productRepository;
+    GraphQlLimitsProperties limits;
+
+    @QueryMapping
+    public OrderNode order(@Argument Long id) {
+        return first(orderRepository.findNodesByIds(List.of(id)));
+    }
+
+    @QueryMapping
+    public List<OrderNode> orders(@Argument Integer first, @Argument Long after) {
+        return orderRepository.findNodesAfter(after(after), limit(first));
+    }
+
+    @QueryMapping
+    public CustomerNode customer(@Argument Long id) {
+        return first(customerRepository.findNodesByIds(List.of(id)));
+    }
+
+    @QueryMapping
+    public List<CustomerNode> customers(@Argument Integer first, @Argument Long after) {
+        return customerRepository.findNodesAfter(after(after), limit(first));
+    }
+
+    @QueryMapping
+    public EmployeeNode employee(@Argument Long id) {
+        return first(employeeRepository.findNodesByIds(List.of(id)));
+    }
+
+    @QueryMapping
+    public List<EmployeeNode> employees(@Argument Integer first, @Argument Long after) {
+        return employeeRepository.findNodesAfter(after(after), limit(first));
+    }
+
+    @QueryMapping
+    public DepartmentNode department(@Argument Long id) {
+        return first(departmentRepository.findNodesByIds(List.of(id)));
+    }
+
+    @QueryMapping
+    public List<DepartmentNode> departments(@Argument Integer first, @Argument Long after) {
+        return departmentRepository.findNodesAfter(after(after), limit(first));
+    }
+
+    @QueryMapping
+    public ProductNode product(@Argument Long id) {
+        return first(productRepository.findNodesByIds(List.of(id)));
+    }
+
+    @QueryMapping
+    public List<ProductNode> products(@Argument Integer first, @Argument Long after) {
+        return productRepository.findNodesAfter(after(after), limit(first));
+    }
+
+    // Order.customer
+    @BatchMapping(typeName = "Order")
+    public Map<OrderNode, CustomerNode> customer(List<OrderNode> orders) {
+        var customers = byId(load(ids(orders, OrderNode::customerId), customerRepository::findNodesByIds), CustomerNode::id);
+        return associate(orders, order -> customers.get(order.customerId()));
+    }
+
+    // Order.employee
+    @BatchMapping(typeName = "Order")
+    public Map<OrderNode, EmployeeNode> employee(List<OrderNode> orders) {
+        var employees = byId(load(ids(orders, OrderNode::employeeId), employeeRepository::findNodesByIds), EmployeeNode::id);
+        return associate(orders, order -> employees.get(order.employeeId()));
+    }
+
+    // Order.items
+    @BatchMapping(typeName = "Order")
+    public Map<OrderNode, List<OrderItemNode>> items(List<OrderNode> orders) {
+        var items = load(ids(orders, OrderNode::id), orderItemRepository::findNodesByOrderIds)
+                .stream()
+                .collect(Collectors.groupingBy(OrderItemNode::orderId));
+        return associate(orders, order -> items.getOrDefault(order.id(), List.of()));
+    }
+
+    // OrderItem.product
+    @BatchMapping(typeName = "OrderItem")
+    public Map<OrderItemNode, ProductNode> product(List<OrderItemNode> items) {
+        var products = byId(load(ids(items, OrderItemNode::productId), productRepository::findNodesByIds), ProductNode::id);
+        return associate(items, item -> products.get(item.productId()));
+    }
+
+    // Employee.department
+    @BatchMapping(typeName = "Employee")
+    public Map<EmployeeNode, DepartmentNode> department(List<EmployeeNode> employees) {
+        var departments = byId(load(ids(employees, EmployeeNode::departmentId), departmentRepository::findNodesByIds), DepartmentNode::id);
+        return associate(employees, employee -> departments.get(employee.departmentId()));
+    }
+
+    // Employee.manager
+    @BatchMapping(typeName = "Employee")
+    public Map<EmployeeNode, EmployeeNode> manager(List<EmployeeNode> employees) {
+        var managers = byId(load(ids(employees, EmployeeNode::managerId), employeeRepository::findNodesByIds), EmployeeNode::id);
+        return associate(employees, employee -> managers.get(employee.managerId()));
+    }
+
+    // Department.employees
+    @BatchMapping(typeName = "Department")
+    public Map<DepartmentNode, List<EmployeeNode>> employees(List<DepartmentNode> departments) {
+        var employees = load(ids(departments, DepartmentNode::id), employeeRepository::findNodesByDepartmentIds)
+                .stream()
+                .collect(Collectors.groupingBy(EmployeeNode::departmentId));
+        return associate(departments, department -> employees.getOrDefault(department.id(), List.of()));
+    }
+
+    private Limit limit(Integer first) {
+        return Limit.of(Math.max(1, Math.min(first != null ? first : limits.maxPageSize(), limits.maxPageSize())));
+    }
+
+    private static Long after(Long after) {
+        return after != null ? after : 0L;
+    }
+
+    private static <T> T first(List<T> nodes) {
+        return nodes.isEmpty() ? null : nodes.get(0);
+    }
+
+    // Уникальные ненулевые ID со всего пакета
+    private static <T> Collection<Long> ids(List<T> nodes, Function<T, Long> id) {
+        return nodes.stream()
+                .map(id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    // Пустой пакет (у всех строк связь null) не доходит до БД
+    private static <T> List<T> load(Collection<Long> ids, Function<Collection<Long>, List<T>> query) {
+        return ids.isEmpty() ? List.of() : query.apply(ids);
+    }
+
+    private static <T> Map<Long, T> byId(List<T> nodes, Function<T, Long> id) {
+        return nodes.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    // Collectors.toMap не принимает null-значения, а связь может отсутствовать
+    private static <K, V> Map<K, V> associate(List<K> keys, Function<K, V> value) {
+        var result = new HashMap<K, V>(keys.size() * 2);
+        keys.forEach(key -> result.put(key, value.apply(key)));
+        return result;
+    }
+}
@@ -0,0 +1,7 @@
+package com.onlineshop.test.dto.graphql;
+
+public record CustomerNode(
+        Long id,
+        String name,
+        String city
+) {}
@@ -0,0 +1,7 @@
+package com.onlineshop.test.dto.graphql;
+
+public record DepartmentNode(
+        Long id,
+        String name,
+        String location
+) {}
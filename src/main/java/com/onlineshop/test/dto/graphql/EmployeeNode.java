@@ -0,0 +1,10 @@
+package com.onlineshop.test.dto.graphql;
+
+public record EmployeeNode(
+        Long id,
+        String name,
+        String position,
+        Long salary,
+        Long departmentId,
+        Long managerId
+) {}
@@ -0,0 +1,8 @@
+package com.onlineshop.test.dto.graphql;
+
+public record OrderItemNode(
+        Long id,
+        Long orderId,
+        Long productId,
+        Long quantity
+) {}
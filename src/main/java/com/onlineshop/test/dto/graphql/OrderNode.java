@@ -0,0 +1,12 @@
+package com.onlineshop.test.dto.graphql;
+
+import java.time.LocalDateTime;
+
+// Узлы GraphQL хранят внешние ключи вместо связанных сущностей: связи догружаются DataLoader-ами
+public record OrderNode(
+        Long id,
+        Long amount,
+        LocalDateTime createdAt,
+        Long customerId,
+        Long employeeId
+) {}
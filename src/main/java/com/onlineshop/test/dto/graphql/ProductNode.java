@@ -0,0 +1,7 @@
+package com.onlineshop.test.dto.graphql;
+
+public record ProductNode(
+        Long id,
+        String name,
+        Long price
+) {}
@@ -0,0 +1,13 @@
+package com.onlineshop.test.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class CartItemRequest {
+
+    @NotNull(message = "Количество не может быть null")
+    @Positive(message = "Количество должно быть больше нуля")
+    private Integer quantity;
+}
@@ -0,0 +1,11 @@
+package com.onlineshop.test.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CartRequest {
+
+    @NotNull(message = "ID клиента не может быть null")
+    private Long customerId;
+}
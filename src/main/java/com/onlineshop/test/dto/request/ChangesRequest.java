@@ -0,0 +1,17 @@
+package com.onlineshop.test.dto.request;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+// since — nextSince из предыдущего ответа. Без since возвращается только текущая позиция журнала:
+// её запоминают перед полной выгрузкой и дальше читают изменения от неё
+@Data
+public class ChangesRequest {
+
+    @PositiveOrZero(message = "since не может быть отрицательным")
+    private Long since;
+
+    @Positive(message = "Лимит должен быть больше нуля")
+    private Integer limit;
+}
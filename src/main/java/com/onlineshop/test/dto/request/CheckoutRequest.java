@@ -0,0 +1,11 @@
+package com.onlineshop.test.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CheckoutRequest {
+
+    @NotNull(message = "ID сотрудника не может быть null")
+    private Long employeeId;
+}
@@ -0,0 +1,18 @@
+package com.onlineshop.test.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class LeaderboardRequest {
+
+    // 15m, 1h, 1d; окно длиннее leaderboard.retention обрезается до него
+    @Pattern(regexp = "\\d+[mhd]", message = "Окно задаётся как 15m, 1h или 1d")
+    private String window = "1h";
+
+    @Positive(message = "Размер рейтинга должен быть больше нуля")
+    @Max(value = 100, message = "Размер рейтинга не может быть больше 100")
+    private Integer limit = 10;
+}
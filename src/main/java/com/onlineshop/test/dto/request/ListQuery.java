@@ -0,0 +1,63 @@
+package com.onlineshop.test.dto.request;
+
+import com.onlineshop.test.exception.InvalidQueryException;
+import org.springframework.util.MultiValueMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Параметры списка: price.gte=100&name.prefix=lap&sort=price,desc&limit=50.
+// Поля и операторы проверяются по белому списку сущности при компиляции запроса.
+public record ListQuery(List<Criterion> criteria, List<Order> sort, Integer limit) {
+
+    private static final String SORT = "sort";
+    private static final String LIMIT = "limit";
+
+    public record Criterion(String field, String operator, String value) {}
+
+    public record Order(String field, boolean descending) {}
+
+    public static ListQuery from(MultiValueMap<String, String> params) {
+        var criteria = new ArrayList<Criterion>();
+        var sort = new ArrayList<Order>();
+        Integer limit = null;
+
+        for (var entry : params.entrySet()) {
+            var name = entry.getKey();
+            for (var value : entry.getValue()) {
+                if (SORT.equals(name)) {
+                    sort.add(parseOrder(value));
+                } else if (LIMIT.equals(name)) {
+                    limit = parseLimit(value);
+                } else {
+                    int dot = name.lastIndexOf('.');
+                    criteria.add(dot < 0
+                            ? new Criterion(name, "eq", value)
+                            : new Criterion(name.substring(0, dot), name.substring(dot + 1), value));
+                }
+            }
+        }
+
+        return new ListQuery(criteria, sort, limit);
+    }
+
+    public boolean isEmpty() {
+        return criteria.isEmpty() && sort.isEmpty() && limit == null;
+    }
+
+    private static Order parseOrder(String value) {
+        var parts = value.split(",");
+        if (parts.length > 2 || (parts.length == 2 && !parts[1].matches("(?i)asc|desc"))) {
+            throw new InvalidQueryException("Сортировка задаётся как sort=поле или sort=поле,desc: " + value);
+        }
+        return new Order(parts[0], parts.length == 2 && parts[1].equalsIgnoreCase("desc"));
+    }
+
+    private static Integer parseLimit(String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidQueryException("limit должен быть числом: " + value);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.onlineshop.test.dto.request;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Data
+public class OrderFilterRequest {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    @PositiveOrZero(message = "Минимальная сумма не может быть отрицательной")
+    private Long minAmount;
+
+    private Long customerId;
+
+    private Long employeeId;
+}
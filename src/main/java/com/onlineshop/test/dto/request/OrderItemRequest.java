@@ -0,0 +1,19 @@
+package com.onlineshop.test.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class OrderItemRequest {
+
+    @NotNull(message = "ID продукта не может быть null")
+    private Long productId;
+
+    @NotNull(message = "Количество не может быть null")
+    @Positive(message = "Количество должно быть больше нуля")
+    private Long quantity;
+
+    // Резерв из POST /api/reservations: позиция забирает уже списанный остаток, а не списывает его ещё раз
+    private Long reservationId;
+}
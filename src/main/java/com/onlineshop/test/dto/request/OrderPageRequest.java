@@ -0,0 +1,23 @@
+package com.onlineshop.test.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+// Keyset-пагинация: следующая страница начинается после заказа (afterCreatedAt, afterId) из предыдущей,
+// поэтому глубина страницы не влияет на стоимость запроса, в отличие от OFFSET
+@Data
+public class OrderPageRequest {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime afterCreatedAt;
+
+    private Long afterId;
+
+    @Positive(message = "Размер страницы должен быть больше нуля")
+    @Max(value = 100, message = "Размер страницы не может быть больше 100")
+    private Integer size = 20;
+}
@@ -1,10 +1,13 @@
 package com.onlineshop.test.dto.request;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 public class OrderRequest {
@@ -21,4 +24,8 @@ public class OrderRequest {
 
     @NotNull(message = "Дата создания не может быть null")
     private LocalDateTime updatedAt;
+
+    // Позиции заказа: остаток по каждой списывается при создании заказа
+    @Valid
+    private List<OrderItemRequest> items = new ArrayList<>();
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.onlineshop.test.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+// Пары (продукт, момент) для сверки: цены считаются одним запросом, ответ в порядке пар
+@Data
+public class PriceBatchRequest {
+
+    @NotEmpty(message = "Список пар не может быть пустым")
+    @Size(max = 1000, message = "Не больше 1000 пар за запрос")
+    private List<@Valid PricePointRequest> items;
+}
@@ -0,0 +1,16 @@
+package com.onlineshop.test.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class PricePointRequest {
+
+    @NotNull(message = "ID продукта обязателен")
+    private Long productId;
+
+    @NotNull(message = "Момент времени обязателен")
+    private LocalDateTime at;
+}
@@ -0,0 +1,13 @@
+package com.onlineshop.test.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class RelatedProductsRequest {
+
+    @Positive(message = "Число рекомендаций должно быть больше нуля")
+    @Max(value = 100, message = "Число рекомендаций не может быть больше 100")
+    private Integer n = 10;
+}
@@ -0,0 +1,20 @@
+package com.onlineshop.test.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+@Data
+public class StockRequest {
+
+    @NotNull(message = "Остаток не может быть null")
+    @PositiveOrZero(message = "Остаток не может быть отрицательным")
+    private Long quantity;
+
+    // Горячим товарам стоит давать больше шардов, обычным хватает одного
+    @Positive(message = "Число шардов должно быть больше нуля")
+    @Max(value = 64, message = "Число шардов не может быть больше 64")
+    private Integer shards = 1;
+}
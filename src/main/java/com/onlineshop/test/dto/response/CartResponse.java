@@ -0,0 +1,10 @@
+package com.onlineshop.test.dto.response;
+
+import java.util.List;
+import java.util.UUID;
+
+public record CartResponse(
+        UUID id,
+        Long customerId,
+        List<CartItemResponse> items
+) {}
@@ -0,0 +1,10 @@
+package com.onlineshop.test.dto.response;
+
+import java.util.List;
+
+// nextSince передаётся в since следующего запроса; hasMore — изменения есть и после этой страницы
+public record ChangePageResponse(
+        List<ChangeResponse> changes,
+        long nextSince,
+        boolean hasMore
+) {}
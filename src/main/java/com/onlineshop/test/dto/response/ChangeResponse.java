@@ -0,0 +1,14 @@
+package com.onlineshop.test.dto.response;
+
+import com.onlineshop.test.entity.ChangeEntity;
+import com.onlineshop.test.entity.ChangeOperation;
+
+import java.time.LocalDateTime;
+
+public record ChangeResponse(
+        Long seq,
+        ChangeEntity entity,
+        Long id,
+        ChangeOperation operation,
+        LocalDateTime changedAt
+) {}
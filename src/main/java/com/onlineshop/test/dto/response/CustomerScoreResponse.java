@@ -0,0 +1,15 @@
+package com.onlineshop.test.dto.response;
+
+import java.time.LocalDateTime;
+
+// Оценки от 1 до 5 (квинтиль среди клиентов с заказами, 5 — лучший) и агрегаты, по которым они посчитаны
+public record CustomerScoreResponse(
+        Long customerId,
+        Integer recencyScore,
+        Integer frequencyScore,
+        Integer monetaryScore,
+        LocalDateTime lastOrderAt,
+        Long orders,
+        Long amount,
+        LocalDateTime computedAt
+) {}
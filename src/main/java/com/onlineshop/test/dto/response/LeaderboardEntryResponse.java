@@ -0,0 +1,8 @@
+package com.onlineshop.test.dto.response;
+
+public record LeaderboardEntryResponse(
+        Long employeeId,
+        String employeeName,
+        Long amount,
+        Long orders
+) {}
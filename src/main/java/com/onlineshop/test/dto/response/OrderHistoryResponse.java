@@ -0,0 +1,12 @@
+package com.onlineshop.test.dto.response;
+
+import java.time.LocalDateTime;
+
+public record OrderHistoryResponse(
+        Long id,
+        Long amount,
+        String customerName,
+        String employeeName,
+        LocalDateTime createdAt,
+        Long itemCount
+) {}
@@ -0,0 +1,10 @@
+package com.onlineshop.test.dto.response;
+
+// Цена позиции на момент создания заказа по истории цен; currentPrice — цена продукта сейчас
+public record OrderItemPriceResponse(
+        Long itemId,
+        Long productId,
+        Long quantity,
+        Long priceAtOrder,
+        Long currentPrice
+) {}
@@ -0,0 +1,11 @@
+package com.onlineshop.test.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// nextCreatedAt/nextId передаются в afterCreatedAt/afterId следующего запроса; null — страниц больше нет
+public record OrderPageResponse(
+        List<OrderHistoryResponse> orders,
+        LocalDateTime nextCreatedAt,
+        Long nextId
+) {}
@@ -0,0 +1,10 @@
+package com.onlineshop.test.dto.response;
+
+import java.time.LocalDateTime;
+
+// price равен null, если момент раньше начала истории цен продукта или продукта нет
+public record ProductPriceResponse(
+        Long productId,
+        LocalDateTime at,
+        Long price
+) {}
@@ -0,0 +1,7 @@
+package com.onlineshop.test.dto.response;
+
+// orders — в скольких заказах товар куплен вместе с запрошенным
+public record RelatedProductResponse(
+        Long productId,
+        Integer orders
+) {}
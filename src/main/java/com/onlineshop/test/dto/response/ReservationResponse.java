@@ -0,0 +1,13 @@
+package com.onlineshop.test.dto.response;
+
+import com.onlineshop.test.entity.ReservationStatus;
+
+import java.time.LocalDateTime;
+
+public record ReservationResponse(
+        Long id,
+        Long productId,
+        Long quantity,
+        ReservationStatus status,
+        LocalDateTime expiresAt
+) {}
@@ -0,0 +1,20 @@
+package com.onlineshop.test.dto.response;
+
+import com.onlineshop.test.support.tracing.Layer;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+// layerMillis — собственное время слоёв; spans пуст, если спаны не запрошены
+public record SlowRequestResponse(
+        String traceId,
+        String method,
+        String path,
+        int status,
+        Instant startedAt,
+        double durationMillis,
+        Map<Layer, Double> layerMillis,
+        List<TraceSpanResponse> spans,
+        int droppedSpans
+) {}
@@ -0,0 +1,8 @@
+package com.onlineshop.test.dto.response;
+
+public record StockResponse(
+        Long productId,
+        Long available,
+        Long reserved,
+        Long shards
+) {}
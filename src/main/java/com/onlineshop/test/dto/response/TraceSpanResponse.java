@@ -0,0 +1,15 @@
+package com.onlineshop.test.dto.response;
+
+import com.onlineshop.test.support.tracing.Layer;
+
+// offsetMillis — начало спана от начала запроса
+public record TraceSpanResponse(
+        String spanId,
+        String parentSpanId,
+        Layer layer,
+        String name,
+        double offsetMillis,
+        double durationMillis,
+        double selfMillis,
+        String thread
+) {}
@@ -0,0 +1,41 @@
+package com.onlineshop.test.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Entity
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "cart_snapshots")
+public class CartSnapshot {
+
+    @Id
+    private UUID id;
+
+    private Long customerId;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private long[] productIds;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private int[] quantities;
+
+    private LocalDateTime updatedAt;
+}
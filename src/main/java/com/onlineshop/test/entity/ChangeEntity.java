@@ -0,0 +1,9 @@
+package com.onlineshop.test.entity;
+
+public enum ChangeEntity {
+    DEPARTMENT,
+    EMPLOYEE,
+    CUSTOMER,
+    ORDER,
+    PRODUCT
+}
@@ -0,0 +1,43 @@
+package com.onlineshop.test.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Строки журнала пишет только секвенсор нативным запросом, приложение их лишь читает
+@Getter
+@Setter
+@Entity
+@ToString
+@Immutable
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "change_journal")
+public class ChangeJournalEntry {
+
+    @Id
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    private ChangeEntity entity;
+
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    private ChangeOperation operation;
+
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,9 @@
+package com.onlineshop.test.entity;
+
+// UPSERT — сущность создана или изменена, актуальное состояние читается по её ID;
+// ARCHIVE — заказ перенесён в архив и удалён из таблиц, но по-прежнему читается по ID
+public enum ChangeOperation {
+    UPSERT,
+    DELETE,
+    ARCHIVE
+}
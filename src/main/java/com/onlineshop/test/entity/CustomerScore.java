@@ -0,0 +1,40 @@
+package com.onlineshop.test.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// RFM-оценка клиента (customer_rfm); пишется только запросами CustomerScoreRepository.
+// Оценки — квинтили от 1 до 5 среди всех клиентов с заказами, 5 — лучший
+@Getter
+@Setter
+@Entity
+@ToString
+@Immutable
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "customer_rfm")
+public class CustomerScore {
+
+    @Id
+    private Long customerId;
+
+    private LocalDateTime lastOrderAt;
+    private Long orders;
+    private Long amount;
+    private Short recencyScore;
+    private Short frequencyScore;
+    private Short monetaryScore;
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,8 @@
+package com.onlineshop.test.entity;
+
+public enum JobStatus {
+    PENDING,
+    RUNNING,
+    DONE,
+    FAILED
+}
@@ -6,6 +6,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -25,8 +26,10 @@ import lombok.experimental.FieldDefaults;
 @Table(name = "order_items")
 public class OrderItem {
 
+    // ID из последовательности блоками по 50: вставки позиций уходят в JDBC batch, что с IDENTITY невозможно
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -37,5 +40,5 @@ public class OrderItem {
     @JoinColumn(name = "product_id")
     private Product product;
 
-    private Integer quantity;
+    private Long quantity;
 }
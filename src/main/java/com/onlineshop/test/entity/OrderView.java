@@ -0,0 +1,37 @@
+package com.onlineshop.test.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+// Модель чтения заказа (order_view); пишется только запросами OrderViewRepository
+@Getter
+@Setter
+@Entity
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Table(name = "order_view")
+public class OrderView {
+
+    @Id
+    private Long id;
+
+    private Long amount;
+    private Long customerId;
+    private String customerName;
+    private Long employeeId;
+    private String employeeName;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
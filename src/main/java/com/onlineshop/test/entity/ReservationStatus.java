@@ -0,0 +1,7 @@
+package com.onlineshop.test.entity;
+
+public enum ReservationStatus {
+    RESERVED,
+    CONFIRMED,
+    RELEASED
+}
@@ -0,0 +1,27 @@
+package com.onlineshop.test.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Публикуется OrderService после каждого изменения заказа. Слушатели с @TransactionalEventListener
+// получают его только после коммита. previousAmount заполнен для UPDATED, productIds (различные товары
+// заказа) — для CREATED и DELETED. transactionId — ID транзакции Postgres, изменившей заказ: по нему
+// пересборки из БД отличают события, уже учтённые их снимком.
+public record OrderChangedEvent(
+        ChangeType type,
+        Long orderId,
+        Long customerId,
+        Long employeeId,
+        Long amount,
+        Long previousAmount,
+        LocalDateTime createdAt,
+        List<Long> productIds,
+        Long transactionId
+) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
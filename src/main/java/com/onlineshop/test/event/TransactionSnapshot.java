@@ -0,0 +1,26 @@
+package com.onlineshop.test.event;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Снимок Postgres в текстовом виде pg_current_snapshot(): xmin:xmax:xip1,xip2,...
+// Закоммиченная транзакция видна снимку, если она младше xmin или младше xmax и не была активна при его взятии.
+// Пересборки из БД (рейтинг продаж, рекомендации) сверяют с ним OrderChangedEvent.transactionId
+public record TransactionSnapshot(long xmin, long xmax, Set<Long> inProgress) {
+
+    public static TransactionSnapshot parse(String text) {
+        var parts = text.split(":", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Неверный снимок транзакций: " + text);
+        }
+        var inProgress = parts[2].isEmpty()
+                ? Set.<Long>of()
+                : Arrays.stream(parts[2].split(",")).map(Long::valueOf).collect(Collectors.toUnmodifiableSet());
+        return new TransactionSnapshot(Long.parseLong(parts[0]), Long.parseLong(parts[1]), inProgress);
+    }
+
+    public boolean sees(long transactionId) {
+        return transactionId < xmin || (transactionId < xmax && !inProgress.contains(transactionId));
+    }
+}
@@ -0,0 +1,8 @@
+package com.onlineshop.test.exception;
+
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String name) {
+        super("Bulkhead " + name + " переполнен, повторите запрос позже");
+    }
+}
@@ -0,0 +1,10 @@
+package com.onlineshop.test.exception;
+
+import java.util.UUID;
+
+public class CartCheckoutInProgressException extends RuntimeException {
+
+    public CartCheckoutInProgressException(UUID id) {
+        super("Cart с id " + id + " уже оформляется");
+    }
+}
@@ -0,0 +1,10 @@
+package com.onlineshop.test.exception;
+
+import java.util.UUID;
+
+public class CartEmptyException extends RuntimeException {
+
+    public CartEmptyException(UUID id) {
+        super("Cart с id " + id + " пуст");
+    }
+}
@@ -0,0 +1,10 @@
+package com.onlineshop.test.exception;
+
+import java.util.UUID;
+
+public class CartLimitExceededException extends RuntimeException {
+
+    public CartLimitExceededException(UUID id, String limit) {
+        super("Cart с id " + id + " превышает лимит: " + limit);
+    }
+}
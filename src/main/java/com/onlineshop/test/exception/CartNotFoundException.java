@@ -0,0 +1,10 @@
+package com.onlineshop.test.exception;
+
+import java.util.UUID;
+
+public class CartNotFoundException extends RuntimeException {
+
+    public CartNotFoundException(UUID id) {
+        super("Cart с id " + id + " не найден");
+    }
+}
@@ -0,0 +1,9 @@
+package com.onlineshop.test.exception;
+
+public class ChangeCursorExpiredException extends RuntimeException {
+
+    public ChangeCursorExpiredException(long since, long purgedSeq) {
+        super("Изменения до seq " + purgedSeq + " удалены из журнала, курсор " + since
+                + " устарел: нужна полная синхронизация");
+    }
+}
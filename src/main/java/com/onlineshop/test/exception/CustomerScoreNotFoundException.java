@@ -0,0 +1,8 @@
+package com.onlineshop.test.exception;
+
+public class CustomerScoreNotFoundException extends RuntimeException {
+
+    public CustomerScoreNotFoundException(Long customerId) {
+        super("Оценка клиента с id " + customerId + " ещё не рассчитана");
+    }
+}
@@ -0,0 +1,8 @@
+package com.onlineshop.test.exception;
+
+public class InsufficientStockException extends RuntimeException {
+
+    public InsufficientStockException(Long productId, Long quantity) {
+        super("Недостаточно остатка Product с id " + productId + " для резерва " + quantity);
+    }
+}
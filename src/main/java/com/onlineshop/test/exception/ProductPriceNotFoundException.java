@@ -0,0 +1,10 @@
+package com.onlineshop.test.exception;
+
+import java.time.LocalDateTime;
+
+public class ProductPriceNotFoundException extends RuntimeException {
+
+    public ProductPriceNotFoundException(Long productId, LocalDateTime at) {
+        super("Цена Product с id " + productId + " на " + at + " неизвестна");
+    }
+}
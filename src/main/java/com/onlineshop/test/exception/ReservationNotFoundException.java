@@ -0,0 +1,8 @@
+package com.onlineshop.test.exception;
+
+public class ReservationNotFoundException extends RuntimeException {
+
+    public ReservationNotFoundException(Long id) {
+        super("Reservation с id " + id + " не найден");
+    }
+}
@@ -0,0 +1,8 @@
+package com.onlineshop.test.exception;
+
+public class ReservationNotUsableException extends RuntimeException {
+
+    public ReservationNotUsableException(Long id) {
+        super("Reservation с id " + id + " нельзя использовать для заказа: резерв снят, истёк или не совпадает с позицией");
+    }
+}
@@ -1,5 +1,6 @@
 package com.onlineshop.test.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -26,6 +27,12 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    // Обработка исключения CustomerScoreNotFoundException: у клиента нет заказов или задача ещё не дошла до него
+    @ExceptionHandler(CustomerScoreNotFoundException.class)
+    public ResponseEntity<String> handleCustomerScoreNotFoundException(CustomerScoreNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
     // Обработка исключения EmployeeNotFoundException
     @ExceptionHandler(EmployeeNotFoundException.class)
     public ResponseEntity<String> handleEmployeeNotFoundException(EmployeeNotFoundException ex) {
@@ -38,6 +45,74 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    // Обработка исключения ProductPriceNotFoundException
+    @ExceptionHandler(ProductPriceNotFoundException.class)
+    public ResponseEntity<String> handleProductPriceNotFoundException(ProductPriceNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    // Обработка исключения ReservationNotFoundException
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<String> handleReservationNotFoundException(ReservationNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    // Обработка исключения ReservationNotUsableException
+    @ExceptionHandler(ReservationNotUsableException.class)
+    public ResponseEntity<String> handleReservationNotUsableException(ReservationNotUsableException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    // Обработка исключения InsufficientStockException
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<String> handleInsufficientStockException(InsufficientStockException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    // Обработка исключения CartNotFoundException
+    @ExceptionHandler(CartNotFoundException.class)
+    public ResponseEntity<String> handleCartNotFoundException(CartNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    // Обработка исключения CartEmptyException
+    @ExceptionHandler(CartEmptyException.class)
+    public ResponseEntity<String> handleCartEmptyException(CartEmptyException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    // Обработка исключения CartCheckoutInProgressException
+    @ExceptionHandler(CartCheckoutInProgressException.class)
+    public ResponseEntity<String> handleCartCheckoutInProgressException(CartCheckoutInProgressException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    // Обработка исключения CartLimitExceededException
+    @ExceptionHandler(CartLimitExceededException.class)
+    public ResponseEntity<String> handleCartLimitExceededException(CartLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    // Обработка исключения InvalidQueryException
+    @ExceptionHandler(InvalidQueryException.class)
+    public ResponseEntity<String> handleInvalidQueryException(InvalidQueryException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    // Обработка исключения ChangeCursorExpiredException: клиенту нужна полная синхронизация
+    @ExceptionHandler(ChangeCursorExpiredException.class)
+    public ResponseEntity<String> handleChangeCursorExpiredException(ChangeCursorExpiredException ex) {
+        return ResponseEntity.status(HttpStatus.GONE).body(ex.getMessage());
+    }
+
+    // Обработка исключения BulkheadFullException: перегрузка временная, клиент может повторить запрос
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<String> handleBulkheadFullException(BulkheadFullException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
     // Общая обработка всех RuntimeException
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleRuntimeException(RuntimeException ex) {
@@ -0,0 +1,13 @@
+package com.onlineshop.test.mapper;
+
+import com.onlineshop.test.dto.response.ChangeResponse;
+import com.onlineshop.test.entity.ChangeJournalEntry;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface ChangeMapper {
+
+    @Mapping(source = "entityId", target = "id")
+    ChangeResponse toResponse(ChangeJournalEntry entry);
+}
@@ -0,0 +1,11 @@
+package com.onlineshop.test.mapper;
+
+import com.onlineshop.test.dto.response.CustomerScoreResponse;
+import com.onlineshop.test.entity.CustomerScore;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface CustomerScoreMapper {
+
+    CustomerScoreResponse toResponse(CustomerScore score);
+}
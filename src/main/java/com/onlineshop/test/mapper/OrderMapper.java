@@ -3,6 +3,8 @@ package com.onlineshop.test.mapper;
 import com.onlineshop.test.dto.request.OrderRequest;
 import com.onlineshop.test.dto.response.OrderResponse;
 import com.onlineshop.test.entity.Order;
+import com.onlineshop.test.entity.OrderView;
+import com.onlineshop.test.support.archive.ArchivedOrder;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -13,6 +15,10 @@ public interface OrderMapper {
     @Mapping(source = "customer.name", target = "customerName")
     OrderResponse toResponse(Order order);
 
+    OrderResponse toResponse(ArchivedOrder order);
+
+    OrderResponse toResponse(OrderView order);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "items", ignore = true)
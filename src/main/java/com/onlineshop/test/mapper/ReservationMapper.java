@@ -0,0 +1,13 @@
+package com.onlineshop.test.mapper;
+
+import com.onlineshop.test.dto.response.ReservationResponse;
+import com.onlineshop.test.entity.StockReservation;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface ReservationMapper {
+
+    @Mapping(source = "product.id", target = "productId")
+    ReservationResponse toResponse(StockReservation reservation);
+}
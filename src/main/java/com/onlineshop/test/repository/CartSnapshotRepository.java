@@ -0,0 +1,26 @@
+package com.onlineshop.test.repository;
+
+import com.onlineshop.test.entity.CartSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface CartSnapshotRepository extends JpaRepository<CartSnapshot, UUID> {
+
+    // Брошенные корзины удаляются одним запросом по индексу updated_at
+    @Modifying
+    @Transactional
+    @Query("delete from CartSnapshot s where s.updatedAt < :before")
+    int deleteUpdatedBefore(LocalDateTime before);
+
+    // Снимок забирается вместе с удалением строки: пока корзина в памяти, снимка в cart_snapshots нет.
+    // Одновременный второй вызов ждёт блокировку строки и после коммита первого получает пустой результат
+    @Transactional
+    @Query(value = "DELETE FROM {h-schema}cart_snapshots WHERE id = :id RETURNING *", nativeQuery = true)
+    Optional<CartSnapshot> takeById(UUID id);
+}
@@ -0,0 +1,60 @@
+package com.onlineshop.test.repository;
+
+import com.onlineshop.test.entity.ChangeJournalEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ChangeJournalRepository extends JpaRepository<ChangeJournalEntry, Long> {
+
+    @Query("select c from ChangeJournalEntry c where c.seq > :since order by c.seq")
+    List<ChangeJournalEntry> findAfter(long since, Limit limit);
+
+    @Query("select coalesce(max(c.seq), 0) from ChangeJournalEntry c")
+    long findHead();
+
+    @Query(value = "SELECT purged_seq FROM {h-schema}change_journal_state WHERE id = 1", nativeQuery = true)
+    long findPurgedSeq();
+
+    // Секвенсор на всех узлах один: остальные пропускают свой запуск, а не ждут
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('change_journal'))", nativeQuery = true)
+    boolean tryLockSequencer();
+
+    // Переносит закоммиченные изменения из change_pending в журнал. Из нескольких изменений сущности
+    // в пакете остаётся последнее, а ON CONFLICT заменяет её прежнюю запись новым seq (DEFAULT nextval)
+    @Modifying
+    @Query(value = """
+            WITH moved AS (
+                DELETE FROM {h-schema}change_pending
+                WHERE id IN (SELECT id FROM {h-schema}change_pending ORDER BY id LIMIT :batchSize)
+                RETURNING id, entity, entity_id, operation, changed_at
+            ), latest AS (
+                SELECT DISTINCT ON (entity, entity_id) entity, entity_id, operation, changed_at
+                FROM moved
+                ORDER BY entity, entity_id, id DESC
+            )
+            INSERT INTO {h-schema}change_journal (entity, entity_id, operation, changed_at)
+            SELECT entity, entity_id, operation, changed_at FROM latest
+            ON CONFLICT (entity, entity_id) DO UPDATE
+            SET seq = EXCLUDED.seq, operation = EXCLUDED.operation, changed_at = EXCLUDED.changed_at
+            """, nativeQuery = true)
+    int sequencePending(int batchSize);
+
+    // Записи об удалении и архивации старше срока хранения удаляются, их наибольший seq запоминается в purged_seq
+    @Modifying
+    @Query(value = """
+            WITH purged AS (
+                DELETE FROM {h-schema}change_journal
+                WHERE operation IN ('DELETE', 'ARCHIVE') AND changed_at < :before
+                RETURNING seq
+            )
+            UPDATE {h-schema}change_journal_state
+            SET purged_seq = GREATEST(purged_seq, (SELECT coalesce(max(seq), 0) FROM purged))
+            WHERE id = 1
+            """, nativeQuery = true)
+    int purgeDeletedBefore(LocalDateTime before);
+}
@@ -1,6 +1,35 @@
 package com.onlineshop.test.repository;
 
+import com.onlineshop.test.dto.graphql.CustomerNode;
 import com.onlineshop.test.entity.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface CustomerRepository extends JpaRepository<Customer, Long> {}
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSpecificationExecutor<Customer> {
+
+    // Потоковое чтение всех клиентов курсором, только внутри транзакции
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Customer c order by c.id")
+    Stream<Customer> streamAll();
+
+    @Query("select new com.onlineshop.test.dto.graphql.CustomerNode(c.id, c.name, c.city) from Customer c where c.id in :ids")
+    List<CustomerNode> findNodesByIds(Collection<Long> ids);
+
+    @Query("select new com.onlineshop.test.dto.graphql.CustomerNode(c.id, c.name, c.city) from Customer c where c.id > :after order by c.id")
+    List<CustomerNode> findNodesAfter(Long after, Limit limit);
+
+    @Query("select coalesce(max(c.id), 0) from Customer c")
+    long findMaxId();
+}
@@ -0,0 +1,63 @@
+package com.onlineshop.test.repository;
+
+import com.onlineshop.test.entity.CustomerScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface CustomerScoreRepository extends JpaRepository<CustomerScore, Long> {
+
+    // Пересчёт агрегатов следующих chunkSize клиентов из очереди с ID в (after, toId]. Строки очереди
+    // удаляются и заказы читаются одним запросом, то есть из одного снимка: изменение заказа, не попавшее
+    // в снимок, оставляет свою строку в очереди. Архивированные заказы учитываются итогами customer_rfm_archived.
+    // Клиент без заказов, в том числе архивированных, теряет оценку.
+    // Возвращает наибольший обработанный ID клиента (курсор следующего куска) или null, если очередь диапазона пуста
+    @Query(value = """
+            WITH claimed AS (
+                DELETE FROM {h-schema}customer_rfm_pending
+                WHERE customer_id IN (
+                    SELECT DISTINCT customer_id FROM {h-schema}customer_rfm_pending
+                    WHERE customer_id > :after AND customer_id <= :toId
+                    ORDER BY customer_id
+                    LIMIT :chunkSize)
+                RETURNING customer_id
+            ), aggregates AS (
+                SELECT customer_id, max(last_order_at) AS last_order_at, sum(orders) AS orders, sum(amount) AS amount
+                FROM (SELECT customer_id, created_at AS last_order_at, 1 AS orders, amount
+                      FROM {h-schema}orders
+                      WHERE customer_id IN (SELECT customer_id FROM claimed)
+                      UNION ALL
+                      SELECT customer_id, last_order_at, orders, amount
+                      FROM {h-schema}customer_rfm_archived
+                      WHERE customer_id IN (SELECT customer_id FROM claimed)) AS history
+                GROUP BY customer_id
+            ), removed AS (
+                DELETE FROM {h-schema}customer_rfm
+                WHERE customer_id IN (SELECT customer_id FROM claimed)
+                  AND customer_id NOT IN (SELECT customer_id FROM aggregates)
+            ), upserted AS (
+                INSERT INTO {h-schema}customer_rfm (customer_id, last_order_at, orders, amount, computed_at)
+                SELECT customer_id, last_order_at, orders, amount, LOCALTIMESTAMP FROM aggregates
+                ON CONFLICT (customer_id) DO UPDATE
+                SET last_order_at = EXCLUDED.last_order_at, orders = EXCLUDED.orders,
+                    amount = EXCLUDED.amount, computed_at = EXCLUDED.computed_at
+            )
+            SELECT max(customer_id) FROM claimed
+            """, nativeQuery = true)
+    Long refreshChunk(long after, long toId, int chunkSize);
+
+    // Квинтили по всем клиентам одним проходом; переписываются только строки, у которых оценка изменилась
+    @Modifying
+    @Query(value = """
+            UPDATE {h-schema}customer_rfm r
+            SET recency_score = s.recency, frequency_score = s.frequency, monetary_score = s.monetary
+            FROM (SELECT customer_id,
+                         ntile(5) OVER (ORDER BY last_order_at, customer_id) AS recency,
+                         ntile(5) OVER (ORDER BY orders, customer_id) AS frequency,
+                         ntile(5) OVER (ORDER BY amount, customer_id) AS monetary
+                  FROM {h-schema}customer_rfm) s
+            WHERE r.customer_id = s.customer_id
+              AND (r.recency_score, r.frequency_score, r.monetary_score) IS DISTINCT FROM (s.recency, s.frequency, s.monetary)
+            """, nativeQuery = true)
+    int rescore();
+}
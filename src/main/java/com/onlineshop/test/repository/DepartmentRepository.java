@@ -1,7 +1,31 @@
 package com.onlineshop.test.repository;
 
+import com.onlineshop.test.dto.graphql.DepartmentNode;
 import com.onlineshop.test.entity.Department;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface DepartmentRepository extends JpaRepository<Department, Long> {
-}
\ No newline at end of file
+
+    // Потоковое чтение всех департаментов курсором, только внутри транзакции
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select d from Department d order by d.id")
+    Stream<Department> streamAll();
+
+    @Query("select new com.onlineshop.test.dto.graphql.DepartmentNode(d.id, d.name, d.location) from Department d where d.id in :ids")
+    List<DepartmentNode> findNodesByIds(Collection<Long> ids);
+
+    @Query("select new com.onlineshop.test.dto.graphql.DepartmentNode(d.id, d.name, d.location) from Department d where d.id > :after order by d.id")
+    List<DepartmentNode> findNodesAfter(Long after, Limit limit);
+}
@@ -1,6 +1,46 @@
 package com.onlineshop.test.repository;
 
+import com.onlineshop.test.dto.graphql.EmployeeNode;
 import com.onlineshop.test.entity.Employee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {}
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, JpaSpecificationExecutor<Employee> {
+
+    interface EmployeeName {
+        Long getId();
+
+        String getName();
+    }
+
+    // Только имена, без отделов: для рейтинга продаж
+    @Query("select e.id as id, e.name as name from Employee e")
+    List<EmployeeName> findAllNames();
+
+    // Потоковое чтение всех сотрудников курсором, только внутри транзакции
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAll();
+
+    // Проекция без отдела и руководителя: связи сотрудника по умолчанию EAGER и дали бы N+1
+    @Query("select new com.onlineshop.test.dto.graphql.EmployeeNode(e.id, e.name, e.position, e.salary, e.department.id, e.manager.id) from Employee e where e.id in :ids")
+    List<EmployeeNode> findNodesByIds(Collection<Long> ids);
+
+    @Query("select new com.onlineshop.test.dto.graphql.EmployeeNode(e.id, e.name, e.position, e.salary, e.department.id, e.manager.id) from Employee e where e.department.id in :departmentIds order by e.id")
+    List<EmployeeNode> findNodesByDepartmentIds(Collection<Long> departmentIds);
+
+    @Query("select new com.onlineshop.test.dto.graphql.EmployeeNode(e.id, e.name, e.position, e.salary, e.department.id, e.manager.id) from Employee e where e.id > :after order by e.id")
+    List<EmployeeNode> findNodesAfter(Long after, Limit limit);
+}
@@ -0,0 +1,104 @@
+package com.onlineshop.test.repository;
+
+import com.onlineshop.test.entity.Job;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface JobRepository extends JpaRepository<Job, Long> {
+
+    // Готовые задачи; задачи, которые сейчас забирает другой узел, пропускаются
+    @Query(value = """
+            SELECT * FROM {h-schema}jobs
+            WHERE status = 'PENDING' AND run_at <= :now
+            ORDER BY run_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Job> lockDue(LocalDateTime now, int limit);
+
+    @Query(value = "SELECT count(*) FROM {h-schema}jobs WHERE status = 'PENDING' AND run_at <= :now", nativeQuery = true)
+    long countDue(LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("update Job j set j.leaseUntil = :leaseUntil where j.id in :ids and j.lockedBy = :worker and j.status = 'RUNNING'")
+    int extendLease(Collection<Long> ids, String worker, LocalDateTime leaseUntil);
+
+    // Завершение засчитывается, только если аренда всё ещё у этого узла
+    @Modifying
+    @Transactional
+    @Query("""
+            update Job j set j.status = 'DONE', j.finishedAt = :now, j.lockedBy = null, j.leaseUntil = null
+            where j.id = :id and j.lockedBy = :worker and j.status = 'RUNNING'
+            """)
+    int complete(Long id, String worker, LocalDateTime now);
+
+    // Повтор через retryAt, пока не исчерпаны попытки; потом задача остаётся в FAILED
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE {h-schema}jobs
+            SET status = CASE WHEN attempts >= max_attempts THEN 'FAILED' ELSE 'PENDING' END,
+                finished_at = CASE WHEN attempts >= max_attempts THEN CAST(:now AS timestamp) END,
+                run_at = :retryAt,
+                last_error = :error,
+                locked_by = NULL,
+                lease_until = NULL
+            WHERE id = :id AND locked_by = :worker AND status = 'RUNNING'
+            """, nativeQuery = true)
+    int fail(Long id, String worker, String error, LocalDateTime retryAt, LocalDateTime now);
+
+    // Задачи узла, который перестал продлевать аренду, возвращаются в очередь (или в FAILED)
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE {h-schema}jobs
+            SET status = CASE WHEN attempts >= max_attempts THEN 'FAILED' ELSE 'PENDING' END,
+                finished_at = CASE WHEN attempts >= max_attempts THEN CAST(:now AS timestamp) END,
+                last_error = 'Аренда истекла на ' || locked_by,
+                locked_by = NULL,
+                lease_until = NULL
+            WHERE status = 'RUNNING' AND lease_until < :now
+            """, nativeQuery = true)
+    int reapExpired(LocalDateTime now);
+
+    // При остановке узла невыполненные задачи сразу отдаются другим, не дожидаясь конца аренды
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE {h-schema}jobs
+            SET status = 'PENDING', attempts = attempts - 1, locked_by = NULL, lease_until = NULL
+            WHERE locked_by = :worker AND status = 'RUNNING'
+            """, nativeQuery = true)
+    int releaseAll(String worker);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM {h-schema}jobs WHERE status IN ('DONE', 'FAILED') AND finished_at < :before", nativeQuery = true)
+    int deleteFinishedBefore(LocalDateTime before);
+
+    // Планировщик расписаний на всех узлах один: остальные пропускают свой такт
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('job_scheduler'))", nativeQuery = true)
+    boolean tryLockScheduler();
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO {h-schema}job_schedules (name, next_run_at) VALUES (:name, :nextRunAt)
+            ON CONFLICT (name) DO NOTHING
+            """, nativeQuery = true)
+    int registerSchedule(String name, LocalDateTime nextRunAt);
+
+    // 1 — срок расписания наступил и сдвинут на nextRunAt этим вызовом
+    @Modifying
+    @Query(value = """
+            UPDATE {h-schema}job_schedules SET next_run_at = :nextRunAt
+            WHERE name = :name AND next_run_at <= :now
+            """, nativeQuery = true)
+    int advanceSchedule(String name, LocalDateTime now, LocalDateTime nextRunAt);
+}
@@ -1,7 +1,58 @@
 package com.onlineshop.test.repository;
 
+import com.onlineshop.test.dto.graphql.OrderItemNode;
 import com.onlineshop.test.entity.OrderItem;
+import com.onlineshop.test.support.archive.ArchivedOrderItem;
+import com.onlineshop.test.support.recommendation.OrderProduct;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-}
\ No newline at end of file
+
+    interface ItemPrice {
+        Long getItemId();
+
+        Long getOrderId();
+
+        Long getProductId();
+
+        Long getQuantity();
+
+        Long getPriceAtOrder();
+
+        Long getCurrentPrice();
+    }
+
+    // Позиции сразу нескольких заказов одним запросом (DataLoader GraphQL)
+    @Query("select new com.onlineshop.test.dto.graphql.OrderItemNode(i.id, i.order.id, i.product.id, i.quantity) from OrderItem i where i.order.id in :orderIds order by i.id")
+    List<OrderItemNode> findNodesByOrderIds(Collection<Long> orderIds);
+
+    @Query("select new com.onlineshop.test.support.archive.ArchivedOrderItem(i.order.id, i.product.id, i.quantity) from OrderItem i where i.order.id in :orderIds order by i.id")
+    List<ArchivedOrderItem> findArchivedItems(Collection<Long> orderIds);
+
+    // Различные товары заказов с ID из [fromId, toId], сгруппированные по заказу (idx_order_items_order_id)
+    @Query("select distinct new com.onlineshop.test.support.recommendation.OrderProduct(i.order.id, i.product.id) from OrderItem i where i.order.id between :fromId and :toId and i.product.id is not null order by i.order.id, i.product.id")
+    List<OrderProduct> findOrderProducts(Long fromId, Long toId);
+
+    // Позиции заказов с ценой на момент создания заказа: пары (product_id, orders.created_at) оцениваются
+    // одним запросом, по пробе индекса product_prices на позицию. Для сверок пакетами заказов
+    @Query(value = """
+            SELECT i.id AS "itemId", i.order_id AS "orderId", i.product_id AS "productId", i.quantity AS quantity,
+                   h.price AS "priceAtOrder", p.price AS "currentPrice"
+            FROM {h-schema}order_items i
+                     JOIN {h-schema}orders o ON o.id = i.order_id
+                     LEFT JOIN {h-schema}products p ON p.id = i.product_id
+                     LEFT JOIN LATERAL (
+                SELECT pp.price FROM {h-schema}product_prices pp
+                WHERE pp.product_id = i.product_id AND pp.valid_from <= o.created_at
+                ORDER BY pp.valid_from DESC
+                LIMIT 1
+            ) h ON true
+            WHERE i.order_id IN (:orderIds)
+            ORDER BY i.order_id, i.id
+            """, nativeQuery = true)
+    List<ItemPrice> findItemPrices(Collection<Long> orderIds);
+}
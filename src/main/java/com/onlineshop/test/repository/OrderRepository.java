@@ -1,6 +1,114 @@
 package com.onlineshop.test.repository;
 
+import com.onlineshop.test.dto.graphql.OrderNode;
+import com.onlineshop.test.dto.response.OrderHistoryResponse;
 import com.onlineshop.test.entity.Order;
+import com.onlineshop.test.support.archive.ArchivedOrder;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {}
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+
+    interface EmployeeSalesMinute {
+        Long getEmployeeId();
+
+        // Минута от эпохи; created_at без часового пояса трактуется как UTC и в Java, и в Postgres
+        Long getMinute();
+
+        Long getAmount();
+
+        Long getOrders();
+    }
+
+    // ID текущей транзакции (назначается, если транзакция ещё ничего не записала)
+    @Query(value = "SELECT CAST(CAST(pg_current_xact_id() AS text) AS BIGINT)", nativeQuery = true)
+    long currentTransactionId();
+
+    // Снимок текущей транзакции; в REPEATABLE READ его видят и все следующие запросы транзакции
+    @Query(value = "SELECT CAST(pg_current_snapshot() AS text)", nativeQuery = true)
+    String currentSnapshot();
+
+    // Экспорт снимка текущей транзакции: другие транзакции читают по нему через SET TRANSACTION SNAPSHOT,
+    // пока эта транзакция открыта
+    @Query(value = "SELECT pg_export_snapshot()", nativeQuery = true)
+    String exportSnapshot();
+
+    // Продажи сотрудников по минутам с момента since (диапазон по BRIN-индексу created_at)
+    @Query(value = """
+            SELECT employee_id AS "employeeId",
+                   CAST(floor(extract(epoch FROM created_at) / 60) AS BIGINT) AS minute,
+                   CAST(sum(amount) AS BIGINT) AS amount,
+                   count(*) AS orders
+            FROM {h-schema}orders
+            WHERE created_at >= :since AND employee_id IS NOT NULL
+            GROUP BY 1, 2
+            """, nativeQuery = true)
+    List<EmployeeSalesMinute> sumSalesByEmployeeMinute(LocalDateTime since);
+
+    // Страница истории клиента после заказа (createdAt, id). Сравнение кортежей совпадает с порядком
+    // индекса idx_orders_customer_history. Колонки orders есть в индексе, но имена берутся join-ом
+    // по первичным ключам, а число позиций — подзапросом по idx_order_items_order_id, на каждую строку страницы
+    @Query("""
+            select new com.onlineshop.test.dto.response.OrderHistoryResponse(
+                o.id, o.amount, c.name, e.name, o.createdAt,
+                (select count(i) from OrderItem i where i.order = o))
+            from Order o left join o.customer c left join o.employee e
+            where o.customer.id = :customerId
+              and (o.createdAt, o.id) < (:createdAt, :id)
+            order by o.createdAt desc, o.id desc
+            """)
+    List<OrderHistoryResponse> findCustomerHistory(Long customerId, LocalDateTime createdAt, Long id, Limit limit);
+
+    // Страница истории сотрудника, индекс idx_orders_employee_history
+    @Query("""
+            select new com.onlineshop.test.dto.response.OrderHistoryResponse(
+                o.id, o.amount, c.name, e.name, o.createdAt,
+                (select count(i) from OrderItem i where i.order = o))
+            from Order o left join o.customer c left join o.employee e
+            where o.employee.id = :employeeId
+              and (o.createdAt, o.id) < (:createdAt, :id)
+            order by o.createdAt desc, o.id desc
+            """)
+    List<OrderHistoryResponse> findEmployeeHistory(Long employeeId, LocalDateTime createdAt, Long id, Limit limit);
+
+    // Узлы для GraphQL: внешние ключи читаются из самой таблицы orders, без join
+    @Query("select new com.onlineshop.test.dto.graphql.OrderNode(o.id, o.amount, o.createdAt, o.customer.id, o.employee.id) from Order o where o.id in :ids")
+    List<OrderNode> findNodesByIds(Collection<Long> ids);
+
+    @Query("select new com.onlineshop.test.dto.graphql.OrderNode(o.id, o.amount, o.createdAt, o.customer.id, o.employee.id) from Order o where o.id > :after order by o.id")
+    List<OrderNode> findNodesAfter(Long after, Limit limit);
+
+    @Query("select coalesce(max(o.id), 0) from Order o")
+    long findMaxId();
+
+    // Кандидаты в архив: заказы, созданные и в последний раз изменённые раньше before
+    @Query("select o.id from Order o where o.createdAt < :before and o.updatedAt < :before order by o.id")
+    List<Long> findArchivableIds(LocalDateTime before, Limit limit);
+
+    // Имена клиента и сотрудника сохраняются в архиве вместе с заказом
+    @Query("""
+            select new com.onlineshop.test.support.archive.ArchivedOrder(
+                o.id, o.amount, c.id, c.name, e.id, e.name, o.createdAt, o.updatedAt)
+            from Order o left join o.customer c left join o.employee e
+            where o.id in :ids
+            """)
+    List<ArchivedOrder> findArchivedOrders(Collection<Long> ids);
+
+    // Заказ, изменённый после записи в сегмент, остаётся в БД и попадёт в архив при следующем прогоне.
+    // Позиции удаляются каскадом по внешнему ключу
+    @Modifying
+    @Query("delete from Order o where o.id in :ids and o.updatedAt < :before")
+    int deleteArchived(Collection<Long> ids, LocalDateTime before);
+
+    // Помечает транзакцию как архивацию (SET LOCAL): триггер журнала изменений пишет ARCHIVE вместо DELETE,
+    // а триггер RFM переносит заказ в итоги клиента вместо постановки клиента в очередь пересчёта
+    @Query(value = "SELECT set_config('shop.archiving', 'on', true)", nativeQuery = true)
+    String markArchiving();
+}
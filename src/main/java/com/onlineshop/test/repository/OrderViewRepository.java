@@ -0,0 +1,72 @@
+package com.onlineshop.test.repository;
+
+import com.onlineshop.test.entity.OrderView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.stream.Stream;
+
+public interface OrderViewRepository extends JpaRepository<OrderView, Long>, JpaSpecificationExecutor<OrderView> {
+
+    // Потоковое чтение всех заказов курсором, только внутри транзакции
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select v from OrderView v order by v.id")
+    Stream<OrderView> streamAll();
+
+    // Строки модели для заказов с id в [fromId, toId] собираются из исходных таблиц.
+    // flushAutomatically: изменения заказа в текущей транзакции должны дойти до БД раньше этого запроса.
+    // Имена читаются FOR SHARE (подзапросом: к nullable-стороне LEFT JOIN блокировка неприменима): незавершённое
+    // переименование сначала коммитится и его имя попадает в модель, а начатое позже ждёт коммита этой вставки
+    // и затем само обновляет вставленные строки
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO {h-schema}order_view
+                (id, amount, customer_id, customer_name, employee_id, employee_name, created_at, updated_at)
+            SELECT o.id, o.amount,
+                   o.customer_id, (SELECT c.name FROM {h-schema}customers c WHERE c.id = o.customer_id FOR SHARE),
+                   o.employee_id, (SELECT e.name FROM {h-schema}employees e WHERE e.id = o.employee_id FOR SHARE),
+                   o.created_at, o.updated_at
+            FROM {h-schema}orders o
+            WHERE o.id BETWEEN :fromId AND :toId
+            ON CONFLICT (id) DO UPDATE
+            SET amount = EXCLUDED.amount,
+                customer_id = EXCLUDED.customer_id,
+                customer_name = EXCLUDED.customer_name,
+                employee_id = EXCLUDED.employee_id,
+                employee_name = EXCLUDED.employee_name,
+                created_at = EXCLUDED.created_at,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int refreshRange(long fromId, long toId);
+
+    default void refresh(long orderId) {
+        refreshRange(orderId, orderId);
+    }
+
+    // flushAutomatically: строка клиента обновляется и блокируется раньше модели, иначе refreshRange
+    // успел бы прочитать старое имя и записать его после этого обновления
+    @Modifying(flushAutomatically = true)
+    @Query("update OrderView v set v.customerName = :name where v.customerId = :customerId")
+    int renameCustomer(Long customerId, String name);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update OrderView v set v.employeeName = :name where v.employeeId = :employeeId")
+    int renameEmployee(Long employeeId, String name);
+
+    // orders.customer_id обнуляется внешним ключом ON DELETE SET NULL, здесь — то же для модели
+    @Modifying
+    @Query("update OrderView v set v.customerId = null, v.customerName = null where v.customerId = :customerId")
+    int detachCustomer(Long customerId);
+
+    @Modifying
+    @Query("update OrderView v set v.employeeId = null, v.employeeName = null where v.employeeId = :employeeId")
+    int detachEmployee(Long employeeId);
+}
@@ -1,6 +1,67 @@
 package com.onlineshop.test.repository;
 
+import com.onlineshop.test.dto.graphql.ProductNode;
 import com.onlineshop.test.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {}
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    interface PriceAt {
+        Long getProductId();
+
+        LocalDateTime getAt();
+
+        // null, если продукта нет или момент раньше начала его истории цен
+        Long getPrice();
+    }
+
+    // Потоковое чтение всех продуктов курсором, только внутри транзакции
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAll();
+
+    @Query("select new com.onlineshop.test.dto.graphql.ProductNode(p.id, p.name, p.price) from Product p where p.id in :ids")
+    List<ProductNode> findNodesByIds(Collection<Long> ids);
+
+    @Query("select new com.onlineshop.test.dto.graphql.ProductNode(p.id, p.name, p.price) from Product p where p.id > :after order by p.id")
+    List<ProductNode> findNodesAfter(Long after, Limit limit);
+
+    // Цена на момент at: последняя строка истории с valid_from <= at, одна проба индекса с конца
+    @Query(value = """
+            SELECT price FROM {h-schema}product_prices
+            WHERE product_id = :productId AND valid_from <= :at
+            ORDER BY valid_from DESC
+            LIMIT 1
+            """, nativeQuery = true)
+    Optional<Long> findPriceAt(Long productId, LocalDateTime at);
+
+    // Цены для пар (productIds[i], instants[i]) одним запросом: на каждую пару та же проба индекса
+    // через LATERAL, результат в порядке пар
+    @Query(value = """
+            SELECT q.product_id AS "productId", q.at AS at, p.price AS price
+            FROM unnest(CAST(:productIds AS BIGINT[]), CAST(:instants AS TIMESTAMP[])) WITH ORDINALITY AS q(product_id, at, position)
+                     LEFT JOIN LATERAL (
+                SELECT pp.price FROM {h-schema}product_prices pp
+                WHERE pp.product_id = q.product_id AND pp.valid_from <= q.at
+                ORDER BY pp.valid_from DESC
+                LIMIT 1
+            ) p ON true
+            ORDER BY q.position
+            """, nativeQuery = true)
+    List<PriceAt> findPricesAt(Long[] productIds, LocalDateTime[] instants);
+}
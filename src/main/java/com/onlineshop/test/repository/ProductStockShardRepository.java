@@ -0,0 +1,67 @@
+package com.onlineshop.test.repository;
+
+import com.onlineshop.test.entity.ProductStockShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface ProductStockShardRepository extends JpaRepository<ProductStockShard, Long> {
+
+    // Проекция вместо сущности: строки шардов меняются UPDATE-запросами в обход persistence context
+    interface ShardQuantity {
+        Long getId();
+
+        Long getQuantity();
+    }
+
+    // Любой свободный шард с остатком; шарды, заблокированные другими покупками, пропускаются
+    @Query(value = """
+            SELECT id, quantity FROM {h-schema}product_stock_shards
+            WHERE product_id = :productId AND quantity > 0
+            ORDER BY random()
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    Optional<ShardQuantity> claimUnlocked(Long productId);
+
+    // Все шарды с остатком заняты: ждём первый по порядку номера
+    @Query(value = """
+            SELECT id, quantity FROM {h-schema}product_stock_shards
+            WHERE product_id = :productId AND quantity > 0
+            ORDER BY shard
+            LIMIT 1
+            FOR UPDATE
+            """, nativeQuery = true)
+    Optional<ShardQuantity> claimWaiting(Long productId);
+
+    @Query(value = """
+            SELECT id, quantity FROM {h-schema}product_stock_shards
+            WHERE product_id = :productId
+            ORDER BY random()
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    Optional<ShardQuantity> lockAnyUnlocked(Long productId);
+
+    @Query("select coalesce(sum(s.quantity), 0) from ProductStockShard s where s.product.id = :productId")
+    long sumQuantity(Long productId);
+
+    long countByProductId(Long productId);
+
+    @Modifying
+    @Query("update ProductStockShard s set s.quantity = s.quantity + :delta where s.id = :id")
+    void addQuantity(Long id, long delta);
+
+    @Modifying
+    @Query(value = """
+            UPDATE {h-schema}product_stock_shards SET quantity = quantity + :delta
+            WHERE id = (SELECT min(id) FROM {h-schema}product_stock_shards WHERE product_id = :productId)
+            """, nativeQuery = true)
+    void addQuantityToFirstShard(Long productId, long delta);
+
+    @Modifying
+    @Query("delete from ProductStockShard s where s.product.id = :productId")
+    void deleteByProductId(Long productId);
+}
@@ -0,0 +1,32 @@
+package com.onlineshop.test.repository;
+
+import com.onlineshop.test.entity.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    @Query("select coalesce(sum(r.quantity), 0) from StockReservation r where r.product.id = :productId and r.status = 'RESERVED'")
+    long sumReserved(Long productId);
+
+    // Истёкшие резервы; резервы, которые сейчас снимает другой узел, пропускаются
+    @Query(value = """
+            SELECT * FROM {h-schema}stock_reservations
+            WHERE status = 'RESERVED' AND expires_at < :now
+            ORDER BY expires_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<StockReservation> lockExpired(LocalDateTime now, int limit);
+
+    @Query(value = "SELECT * FROM {h-schema}stock_reservations WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<StockReservation> lockById(Long id);
+
+    @Query(value = "SELECT * FROM {h-schema}stock_reservations WHERE order_id = :orderId AND status = 'CONFIRMED' FOR UPDATE",
+            nativeQuery = true)
+    List<StockReservation> lockConfirmedByOrderId(Long orderId);
+}
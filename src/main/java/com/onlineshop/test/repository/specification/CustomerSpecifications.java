@@ -0,0 +1,14 @@
+package com.onlineshop.test.repository.specification;
+
+import com.onlineshop.test.entity.Customer;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CustomerSpecifications {
+
+    // Индексы: idx_customers_city, idx_customers_name_prefix
+    public static final QuerySchema<Customer> SCHEMA = QuerySchema.of("customers",
+            QueryField.indexedValue("city"),
+            QueryField.indexedPrefix("name"));
+}
@@ -0,0 +1,15 @@
+package com.onlineshop.test.repository.specification;
+
+import com.onlineshop.test.entity.Employee;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class EmployeeSpecifications {
+
+    // Индексы: idx_employees_department_id, idx_employees_position, idx_employees_salary
+    public static final QuerySchema<Employee> SCHEMA = QuerySchema.of("employees",
+            QueryField.indexedReference("department"),
+            QueryField.indexedValue("position"),
+            QueryField.indexedRange("salary"));
+}
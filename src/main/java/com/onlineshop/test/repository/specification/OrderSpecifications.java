@@ -0,0 +1,59 @@
+package com.onlineshop.test.repository.specification;
+
+import com.onlineshop.test.dto.request.OrderFilterRequest;
+import com.onlineshop.test.entity.Order;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class OrderSpecifications {
+
+    // Собирает условие только из заданных полей фильтра, чтобы планировщик видел
+    // простые предикаты и мог использовать индексы по created_at и customer_id
+    public static Specification<Order> byFilter(OrderFilterRequest filter) {
+        List<Specification<Order>> specifications = new ArrayList<>();
+
+        if (filter.getFrom() != null) {
+            specifications.add(createdFrom(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            specifications.add(createdTo(filter.getTo()));
+        }
+        if (filter.getMinAmount() != null) {
+            specifications.add(amountAtLeast(filter.getMinAmount()));
+        }
+        if (filter.getCustomerId() != null) {
+            specifications.add(hasCustomer(filter.getCustomerId()));
+        }
+        if (filter.getEmployeeId() != null) {
+            specifications.add(hasEmployee(filter.getEmployeeId()));
+        }
+
+        return Specification.allOf(specifications);
+    }
+
+    public static Specification<Order> createdFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static Specification<Order> createdTo(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.get("createdAt"), to);
+    }
+
+    public static Specification<Order> amountAtLeast(Long minAmount) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), minAmount);
+    }
+
+    public static Specification<Order> hasCustomer(Long customerId) {
+        return (root, query, cb) -> cb.equal(root.get("customer").get("id"), customerId);
+    }
+
+    public static Specification<Order> hasEmployee(Long employeeId) {
+        return (root, query, cb) -> cb.equal(root.get("employee").get("id"), employeeId);
+    }
+}
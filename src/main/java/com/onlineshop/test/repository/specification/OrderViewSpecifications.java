@@ -0,0 +1,37 @@
+package com.onlineshop.test.repository.specification;
+
+import com.onlineshop.test.dto.request.OrderFilterRequest;
+import com.onlineshop.test.entity.OrderView;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Тот же фильтр, что и OrderSpecifications, но по order_view: клиент и сотрудник — простые столбцы
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class OrderViewSpecifications {
+
+    public static Specification<OrderView> byFilter(OrderFilterRequest filter) {
+        List<Specification<OrderView>> specifications = new ArrayList<>();
+
+        if (filter.getFrom() != null) {
+            specifications.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            specifications.add((root, query, cb) -> cb.lessThan(root.get("createdAt"), filter.getTo()));
+        }
+        if (filter.getMinAmount() != null) {
+            specifications.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), filter.getMinAmount()));
+        }
+        if (filter.getCustomerId() != null) {
+            specifications.add((root, query, cb) -> cb.equal(root.get("customerId"), filter.getCustomerId()));
+        }
+        if (filter.getEmployeeId() != null) {
+            specifications.add((root, query, cb) -> cb.equal(root.get("employeeId"), filter.getEmployeeId()));
+        }
+
+        return Specification.allOf(specifications);
+    }
+}
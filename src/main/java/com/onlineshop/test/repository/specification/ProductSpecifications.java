@@ -0,0 +1,14 @@
+package com.onlineshop.test.repository.specification;
+
+import com.onlineshop.test.entity.Product;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ProductSpecifications {
+
+    // Индексы: idx_products_price, idx_products_name_prefix
+    public static final QuerySchema<Product> SCHEMA = QuerySchema.of("products",
+            QueryField.indexedRange("price"),
+            QueryField.indexedPrefix("name"));
+}
@@ -0,0 +1,38 @@
+package com.onlineshop.test.repository.specification;
+
+import java.util.Set;
+
+// Поле, разрешённое в фильтрах и сортировке списков. filterIndexed/sortIndexed — есть ли индекс,
+// которым планировщик сможет воспользоваться для условия или для ORDER BY ... LIMIT.
+public record QueryField(
+        String name,
+        String path,
+        Class<?> type,
+        Set<QueryOperator> operators,
+        boolean sortable,
+        boolean filterIndexed,
+        boolean sortIndexed
+) {
+
+    // Числовое поле с диапазоном и сортировкой по B-tree индексу
+    public static QueryField indexedRange(String name) {
+        return new QueryField(name, name, Long.class, Set.of(QueryOperator.EQ, QueryOperator.GTE, QueryOperator.LTE),
+                true, true, true);
+    }
+
+    // Строка с поиском по префиксу без учёта регистра (индекс lower(...) varchar_pattern_ops)
+    public static QueryField indexedPrefix(String name) {
+        return new QueryField(name, name, String.class, Set.of(QueryOperator.PREFIX),
+                true, true, false);
+    }
+
+    // Точное совпадение и сортировка по B-tree индексу
+    public static QueryField indexedValue(String name) {
+        return new QueryField(name, name, String.class, Set.of(QueryOperator.EQ), true, true, true);
+    }
+
+    // Ссылка на другую сущность по ID (индекс по внешнему ключу)
+    public static QueryField indexedReference(String name) {
+        return new QueryField(name, name + ".id", Long.class, Set.of(QueryOperator.EQ), false, true, false);
+    }
+}
@@ -0,0 +1,9 @@
+package com.onlineshop.test.repository.specification;
+
+// Оператор фильтра в параметре запроса: price.gte=100, name.prefix=lap, city=Paris (eq по умолчанию)
+public enum QueryOperator {
+    EQ,
+    GTE,
+    LTE,
+    PREFIX
+}
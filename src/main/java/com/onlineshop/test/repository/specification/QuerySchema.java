@@ -0,0 +1,71 @@
+package com.onlineshop.test.repository.specification;
+
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+// Белый список полей сущности для фильтров и сортировки. table — таблица, по размеру которой
+// решается, допустим ли запрос без индекса.
+public final class QuerySchema<T> {
+
+    private final String table;
+    private final Map<String, QueryField> fields = new LinkedHashMap<>();
+
+    private QuerySchema(String table, QueryField... fields) {
+        this.table = table;
+        Arrays.stream(fields).forEach(field -> this.fields.put(field.name(), field));
+    }
+
+    public static <T> QuerySchema<T> of(String table, QueryField... fields) {
+        return new QuerySchema<>(table, fields);
+    }
+
+    public String table() {
+        return table;
+    }
+
+    public Optional<QueryField> field(String name) {
+        return Optional.ofNullable(fields.get(name));
+    }
+
+    public String fieldNames() {
+        return String.join(", ", fields.keySet());
+    }
+
+    // Значения передаются в Criteria как параметры, поэтому запросы одной формы
+    // с разными значениями переиспользуют один план Hibernate и подготовленный запрос
+    @SuppressWarnings("unchecked")
+    public Specification<T> predicate(QueryField field, QueryOperator operator, Object value) {
+        return (root, query, cb) -> {
+            var path = path(root, field.path());
+            return switch (operator) {
+                case EQ -> cb.equal(path, value);
+                case GTE -> cb.greaterThanOrEqualTo((Expression<Long>) path, (Long) value);
+                case LTE -> cb.lessThanOrEqualTo((Expression<Long>) path, (Long) value);
+                case PREFIX -> cb.like(cb.lower((Expression<String>) path), escapeLike((String) value) + "%", '\\');
+            };
+        };
+    }
+
+    private static Path<?> path(Root<?> root, String path) {
+        Path<?> result = root;
+        for (var part : path.split("\\.")) {
+            result = result.get(part);
+        }
+        return result;
+    }
+
+    private static String escapeLike(String value) {
+        return value.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,216 @@
+package com.onlineshop.test.service;
+
+import com.onlineshop.test.configuration.CartProperties;
+import com.onlineshop.test.dto.request.CartItemRequest;
+import com.onlineshop.test.dto.request.CartRequest;
+import com.onlineshop.test.dto.request.CheckoutRequest;
+import com.onlineshop.test.dto.request.OrderItemRequest;
+import com.onlineshop.test.dto.request.OrderRequest;
+import com.onlineshop.test.dto.response.CartItemResponse;
+import com.onlineshop.test.dto.response.CartResponse;
+import com.onlineshop.test.dto.response.OrderResponse;
+import com.onlineshop.test.entity.Product;
+import com.onlineshop.test.exception.CartCheckoutInProgressException;
+import com.onlineshop.test.exception.CartEmptyException;
+import com.onlineshop.test.exception.CartLimitExceededException;
+import com.onlineshop.test.exception.CartNotFoundException;
+import com.onlineshop.test.exception.CustomerNotFoundException;
+import com.onlineshop.test.exception.EmployeeNotFoundException;
+import com.onlineshop.test.exception.ProductNotFoundException;
+import com.onlineshop.test.repository.CustomerRepository;
+import com.onlineshop.test.repository.EmployeeRepository;
+import com.onlineshop.test.repository.ProductRepository;
+import com.onlineshop.test.support.cart.Cart;
+import com.onlineshop.test.support.cart.CartStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@AllArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class CartService {
+
+    CartStore cartStore;
+    CartProperties cartProperties;
+    OrderService orderService;
+    CustomerRepository customerRepository;
+    EmployeeRepository employeeRepository;
+    ProductRepository productRepository;
+    MeterRegistry meterRegistry;
+
+    // Создание пустой корзины клиента
+    public CartResponse createCart(CartRequest request) {
+        if (!customerRepository.existsById(request.getCustomerId())) {
+            throw new CustomerNotFoundException(request.getCustomerId());
+        }
+
+        var cart = cartStore.create(request.getCustomerId());
+        return withCart(cart.getId(), CartService::toResponse);
+    }
+
+    // Получение корзины по ID
+    public CartResponse getCart(UUID id) {
+        return withCart(id, CartService::toResponse);
+    }
+
+    // Установка количества продукта в корзине
+    public CartResponse setItem(UUID id, Long productId, CartItemRequest request) {
+        if (request.getQuantity() > cartProperties.maxQuantity()) {
+            throw new CartLimitExceededException(id, "количество " + cartProperties.maxQuantity());
+        }
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException(productId);
+        }
+
+        return withCart(id, cart -> {
+            ensureNotCheckingOut(cart);
+            var items = cart.getItems();
+            if (items.get(productId) == 0 && items.size() >= cartProperties.maxItems()) {
+                throw new CartLimitExceededException(id, "позиций " + cartProperties.maxItems());
+            }
+
+            items.put(productId, request.getQuantity());
+            return toResponse(cart);
+        });
+    }
+
+    // Удаление продукта из корзины
+    public CartResponse removeItem(UUID id, Long productId) {
+        return withCart(id, cart -> {
+            ensureNotCheckingOut(cart);
+            cart.getItems().remove(productId);
+            return toResponse(cart);
+        });
+    }
+
+    // Удаление корзины
+    public void deleteCart(UUID id) {
+        cartStore.remove(id);
+    }
+
+    // Оформление заказа: сумма считается по текущим ценам, заказ с позициями и списание остатка —
+    // одна транзакция OrderService.createOrder. Под монитором корзины только переход в оформление и снимок
+    // позиций: цены и заказ идут в БД уже без монитора. Время оформления пишется в таймер carts.checkout.
+    public OrderResponse checkout(UUID id, CheckoutRequest request) {
+        if (!employeeRepository.existsById(request.getEmployeeId())) {
+            throw new EmployeeNotFoundException(request.getEmployeeId());
+        }
+
+        var sample = Timer.start(meterRegistry);
+        try {
+            var snapshot = withCart(id, cart -> {
+                ensureNotCheckingOut(cart);
+                var items = toOrderItems(cart);
+                cart.setCheckingOut(true);
+                return items;
+            });
+
+            OrderResponse response;
+            try {
+                response = orderService.createOrder(toOrderRequest(id, snapshot, request.getEmployeeId()));
+            } catch (RuntimeException ex) {
+                // Заказ не создан: корзина снова доступна для изменений и оформления
+                cartStore.get(id).ifPresent(cart -> {
+                    synchronized (cart) {
+                        cart.setCheckingOut(false);
+                    }
+                });
+                throw ex;
+            }
+
+            cartStore.remove(id);
+            return response;
+        } finally {
+            sample.stop(meterRegistry.timer("carts.checkout"));
+        }
+    }
+
+    private static CartItems toOrderItems(Cart cart) {
+        var items = cart.getItems();
+        if (items.isEmpty()) {
+            throw new CartEmptyException(cart.getId());
+        }
+
+        var orderItems = new ArrayList<OrderItemRequest>(items.size());
+        items.forEach((productId, quantity) -> {
+            var item = new OrderItemRequest();
+            item.setProductId(productId);
+            item.setQuantity((long) quantity);
+            orderItems.add(item);
+        });
+        return new CartItems(cart.getCustomerId(), orderItems);
+    }
+
+    private OrderRequest toOrderRequest(UUID id, CartItems cart, Long employeeId) {
+        var prices = productRepository
+                .findAllById(cart.items().stream().map(OrderItemRequest::getProductId).toList())
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Product::getPrice));
+
+        long amount = 0;
+        for (var item : cart.items()) {
+            var price = prices.get(item.getProductId());
+            if (price == null) {
+                throw new ProductNotFoundException(item.getProductId());
+            }
+            try {
+                amount = Math.addExact(amount, Math.multiplyExact(price, item.getQuantity()));
+            } catch (ArithmeticException ex) {
+                throw new CartLimitExceededException(id, "сумма заказа " + Long.MAX_VALUE);
+            }
+        }
+
+        var order = new OrderRequest();
+        order.setAmount(amount);
+        order.setCustomerId(cart.customerId());
+        order.setEmployeeId(employeeId);
+        order.setUpdatedAt(LocalDateTime.now());
+        order.setItems(cart.items());
+        return order;
+    }
+
+    private static void ensureNotCheckingOut(Cart cart) {
+        if (cart.isCheckingOut()) {
+            throw new CartCheckoutInProgressException(cart.getId());
+        }
+    }
+
+    // Действие над корзиной под её монитором. Если корзину успели вытеснить из памяти,
+    // берём актуальный экземпляр заново, иначе изменение ушло бы в уже сохранённую копию.
+    private <T> T withCart(UUID id, Function<Cart, T> action) {
+        while (true) {
+            var cart = cartStore
+                    .get(id)
+                    .orElseThrow(() -> new CartNotFoundException(id));
+
+            synchronized (cart) {
+                if (!cart.isEvicted()) {
+                    return action.apply(cart);
+                }
+            }
+        }
+    }
+
+    private static CartResponse toResponse(Cart cart) {
+        var items = new ArrayList<CartItemResponse>(cart.getItems().size());
+        cart.getItems().forEach((productId, quantity) -> items.add(new CartItemResponse(productId, quantity)));
+        items.sort(Comparator.comparing(CartItemResponse::productId));
+
+        return new CartResponse(cart.getId(), cart.getCustomerId(), items);
+    }
+
+    // Позиции корзины, снятые под её монитором для оформления
+    private record CartItems(long customerId, List<OrderItemRequest> items) {}
+}
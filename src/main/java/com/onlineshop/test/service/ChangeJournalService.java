@@ -0,0 +1,77 @@
+package com.onlineshop.test.service;
+
+import com.onlineshop.test.configuration.ChangeJournalProperties;
+import com.onlineshop.test.dto.request.ChangesRequest;
+import com.onlineshop.test.dto.response.ChangePageResponse;
+import com.onlineshop.test.exception.ChangeCursorExpiredException;
+import com.onlineshop.test.mapper.ChangeMapper;
+import com.onlineshop.test.repository.ChangeJournalRepository;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@AllArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ChangeJournalService {
+
+    private static final int MAX_BATCHES_PER_RUN = 10;
+
+    ChangeJournalRepository changeJournalRepository;
+    ChangeMapper changeMapper;
+    ChangeJournalProperties properties;
+
+    // Изменения после курсора since в порядке seq
+    public ChangePageResponse getChanges(ChangesRequest request) {
+        if (request.getSince() == null) {
+            return new ChangePageResponse(List.of(), changeJournalRepository.findHead(), false);
+        }
+
+        long since = request.getSince();
+        int limit = Math.min(request.getLimit() != null ? request.getLimit() : properties.defaultLimit(), properties.maxLimit());
+        var entries = changeJournalRepository.findAfter(since, Limit.of(limit + 1));
+
+        // Проверка после чтения: purged_seq только растёт, и если он не дошёл до since сейчас,
+        // то и прочитанная страница ничего не потеряла
+        long purgedSeq = changeJournalRepository.findPurgedSeq();
+        if (since < purgedSeq) {
+            throw new ChangeCursorExpiredException(since, purgedSeq);
+        }
+
+        boolean hasMore = entries.size() > limit;
+        var page = hasMore ? entries.subList(0, limit) : entries;
+        var nextSince = page.isEmpty() ? since : page.get(page.size() - 1).getSeq();
+        return new ChangePageResponse(page.stream().map(changeMapper::toResponse).toList(), nextSince, hasMore);
+    }
+
+    // Назначение seq закоммиченным изменениям. Блокировка секвенсора держится до коммита, поэтому
+    // следующий запуск (на любом узле) получит номера больше уже видимых потребителям
+    @Transactional
+    @Scheduled(fixedDelayString = "${change-journal.sequence-interval:PT1S}")
+    public void sequencePending() {
+        if (!changeJournalRepository.tryLockSequencer()) {
+            return;
+        }
+
+        // Накопившийся хвост разбирается несколькими пакетами, но не бесконечно под постоянной записью
+        for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+            if (changeJournalRepository.sequencePending(properties.batchSize()) == 0) {
+                return;
+            }
+        }
+    }
+
+    // Удаление записей об удалённых сущностях старше change-journal.retention
+    @Transactional
+    @Scheduled(fixedDelayString = "${change-journal.purge-interval:PT1H}")
+    public void purgeExpired() {
+        changeJournalRepository.purgeDeletedBefore(LocalDateTime.now().minus(properties.retention()));
+    }
+}
@@ -1,15 +1,33 @@
 package com.onlineshop.test.service;
 
+import com.onlineshop.test.configuration.LocalCacheConfiguration;
 import com.onlineshop.test.dto.request.CustomerRequest;
+import com.onlineshop.test.dto.request.ListQuery;
 import com.onlineshop.test.dto.response.CustomerResponse;
+import com.onlineshop.test.dto.response.CustomerScoreResponse;
+import com.onlineshop.test.entity.ChangeEntity;
 import com.onlineshop.test.entity.Customer;
 import com.onlineshop.test.exception.CustomerNotFoundException;
+import com.onlineshop.test.exception.CustomerScoreNotFoundException;
 import com.onlineshop.test.mapper.CustomerMapper;
+import com.onlineshop.test.mapper.CustomerScoreMapper;
 import com.onlineshop.test.repository.CustomerRepository;
+import com.onlineshop.test.repository.CustomerScoreRepository;
+import com.onlineshop.test.repository.OrderViewRepository;
+import com.onlineshop.test.repository.specification.CustomerSpecifications;
+import com.onlineshop.test.support.JsonStreamWriter;
+import com.onlineshop.test.support.audit.AuditLog;
+import com.onlineshop.test.support.audit.AuditOperation;
+import com.onlineshop.test.support.cache.CacheCoherence;
+import com.onlineshop.test.support.cache.LocalCache;
+import com.onlineshop.test.support.coalescing.CoalescingLoader;
+import com.onlineshop.test.support.query.ListQueryCompiler;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -20,51 +38,96 @@ public class CustomerService {
 
     CustomerMapper customerMapper;
     CustomerRepository customerRepository;
+    CustomerScoreRepository customerScoreRepository;
+    CustomerScoreMapper customerScoreMapper;
+    OrderViewRepository orderViewRepository;
+    JsonStreamWriter jsonStreamWriter;
+    ListQueryCompiler listQueryCompiler;
+    CoalescingLoader<Long, CustomerResponse> customerResponseLoader;
+    LocalCache<CustomerResponse> customerCache;
+    CacheCoherence cacheCoherence;
+    AuditLog auditLog;
 
-    // Получение всех клиентов
-    public List<CustomerResponse> getAllCustomers() {
+    // Получение клиентов: без параметров — все, иначе по фильтрам и сортировке с лимитом
+    public List<CustomerResponse> getAllCustomers(ListQuery query) {
+        if (query.isEmpty()) {
+            return customerRepository
+                    .findAll()
+                    .stream()
+                    .map(customerMapper::toResponse)
+                    .toList();
+        }
+
+        var compiled = listQueryCompiler.compile(CustomerSpecifications.SCHEMA, query);
         return customerRepository
-                .findAll()
+                .findBy(compiled.specification(), q -> q.sortBy(compiled.sort()).limit(compiled.limit()).all())
                 .stream()
                 .map(customerMapper::toResponse)
                 .toList();
     }
 
-    // Получение клиента по ID
+    // Потоковая выгрузка всех клиентов
+    public StreamingResponseBody exportCustomers() {
+        return jsonStreamWriter.write(customerRepository::streamAll, customerMapper::toResponse);
+    }
+
+    // Получение клиента по ID: из локального кэша, промахи одного ID объединяются
     public CustomerResponse getCustomerById(Long id) {
-        return customerRepository
-                .findById(id)
-                .map(customerMapper::toResponse)
+        return customerCache
+                .get(id, customerResponseLoader::loadFresh)
                 .orElseThrow(() -> new CustomerNotFoundException(id));
     }
 
+    // RFM-оценка клиента по результатам последнего пересчёта (задача customers.rfm)
+    public CustomerScoreResponse getCustomerScore(Long id) {
+        return customerScoreRepository
+                .findById(id)
+                .map(customerScoreMapper::toResponse)
+                .orElseThrow(() -> customerRepository.existsById(id)
+                        ? new CustomerScoreNotFoundException(id)
+                        : new CustomerNotFoundException(id));
+    }
+
     // Создание нового клиента
     public CustomerResponse createCustomer(CustomerRequest request) {
         var customer = customerMapper.toEntity(request);
         customerRepository.save(customer);
 
-        return customerMapper.toResponse(customer);
+        var response = customerMapper.toResponse(customer);
+        auditLog.record(ChangeEntity.CUSTOMER, customer.getId(), AuditOperation.CREATE, null, response);
+        return response;
     }
 
     // Обновление клиента
+    @Transactional
     public CustomerResponse updateCustomer(Long id, CustomerRequest request) {
         var existingCustomer = customerRepository
                 .findById(id)
                 .orElseThrow(() -> new CustomerNotFoundException(id));
+        var before = customerMapper.toResponse(existingCustomer);
 
         existingCustomer.setName(request.getName());
         existingCustomer.setCity(request.getCity());
         customerRepository.save(existingCustomer);
+        orderViewRepository.renameCustomer(id, existingCustomer.getName());
+        cacheCoherence.invalidate(LocalCacheConfiguration.CUSTOMERS, id);
 
-        return customerMapper.toResponse(existingCustomer);
+        var response = customerMapper.toResponse(existingCustomer);
+        auditLog.record(ChangeEntity.CUSTOMER, id, AuditOperation.UPDATE, before, response);
+        return response;
     }
 
     // Удаление клиента
+    @Transactional
     public void deleteCustomer(Long id) {
-        customerRepository
+        var existingCustomer = customerRepository
                 .findById(id)
                 .orElseThrow(() -> new CustomerNotFoundException(id));
+        var before = customerMapper.toResponse(existingCustomer);
 
+        orderViewRepository.detachCustomer(id);
         customerRepository.deleteById(id);
+        cacheCoherence.invalidate(LocalCacheConfiguration.CUSTOMERS, id);
+        auditLog.record(ChangeEntity.CUSTOMER, id, AuditOperation.DELETE, before, null);
     }
 }
\ No newline at end of file
@@ -1,15 +1,24 @@
 package com.onlineshop.test.service;
 
+import com.onlineshop.test.configuration.LocalCacheConfiguration;
 import com.onlineshop.test.dto.request.DepartmentRequest;
 import com.onlineshop.test.dto.response.DepartmentResponse;
+import com.onlineshop.test.entity.ChangeEntity;
 import com.onlineshop.test.entity.Department;
 import com.onlineshop.test.exception.DepartmentNotFoundException;
 import com.onlineshop.test.mapper.DepartmentMapper;
 import com.onlineshop.test.repository.DepartmentRepository;
+import com.onlineshop.test.support.JsonStreamWriter;
+import com.onlineshop.test.support.audit.AuditLog;
+import com.onlineshop.test.support.audit.AuditOperation;
+import com.onlineshop.test.support.cache.CacheCoherence;
+import com.onlineshop.test.support.cache.LocalCache;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -20,6 +29,10 @@ public class DepartmentService {
 
     DepartmentMapper departmentMapper;
     DepartmentRepository departmentRepository;
+    JsonStreamWriter jsonStreamWriter;
+    LocalCache<DepartmentResponse> departmentCache;
+    CacheCoherence cacheCoherence;
+    AuditLog auditLog;
 
     // Получение всех департаментов
     public List<DepartmentResponse> getAllDepartments() {
@@ -30,11 +43,15 @@ public class DepartmentService {
                 .toList();
     }
 
-    // Получение департамента по ID = 10001
+    // Потоковая выгрузка всех департаментов
+    public StreamingResponseBody exportDepartments() {
+        return jsonStreamWriter.write(departmentRepository::streamAll, departmentMapper::toResponse);
+    }
+
+    // Получение департамента по ID = 10001, из локального кэша
     public DepartmentResponse getDepartmentById(Long id) {
-        return departmentRepository
-                .findById(id)
-                .map(departmentMapper::toResponse)
+        return departmentCache
+                .get(id, departmentId -> departmentRepository.findById(departmentId).map(departmentMapper::toResponse))
                 .orElseThrow(() -> new DepartmentNotFoundException(id));
     }
 
@@ -43,28 +60,39 @@ public class DepartmentService {
         var department = departmentMapper.toEntity(request);
         departmentRepository.save(department);
 
-        return departmentMapper.toResponse(department);
+        var response = departmentMapper.toResponse(department);
+        auditLog.record(ChangeEntity.DEPARTMENT, department.getId(), AuditOperation.CREATE, null, response);
+        return response;
     }
 
     // Обновление департамента
+    @Transactional
     public DepartmentResponse updateDepartment(Long id, DepartmentRequest request) {
         var existingDepartment = departmentRepository
                 .findById(id)
                 .orElseThrow(() -> new DepartmentNotFoundException(id));
+        var before = departmentMapper.toResponse(existingDepartment);
 
         existingDepartment.setName(request.getName());
         existingDepartment.setLocation(request.getLocation());
         departmentRepository.save(existingDepartment);
+        cacheCoherence.invalidate(LocalCacheConfiguration.DEPARTMENTS, id);
 
-        return departmentMapper.toResponse(existingDepartment);
+        var response = departmentMapper.toResponse(existingDepartment);
+        auditLog.record(ChangeEntity.DEPARTMENT, id, AuditOperation.UPDATE, before, response);
+        return response;
     }
 
     // Удаление департамента
+    @Transactional
     public void deleteDepartment(Long id) {
-        departmentRepository
+        var existingDepartment = departmentRepository
                 .findById(id)
                 .orElseThrow(() -> new DepartmentNotFoundException(id));
+        var before = departmentMapper.toResponse(existingDepartment);
 
         departmentRepository.deleteById(id);
+        cacheCoherence.invalidate(LocalCacheConfiguration.DEPARTMENTS, id);
+        auditLog.record(ChangeEntity.DEPARTMENT, id, AuditOperation.DELETE, before, null);
     }
 }
\ No newline at end of file
@@ -1,14 +1,28 @@
 package com.onlineshop.test.service;
 
 import com.onlineshop.test.dto.request.EmployeeRequest;
+import com.onlineshop.test.dto.request.LeaderboardRequest;
+import com.onlineshop.test.dto.request.ListQuery;
 import com.onlineshop.test.dto.response.EmployeeResponse;
+import com.onlineshop.test.dto.response.LeaderboardEntryResponse;
+import com.onlineshop.test.entity.ChangeEntity;
 import com.onlineshop.test.exception.EmployeeNotFoundException;
 import com.onlineshop.test.mapper.EmployeeMapper;
 import com.onlineshop.test.repository.EmployeeRepository;
+import com.onlineshop.test.repository.OrderViewRepository;
+import com.onlineshop.test.repository.specification.EmployeeSpecifications;
+import com.onlineshop.test.support.JsonStreamWriter;
+import com.onlineshop.test.support.audit.AuditLog;
+import com.onlineshop.test.support.audit.AuditOperation;
+import com.onlineshop.test.support.leaderboard.SalesLeaderboard;
+import com.onlineshop.test.support.query.ListQueryCompiler;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -19,16 +33,40 @@ public class EmployeeService {
 
     EmployeeMapper employeeMapper;
     EmployeeRepository employeeRepository;
+    OrderViewRepository orderViewRepository;
+    JsonStreamWriter jsonStreamWriter;
+    ListQueryCompiler listQueryCompiler;
+    SalesLeaderboard salesLeaderboard;
+    AuditLog auditLog;
 
-    // Получение всех сотрудников
-    public List<EmployeeResponse> getAllEmployees() {
+    // Получение сотрудников: без параметров — все, иначе по фильтрам и сортировке с лимитом
+    public List<EmployeeResponse> getAllEmployees(ListQuery query) {
+        if (query.isEmpty()) {
+            return employeeRepository
+                    .findAll()
+                    .stream()
+                    .map(employeeMapper::toResponse)
+                    .toList();
+        }
+
+        var compiled = listQueryCompiler.compile(EmployeeSpecifications.SCHEMA, query);
         return employeeRepository
-                .findAll()
+                .findBy(compiled.specification(), q -> q.sortBy(compiled.sort()).limit(compiled.limit()).all())
                 .stream()
                 .map(employeeMapper::toResponse)
                 .toList();
     }
 
+    // Потоковая выгрузка всех сотрудников
+    public StreamingResponseBody exportEmployees() {
+        return jsonStreamWriter.write(employeeRepository::streamAll, employeeMapper::toResponse);
+    }
+
+    // Рейтинг сотрудников по продажам за окно; считается в памяти, без запроса к БД
+    public List<LeaderboardEntryResponse> getLeaderboard(LeaderboardRequest request) {
+        return salesLeaderboard.top(DurationStyle.SIMPLE.parse(request.getWindow()), request.getLimit());
+    }
+
     // Получение сотрудника по ID
     public EmployeeResponse getEmployeeById(Long id) {
         return employeeRepository
@@ -41,15 +79,20 @@ public class EmployeeService {
     public EmployeeResponse createEmployee(EmployeeRequest request) {
         var employee = employeeMapper.toEntity(request);
         employeeRepository.save(employee);
+        salesLeaderboard.putEmployeeName(employee.getId(), employee.getName());
 
-        return employeeMapper.toResponse(employee);
+        var response = employeeMapper.toResponse(employee);
+        auditLog.record(ChangeEntity.EMPLOYEE, employee.getId(), AuditOperation.CREATE, null, response);
+        return response;
     }
 
     // Обновление сотрудника
+    @Transactional
     public EmployeeResponse updateEmployee(Long id, EmployeeRequest request) {
         var existingEmployee = employeeRepository
                 .findById(id)
                 .orElseThrow(() -> new EmployeeNotFoundException(id));
+        var before = employeeMapper.toResponse(existingEmployee);
 
         existingEmployee.setName(request.getName());
         existingEmployee.setPosition(request.getPosition());
@@ -57,16 +100,24 @@ public class EmployeeService {
         existingEmployee.setDepartment(existingEmployee.getDepartment());
         existingEmployee.setManager(existingEmployee.getManager());
         employeeRepository.save(existingEmployee);
+        orderViewRepository.renameEmployee(id, existingEmployee.getName());
+        salesLeaderboard.putEmployeeName(id, existingEmployee.getName());
 
-        return employeeMapper.toResponse(existingEmployee);
+        var response = employeeMapper.toResponse(existingEmployee);
+        auditLog.record(ChangeEntity.EMPLOYEE, id, AuditOperation.UPDATE, before, response);
+        return response;
     }
 
     // Удаление сотрудника
+    @Transactional
     public void deleteEmployee(Long id) {
-        employeeRepository
+        var existingEmployee = employeeRepository
                 .findById(id)
                 .orElseThrow(() -> new EmployeeNotFoundException(id));
+        var before = employeeMapper.toResponse(existingEmployee);
 
+        orderViewRepository.detachEmployee(id);
         employeeRepository.deleteById(id);
+        auditLog.record(ChangeEntity.EMPLOYEE, id, AuditOperation.DELETE, before, null);
     }
 }
\ No newline at end of file
@@ -1,65 +1,223 @@
 package com.onlineshop.test.service;
 
+import com.onlineshop.test.dto.request.OrderFilterRequest;
+import com.onlineshop.test.dto.request.OrderPageRequest;
 import com.onlineshop.test.dto.request.OrderRequest;
+import com.onlineshop.test.dto.response.OrderHistoryResponse;
+import com.onlineshop.test.dto.response.OrderItemPriceResponse;
+import com.onlineshop.test.dto.response.OrderPageResponse;
 import com.onlineshop.test.dto.response.OrderResponse;
+import com.onlineshop.test.entity.ChangeEntity;
+import com.onlineshop.test.entity.Order;
+import com.onlineshop.test.entity.OrderItem;
+import com.onlineshop.test.entity.Product;
+import com.onlineshop.test.event.OrderChangedEvent;
+import com.onlineshop.test.event.OrderChangedEvent.ChangeType;
+import com.onlineshop.test.exception.CustomerNotFoundException;
+import com.onlineshop.test.exception.EmployeeNotFoundException;
 import com.onlineshop.test.exception.OrderNotFoundException;
 import com.onlineshop.test.mapper.OrderMapper;
+import com.onlineshop.test.repository.CustomerRepository;
+import com.onlineshop.test.repository.EmployeeRepository;
+import com.onlineshop.test.repository.OrderItemRepository;
 import com.onlineshop.test.repository.OrderRepository;
+import com.onlineshop.test.repository.OrderViewRepository;
+import com.onlineshop.test.repository.ProductRepository;
+import com.onlineshop.test.repository.specification.OrderViewSpecifications;
+import com.onlineshop.test.support.JsonStreamWriter;
+import com.onlineshop.test.support.audit.AuditLog;
+import com.onlineshop.test.support.audit.AuditOperation;
+import com.onlineshop.test.support.archive.OrderArchive;
+import com.onlineshop.test.support.coalescing.CoalescingLoader;
+import com.onlineshop.test.support.feed.OrderFeed;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @AllArgsConstructor
 @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
 public class OrderService {
 
+    // Курсор первой страницы: позже любого заказа (timestamp в Postgres ограничен 294276 годом)
+    private static final LocalDateTime FIRST_PAGE_CREATED_AT = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     OrderMapper orderMapper;
     OrderRepository orderRepository;
+    OrderItemRepository orderItemRepository;
+    OrderViewRepository orderViewRepository;
+    CustomerRepository customerRepository;
+    EmployeeRepository employeeRepository;
+    ProductRepository productRepository;
+    StockService stockService;
+    JsonStreamWriter jsonStreamWriter;
+    CoalescingLoader<Long, OrderResponse> orderResponseLoader;
+    AuditLog auditLog;
+    ApplicationEventPublisher eventPublisher;
+    OrderFeed orderFeed;
+    OrderArchive orderArchive;
 
-    public List<OrderResponse> getAllOrders() {
-        return orderRepository
-                .findAll()
+    // Списки читаются из модели order_view: одна таблица, без join с клиентами и сотрудниками
+    public List<OrderResponse> getAllOrders(OrderFilterRequest filter) {
+        return orderViewRepository
+                .findAll(OrderViewSpecifications.byFilter(filter), Sort.by(Sort.Direction.DESC, "createdAt"))
                 .stream()
                 .map(orderMapper::toResponse)
                 .toList();
     }
 
+    public StreamingResponseBody exportOrders() {
+        return jsonStreamWriter.write(orderViewRepository::streamAll, orderMapper::toResponse);
+    }
+
+    // Подписка на изменения заказов; lastEventId — ID последнего полученного события при переподключении
+    public SseEmitter streamOrders(String lastEventId) {
+        return orderFeed.subscribe(lastEventId);
+    }
+
+    // История заказов клиента, новые первыми
+    public OrderPageResponse getCustomerOrders(Long customerId, OrderPageRequest page) {
+        if (!customerRepository.existsById(customerId)) {
+            throw new CustomerNotFoundException(customerId);
+        }
+
+        return toPage(orderRepository.findCustomerHistory(
+                customerId, afterCreatedAt(page), afterId(page), Limit.of(page.getSize())), page.getSize());
+    }
+
+    // История заказов, оформленных сотрудником, новые первыми
+    public OrderPageResponse getEmployeeOrders(Long employeeId, OrderPageRequest page) {
+        if (!employeeRepository.existsById(employeeId)) {
+            throw new EmployeeNotFoundException(employeeId);
+        }
+
+        return toPage(orderRepository.findEmployeeHistory(
+                employeeId, afterCreatedAt(page), afterId(page), Limit.of(page.getSize())), page.getSize());
+    }
+
+    // Заказ по ID; не найденный в БД ищется в архиве старых заказов
     public OrderResponse getOrderById(Long id) {
-        return orderRepository
-                .findById(id)
-                .map(orderMapper::toResponse)
+        return orderResponseLoader
+                .load(id)
+                .or(() -> orderArchive.find(id).map(orderMapper::toResponse))
                 .orElseThrow(() -> new OrderNotFoundException(id));
     }
 
+    // Цены позиций по истории цен продуктов; архивированные заказы в истории цен не сверяются
+    public List<OrderItemPriceResponse> getOrderItemPrices(Long id) {
+        if (!orderRepository.existsById(id)) {
+            throw new OrderNotFoundException(id);
+        }
+
+        return orderItemRepository.findItemPrices(List.of(id))
+                .stream()
+                .map(item -> new OrderItemPriceResponse(item.getItemId(), item.getProductId(), item.getQuantity(),
+                        item.getPriceAtOrder(), item.getCurrentPrice()))
+                .toList();
+    }
+
+    // Заказ и списание остатка по всем позициям — одна транзакция
+    @Transactional
     public OrderResponse createOrder(OrderRequest request) {
         var order = orderMapper.toEntity(request);
+        order.setCreatedAt(LocalDateTime.now());
         orderRepository.save(order);
 
-        return orderMapper.toResponse(order);
+        for (var item : request.getItems()) {
+            stockService.reserveForOrder(order, item.getProductId(), item.getQuantity(), item.getReservationId());
+            order.getItems().add(new OrderItem(null, order, productRepository.getReferenceById(item.getProductId()), item.getQuantity()));
+        }
+        orderViewRepository.refresh(order.getId());
+
+        publish(ChangeType.CREATED, order, null);
+        var response = orderMapper.toResponse(order);
+        auditLog.record(ChangeEntity.ORDER, order.getId(), AuditOperation.CREATE, null, response);
+        return response;
     }
 
+    @Transactional
     public OrderResponse updateOrder(Long id, OrderRequest request) {
         var existingOrder = orderRepository
                 .findById(id)
                 .orElseThrow(() -> new OrderNotFoundException(id));
 
+        var before = orderMapper.toResponse(existingOrder);
+        var previousAmount = existingOrder.getAmount();
         existingOrder.setAmount(request.getAmount());
         existingOrder.setUpdatedAt(LocalDateTime.now());
         orderRepository.save(existingOrder);
+        orderViewRepository.refresh(id);
+        publish(ChangeType.UPDATED, existingOrder, previousAmount);
 
-        return orderMapper.toResponse(existingOrder);
+        var response = orderMapper.toResponse(existingOrder);
+        auditLog.record(ChangeEntity.ORDER, id, AuditOperation.UPDATE, before, response);
+        return response;
     }
 
+    // Строка order_view удаляется каскадом по внешнему ключу, списанный под заказ остаток возвращается на склад
+    @Transactional
     public void deleteOrder(Long id) {
-        orderRepository
+        var existingOrder = orderRepository
                 .findById(id)
                 .orElseThrow(() -> new OrderNotFoundException(id));
 
+        var before = orderMapper.toResponse(existingOrder);
+        stockService.releaseForOrder(id);
         orderRepository.deleteById(id);
+        publish(ChangeType.DELETED, existingOrder, null);
+        auditLog.record(ChangeEntity.ORDER, id, AuditOperation.DELETE, before, null);
+    }
+
+    // Вне транзакции событие доставляется сразу, внутри — после коммита
+    private void publish(ChangeType type, Order order, Long previousAmount) {
+        eventPublisher.publishEvent(new OrderChangedEvent(
+                type,
+                order.getId(),
+                order.getCustomer() != null ? order.getCustomer().getId() : null,
+                order.getEmployee() != null ? order.getEmployee().getId() : null,
+                order.getAmount(),
+                previousAmount,
+                order.getCreatedAt(),
+                type == ChangeType.UPDATED ? List.of() : productIds(order),
+                orderRepository.currentTransactionId()));
+    }
+
+    // Позиции удаляемого заказа загружены каскадным удалением, созданного — уже в памяти
+    private static List<Long> productIds(Order order) {
+        return order.getItems().stream()
+                .map(OrderItem::getProduct)
+                .filter(Objects::nonNull)
+                .map(Product::getId)
+                .distinct()
+                .toList();
+    }
+
+    private static LocalDateTime afterCreatedAt(OrderPageRequest page) {
+        return page.getAfterCreatedAt() != null ? page.getAfterCreatedAt() : FIRST_PAGE_CREATED_AT;
+    }
+
+    private static Long afterId(OrderPageRequest page) {
+        return page.getAfterCreatedAt() != null && page.getAfterId() != null ? page.getAfterId() : Long.MAX_VALUE;
+    }
+
+    // Неполная страница — последняя
+    private static OrderPageResponse toPage(List<OrderHistoryResponse> orders, int size) {
+        if (orders.size() < size) {
+            return new OrderPageResponse(orders, null, null);
+        }
+
+        var last = orders.get(orders.size() - 1);
+        return new OrderPageResponse(orders, last.createdAt(), last.id());
     }
-}
\ No newline at end of file
+}
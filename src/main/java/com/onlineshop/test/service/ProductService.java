@@ -1,16 +1,37 @@
 package com.onlineshop.test.service;
 
+import com.onlineshop.test.configuration.LocalCacheConfiguration;
+import com.onlineshop.test.dto.request.ListQuery;
+import com.onlineshop.test.dto.request.PriceBatchRequest;
+import com.onlineshop.test.dto.request.PricePointRequest;
 import com.onlineshop.test.dto.request.ProductRequest;
+import com.onlineshop.test.dto.request.RelatedProductsRequest;
+import com.onlineshop.test.dto.response.ProductPriceResponse;
 import com.onlineshop.test.dto.response.ProductResponse;
+import com.onlineshop.test.dto.response.RelatedProductResponse;
+import com.onlineshop.test.entity.ChangeEntity;
 import com.onlineshop.test.entity.Product;
 import com.onlineshop.test.exception.ProductNotFoundException;
+import com.onlineshop.test.exception.ProductPriceNotFoundException;
 import com.onlineshop.test.mapper.ProductMapper;
 import com.onlineshop.test.repository.ProductRepository;
+import com.onlineshop.test.repository.specification.ProductSpecifications;
+import com.onlineshop.test.support.JsonStreamWriter;
+import com.onlineshop.test.support.audit.AuditLog;
+import com.onlineshop.test.support.audit.AuditOperation;
+import com.onlineshop.test.support.cache.CacheCoherence;
+import com.onlineshop.test.support.cache.LocalCache;
+import com.onlineshop.test.support.coalescing.CoalescingLoader;
+import com.onlineshop.test.support.query.ListQueryCompiler;
+import com.onlineshop.test.support.recommendation.ProductRecommendations;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -20,52 +41,108 @@ public class ProductService {
 
     ProductMapper productMapper;
     ProductRepository productRepository;
+    JsonStreamWriter jsonStreamWriter;
+    ListQueryCompiler listQueryCompiler;
+    CoalescingLoader<Long, ProductResponse> productResponseLoader;
+    ProductRecommendations productRecommendations;
+    LocalCache<ProductResponse> productCache;
+    CacheCoherence cacheCoherence;
+    AuditLog auditLog;
 
-    // Получение всех продуктов
-    public List<ProductResponse> getAllProducts() {
+    // Получение продуктов: без параметров — все, иначе по фильтрам и сортировке с лимитом
+    public List<ProductResponse> getAllProducts(ListQuery query) {
+        if (query.isEmpty()) {
+            return productRepository
+                    .findAll()
+                    .stream()
+                    .map(productMapper::toResponse)
+                    .toList();
+        }
+
+        var compiled = listQueryCompiler.compile(ProductSpecifications.SCHEMA, query);
         return productRepository
-                .findAll()
+                .findBy(compiled.specification(), q -> q.sortBy(compiled.sort()).limit(compiled.limit()).all())
                 .stream()
                 .map(productMapper::toResponse)
                 .toList();
     }
 
-    // Получение продукта по ID
+    // Потоковая выгрузка всех продуктов
+    public StreamingResponseBody exportProducts() {
+        return jsonStreamWriter.write(productRepository::streamAll, productMapper::toResponse);
+    }
+
+    // Получение продукта по ID: из локального кэша, промахи одного ID объединяются
     public ProductResponse getProductById(Long id) {
-        return productRepository
-                .findById(id)
-                .map(productMapper::toResponse)
+        return productCache
+                .get(id, productResponseLoader::loadFresh)
                 .orElseThrow(() -> new ProductNotFoundException(id));
     }
 
+    // Цена продукта на момент at по истории цен
+    public ProductPriceResponse getPriceAt(Long id, LocalDateTime at) {
+        return productRepository
+                .findPriceAt(id, at)
+                .map(price -> new ProductPriceResponse(id, at, price))
+                .orElseThrow(() -> new ProductPriceNotFoundException(id, at));
+    }
+
+    // Цены для пакета пар (продукт, момент) одним запросом; неизвестная цена — null в ответе
+    public List<ProductPriceResponse> getPricesAt(PriceBatchRequest request) {
+        var items = request.getItems();
+        var productIds = items.stream().map(PricePointRequest::getProductId).toArray(Long[]::new);
+        var instants = items.stream().map(PricePointRequest::getAt).toArray(LocalDateTime[]::new);
+
+        return productRepository.findPricesAt(productIds, instants)
+                .stream()
+                .map(row -> new ProductPriceResponse(row.getProductId(), row.getAt(), row.getPrice()))
+                .toList();
+    }
+
+    // Товары, которые чаще всего покупают вместе с продуктом; отвечает из памяти, без проверки продукта в БД
+    public List<RelatedProductResponse> getRelatedProducts(Long id, RelatedProductsRequest request) {
+        return productRecommendations.related(id, request.getN());
+    }
+
     // Создание нового продукта
     public ProductResponse createProduct(ProductRequest request) {
         var product = productMapper.toEntity(request);
         productRepository.save(product);
 
-        return productMapper.toResponse(product);
+        var response = productMapper.toResponse(product);
+        auditLog.record(ChangeEntity.PRODUCT, product.getId(), AuditOperation.CREATE, null, response);
+        return response;
     }
 
-    // Обновление продукта
+    // Обновление продукта; прежняя цена остаётся в истории цен, кэш инвалидируется на всех узлах после коммита
+    @Transactional
     public ProductResponse updateProduct(Long id, ProductRequest request) {
         var existingProduct = productRepository
                 .findById(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
+        var before = productMapper.toResponse(existingProduct);
 
         existingProduct.setName(request.getName());
         existingProduct.setPrice(request.getPrice());
 
         productRepository.save(existingProduct);
+        cacheCoherence.invalidate(LocalCacheConfiguration.PRODUCTS, id);
 
-        return productMapper.toResponse(existingProduct);
+        var response = productMapper.toResponse(existingProduct);
+        auditLog.record(ChangeEntity.PRODUCT, id, AuditOperation.UPDATE, before, response);
+        return response;
     }
 
     // Удаление продукта
+    @Transactional
     public void deleteProduct(Long id) {
-        productRepository
+        var existingProduct = productRepository
                 .findById(id)
                 .orElseThrow(() -> new ProductNotFoundException(id));
+        var before = productMapper.toResponse(existingProduct);
 
         productRepository.deleteById(id);
+        cacheCoherence.invalidate(LocalCacheConfiguration.PRODUCTS, id);
+        auditLog.record(ChangeEntity.PRODUCT, id, AuditOperation.DELETE, before, null);
     }
 }
\ No newline at end of file
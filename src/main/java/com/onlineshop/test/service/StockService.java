@@ -0,0 +1,205 @@
+package com.onlineshop.test.service;
+
+import com.onlineshop.test.configuration.StockProperties;
+import com.onlineshop.test.dto.request.ReservationRequest;
+import com.onlineshop.test.dto.request.StockRequest;
+import com.onlineshop.test.dto.response.ReservationResponse;
+import com.onlineshop.test.dto.response.StockResponse;
+import com.onlineshop.test.entity.Order;
+import com.onlineshop.test.entity.ProductStockShard;
+import com.onlineshop.test.entity.ReservationStatus;
+import com.onlineshop.test.entity.StockReservation;
+import com.onlineshop.test.exception.InsufficientStockException;
+import com.onlineshop.test.exception.ProductNotFoundException;
+import com.onlineshop.test.exception.ReservationNotFoundException;
+import com.onlineshop.test.exception.ReservationNotUsableException;
+import com.onlineshop.test.mapper.ReservationMapper;
+import com.onlineshop.test.repository.ProductRepository;
+import com.onlineshop.test.repository.ProductStockShardRepository;
+import com.onlineshop.test.repository.StockReservationRepository;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+@Service
+@AllArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class StockService {
+
+    // Сколько раз ждать занятый шард, прежде чем признать, что остатка не хватает
+    private static final int MAX_WAIT_ATTEMPTS = 10;
+
+    ProductRepository productRepository;
+    ProductStockShardRepository shardRepository;
+    StockReservationRepository reservationRepository;
+    ReservationMapper reservationMapper;
+    StockProperties stockProperties;
+
+    // Получение остатка продукта
+    @Transactional(readOnly = true)
+    public StockResponse getStock(Long productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException(productId);
+        }
+
+        return new StockResponse(
+                productId,
+                shardRepository.sumQuantity(productId),
+                reservationRepository.sumReserved(productId),
+                shardRepository.countByProductId(productId));
+    }
+
+    // Установка остатка: количество делится поровну между шардами
+    @Transactional
+    public StockResponse setStock(Long productId, StockRequest request) {
+        var product = productRepository
+                .findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+
+        shardRepository.deleteByProductId(productId);
+
+        int shards = request.getShards();
+        var rows = new ArrayList<ProductStockShard>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            long quantity = request.getQuantity() / shards + (shard < request.getQuantity() % shards ? 1 : 0);
+            rows.add(new ProductStockShard(null, product, shard, quantity));
+        }
+        shardRepository.saveAll(rows);
+
+        return getStock(productId);
+    }
+
+    // Временный резерв: остаток списывается сразу, а по истечении TTL возвращается
+    @Transactional
+    public ReservationResponse reserve(ReservationRequest request) {
+        var product = productRepository
+                .findById(request.getProductId())
+                .orElseThrow(() -> new ProductNotFoundException(request.getProductId()));
+
+        claim(product.getId(), request.getQuantity());
+
+        var now = LocalDateTime.now();
+        var reservation = new StockReservation(null, product, null, request.getQuantity(),
+                ReservationStatus.RESERVED, now, now.plus(stockProperties.reservationTtl()));
+        reservationRepository.save(reservation);
+
+        return reservationMapper.toResponse(reservation);
+    }
+
+    // Списание остатка под позицию заказа в транзакции создания заказа. Если позиция ссылается на
+    // резерв, остаток уже списан: резерв переходит к заказу, а повторного списания нет.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserveForOrder(Order order, Long productId, Long quantity, Long reservationId) {
+        if (reservationId != null) {
+            confirm(order, productId, quantity, reservationId);
+            return;
+        }
+
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException(productId);
+        }
+
+        claim(productId, quantity);
+
+        var reservation = new StockReservation(null, productRepository.getReferenceById(productId), order, quantity,
+                ReservationStatus.CONFIRMED, LocalDateTime.now(), null);
+        reservationRepository.save(reservation);
+    }
+
+    // Возврат на склад остатка, списанного под удаляемый заказ
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseForOrder(Long orderId) {
+        reservationRepository
+                .lockConfirmedByOrderId(orderId)
+                .forEach(this::releaseLocked);
+    }
+
+    // Снятие резерва
+    @Transactional
+    public void release(Long id) {
+        var reservation = reservationRepository
+                .lockById(id)
+                .orElseThrow(() -> new ReservationNotFoundException(id));
+
+        if (reservation.getStatus() == ReservationStatus.RESERVED) {
+            releaseLocked(reservation);
+        }
+    }
+
+    // Возврат на склад истёкших резервов; несколько узлов разбирают их без пересечений
+    @Transactional
+    @Scheduled(fixedDelayString = "${stock.expiry-sweep-interval:PT30S}")
+    public void releaseExpired() {
+        reservationRepository
+                .lockExpired(LocalDateTime.now(), stockProperties.expirySweepBatch())
+                .forEach(this::releaseLocked);
+    }
+
+    // Резерв должен быть ещё действующим и совпадать с позицией по товару и количеству. Истёкший,
+    // но ещё не снятый резерв не подходит: его остаток вернёт releaseExpired.
+    private void confirm(Order order, Long productId, Long quantity, Long reservationId) {
+        var reservation = reservationRepository
+                .lockById(reservationId)
+                .orElseThrow(() -> new ReservationNotFoundException(reservationId));
+
+        if (reservation.getStatus() != ReservationStatus.RESERVED
+                || !reservation.getExpiresAt().isAfter(LocalDateTime.now())
+                || !reservation.getProduct().getId().equals(productId)
+                || !reservation.getQuantity().equals(quantity)) {
+            throw new ReservationNotUsableException(reservationId);
+        }
+
+        reservation.setOrder(order);
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+        reservation.setExpiresAt(null);
+    }
+
+    // У товара без шардов остаток не ведётся, и оба запроса возврата ничего не меняют
+    private void releaseLocked(StockReservation reservation) {
+        var productId = reservation.getProduct().getId();
+
+        // Возвращаем в любой свободный шард; если все заняты — в первый, дождавшись блокировки
+        shardRepository.lockAnyUnlocked(productId).ifPresentOrElse(
+                shard -> shardRepository.addQuantity(shard.getId(), reservation.getQuantity()),
+                () -> shardRepository.addQuantityToFirstShard(productId, reservation.getQuantity()));
+
+        reservation.setStatus(ReservationStatus.RELEASED);
+    }
+
+    // Списывает quantity, забирая свободные шарды по одному. Занятые другими покупками шарды
+    // пропускаются (SKIP LOCKED), поэтому одновременные покупки одного товара не встают в очередь.
+    // Ждать блокировку приходится, только если остаток есть лишь в занятых шардах.
+    // Товар без шардов считается товаром без учёта остатка и не списывается.
+    private void claim(Long productId, Long quantity) {
+        if (shardRepository.countByProductId(productId) == 0) {
+            return;
+        }
+
+        long remaining = quantity;
+        int waits = 0;
+
+        while (remaining > 0) {
+            var shard = shardRepository.claimUnlocked(productId);
+
+            if (shard.isEmpty()) {
+                if (shardRepository.sumQuantity(productId) < remaining || waits++ == MAX_WAIT_ATTEMPTS) {
+                    throw new InsufficientStockException(productId, quantity);
+                }
+                shard = shardRepository.claimWaiting(productId);
+            }
+
+            if (shard.isPresent()) {
+                long taken = Math.min(shard.get().getQuantity(), remaining);
+                shardRepository.addQuantity(shard.get().getId(), -taken);
+                remaining -= taken;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.onlineshop.test.support;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Потоковая запись JSON-массива прямо из курсора БД: строка читается, маппится
+// и сразу пишется в сокет, без промежуточных List<Entity> и List<Response>.
+// Запись в сокет блокирующая, поэтому медленный клиент тормозит и чтение курсора.
+@Component
+public class JsonStreamWriter {
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushRows;
+
+    public JsonStreamWriter(ObjectMapper objectMapper,
+                            EntityManager entityManager,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${streaming.flush-rows:500}") int flushRows) {
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.flushRows = flushRows;
+    }
+
+    // Курсор живёт только внутри транзакции, поэтому она открывается в потоке записи ответа
+    public <E, R> StreamingResponseBody write(Supplier<Stream<E>> source, Function<E, R> mapper) {
+        return out -> transactionTemplate.executeWithoutResult(status -> writeArray(out, source, mapper));
+    }
+
+    private <E, R> void writeArray(OutputStream out, Supplier<Stream<E>> source, Function<E, R> mapper) {
+        try (var rows = source.get(); var generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+
+            var iterator = rows.iterator();
+            long written = 0;
+            while (iterator.hasNext()) {
+                generator.writeObject(mapper.apply(iterator.next()));
+
+                // Каждые N строк отдаём данные клиенту и очищаем persistence context,
+                // чтобы память на запрос не зависела от размера выборки
+                if (++written % flushRows == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
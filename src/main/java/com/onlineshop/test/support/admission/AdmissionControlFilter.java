@@ -0,0 +1,191 @@
+package com.onlineshop.test.support.admission;
+
+import com.onlineshop.test.configuration.AdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Контроль допуска перед контроллерами: сначала лимит клиента на маршруте (429),
+// затем адаптивный лимит одновременных запросов к приложению (503). Отказ стоит дешевле,
+// чем запрос, который дойдёт до Postgres и будет повторён клиентом.
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final String clientHeader;
+    private final List<RouteLimit> routes;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final long maxQueueWaitNanos;
+    private final List<PathPattern> streamPaths;
+
+    private final Counter admitted;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public AdmissionControlFilter(AdmissionProperties properties, MeterRegistry registry) {
+        this.clientHeader = properties.clientHeader();
+        this.routes = properties.routes().stream()
+                .map(route -> new RouteLimit(
+                        PathPatternParser.defaultInstance.parse(route.pattern()),
+                        route.methods(),
+                        new TokenBucketRateLimiter(route.capacity(), route.refillPerSecond(),
+                                properties.maxClients(), System::nanoTime)))
+                .toList();
+
+        var concurrency = properties.concurrency();
+        if (concurrency != null && concurrency.enabled()) {
+            this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(
+                    concurrency.initialLimit(),
+                    concurrency.minLimit(),
+                    concurrency.maxLimit(),
+                    concurrency.latencyThreshold().toNanos(),
+                    concurrency.backoffRatio(),
+                    concurrency.maxQueue());
+            this.maxQueueWaitNanos = concurrency.maxQueueWait().toNanos();
+            this.streamPaths = concurrency.streamPaths().stream()
+                    .map(PathPatternParser.defaultInstance::parse)
+                    .toList();
+
+            Gauge.builder("admission.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit).register(registry);
+            Gauge.builder("admission.inflight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight).register(registry);
+            Gauge.builder("admission.queued", concurrencyLimiter, AdaptiveConcurrencyLimiter::getQueued).register(registry);
+        } else {
+            this.concurrencyLimiter = null;
+            this.maxQueueWaitNanos = 0;
+            this.streamPaths = List.of();
+        }
+
+        this.admitted = Counter.builder("admission.requests").tag("outcome", "admitted").register(registry);
+        this.rateLimited = Counter.builder("admission.requests").tag("outcome", "rate_limited").register(registry);
+        this.shed = Counter.builder("admission.requests").tag("outcome", "shed").register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        var route = findRoute(request, path);
+        if (route != null) {
+            long waitNanos = route.limiter().tryAcquire(clientKey(request));
+            if (waitNanos > 0) {
+                rateLimited.increment();
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos, "Слишком много запросов, повторите позже");
+                return;
+            }
+        }
+
+        // Подписки SSE живут минутами: их длительность исказила бы оценку задержек адаптивного лимита.
+        // Исключение определяется маршрутом, а не заголовком Accept, который клиент может подставить в любой запрос
+        if (concurrencyLimiter == null || isEventStream(request, path)) {
+            admitted.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!concurrencyLimiter.tryAcquire(maxQueueWaitNanos)) {
+            shed.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1), "Сервис перегружен, повторите позже");
+            return;
+        }
+
+        admitted.increment();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                // Потоковые ответы держат слот до завершения асинхронной обработки
+                request.getAsyncContext().addListener(new ReleaseOnComplete(start));
+            } else {
+                concurrencyLimiter.release(System.nanoTime() - start, failed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    private RouteLimit findRoute(HttpServletRequest request, PathContainer path) {
+        for (var route : routes) {
+            if ((route.methods().isEmpty() || route.methods().contains(request.getMethod()))
+                    && route.pattern().matches(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private boolean isEventStream(HttpServletRequest request, PathContainer path) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return false;
+        }
+        for (var pattern : streamPaths) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        var clientId = clientHeader == null ? null : request.getHeader(clientHeader);
+        return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos, String message)
+            throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    private record RouteLimit(PathPattern pattern, Set<String> methods, TokenBucketRateLimiter limiter) {}
+
+    private class ReleaseOnComplete implements AsyncListener {
+
+        private final long start;
+        private volatile boolean failed;
+
+        private ReleaseOnComplete(long start) {
+            this.start = start;
+        }
+
+        // onComplete вызывается и после onTimeout/onError, поэтому слот освобождается только здесь
+        @Override
+        public void onComplete(AsyncEvent event) {
+            concurrencyLimiter.release(System.nanoTime() - start, failed);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.onlineshop.test.support.admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token bucket в форме GCRA: состояние клиента — одно число (теоретическое время прихода следующего
+// запроса), которое обновляется одним CAS. ConcurrentHashMap даёт разбиение ключей по сегментам,
+// поэтому клиенты не конкурируют между собой, а запросы одного клиента не берут блокировок.
+public class TokenBucketRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public TokenBucketRateLimiter(long capacity, double refillPerSecond, int maxClients, LongSupplier nanoClock) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity и refillPerSecond должны быть положительными");
+        }
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+    }
+
+    // 0 — запрос разрешён, иначе через сколько наносекунд освободится токен
+    public long tryAcquire(String client) {
+        var bucket = buckets.get(client);
+        if (bucket == null) {
+            evictIdleIfFull();
+            bucket = buckets.computeIfAbsent(client, key -> new AtomicLong(Long.MIN_VALUE));
+        }
+
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = bucket.get();
+            long theoreticalArrival = current == Long.MIN_VALUE ? now : Math.max(current, now);
+
+            long waitNanos = theoreticalArrival - now - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (bucket.compareAndSet(current, theoreticalArrival + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    // Клиент, чьё ведро уже полностью восстановилось, ничем не отличается от нового — его можно забыть
+    private void evictIdleIfFull() {
+        if (buckets.size() < maxClients || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = nanoClock.getAsLong();
+            buckets.values().removeIf(bucket -> bucket.get() <= now);
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
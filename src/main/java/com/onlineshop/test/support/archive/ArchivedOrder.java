@@ -0,0 +1,26 @@
+package com.onlineshop.test.support.archive;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Заказ в архивном сегменте: имена клиента и сотрудника сохраняются на момент архивации,
+// чтобы чтение архива не зависело от строк, которые позже могут быть удалены
+public record ArchivedOrder(
+        Long id,
+        Long amount,
+        Long customerId,
+        String customerName,
+        Long employeeId,
+        String employeeName,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        List<ArchivedOrderItem> items
+) {
+
+    // Проекция JPQL: позиции догружаются отдельным запросом
+    public ArchivedOrder(Long id, Long amount, Long customerId, String customerName, Long employeeId,
+                         String employeeName, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, amount, customerId, customerName, employeeId, employeeName, createdAt, updatedAt, new ArrayList<>());
+    }
+}
@@ -0,0 +1,3 @@
+package com.onlineshop.test.support.archive;
+
+public record ArchivedOrderItem(Long orderId, Long productId, Long quantity) {}
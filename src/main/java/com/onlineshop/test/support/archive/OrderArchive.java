@@ -0,0 +1,112 @@
+package com.onlineshop.test.support.archive;
+
+import com.onlineshop.test.configuration.ArchiveProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// Набор сегментов архива заказов в archive.directory. Диапазоны id сегментов могут пересекаться, а заказ
+// может оказаться в двух сегментах (повтор после сбоя до удаления строк), поэтому сегменты просматриваются
+// от новых к старым и побеждает самая поздняя копия.
+@Slf4j
+@Component
+public class OrderArchive {
+
+    private static final String SUFFIX = ".seg";
+
+    private final ArchiveProperties properties;
+    private volatile List<Segment> segments = List.of();
+    private final Counter hits;
+    private final Counter misses;
+
+    public OrderArchive(ArchiveProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+
+        Gauge.builder("orders.archive.segments", this, archive -> archive.segments.size()).register(meterRegistry);
+        this.hits = meterRegistry.counter("orders.archive.lookups", "outcome", "hit");
+        this.misses = meterRegistry.counter("orders.archive.lookups", "outcome", "miss");
+    }
+
+    // Подхватывает сегменты, записанные с момента прошлого вызова (в том числе другим узлом)
+    @PostConstruct
+    public synchronized void refresh() {
+        if (!Files.isDirectory(properties.directory())) {
+            return;
+        }
+
+        var known = segments.stream().map(Segment::path).collect(Collectors.toSet());
+        try (var files = Files.list(properties.directory())) {
+            var opened = files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .filter(file -> !known.contains(file))
+                    .map(this::open)
+                    .flatMap(Optional::stream)
+                    .toList();
+            add(opened);
+        } catch (IOException ex) {
+            log.warn("Не удалось прочитать каталог архива {}: {}", properties.directory(), ex.getMessage());
+        }
+    }
+
+    public Optional<ArchivedOrder> find(long id) {
+        for (var segment : segments) {
+            var order = segment.find(id);
+            if (order.isPresent()) {
+                hits.increment();
+                return order;
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    // Запись нового сегмента; в имени время записи и диапазон id
+    public synchronized Segment append(List<ArchivedOrder> orders) {
+        try {
+            Files.createDirectories(properties.directory());
+            long firstId = orders.stream().mapToLong(ArchivedOrder::id).min().orElseThrow();
+            long lastId = orders.stream().mapToLong(ArchivedOrder::id).max().orElseThrow();
+            var name = "orders-%d-%020d-%020d%s".formatted(System.currentTimeMillis(), firstId, lastId, SUFFIX);
+
+            var segment = Segment.write(properties.directory().resolve(name), orders, properties.blockSize());
+            add(List.of(segment));
+            return segment;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Имя файла начинается со времени записи: обратный порядок имён — от новых сегментов к старым.
+    // Список заменяется целиком, поэтому find читает его без блокировки
+    private void add(List<Segment> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+
+        var all = new ArrayList<>(segments);
+        all.addAll(added);
+        all.sort(Comparator.comparing((Segment segment) -> segment.path().getFileName().toString()).reversed());
+        segments = List.copyOf(all);
+    }
+
+    private Optional<Segment> open(Path file) {
+        try {
+            return Optional.of(Segment.open(file));
+        } catch (IOException ex) {
+            log.error("Сегмент архива {} пропущен: {}", file, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+}
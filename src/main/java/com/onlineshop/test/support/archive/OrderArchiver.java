@@ -0,0 +1,105 @@
+package com.onlineshop.test.support.archive;
+
+import com.onlineshop.test.configuration.ArchiveProperties;
+import com.onlineshop.test.repository.OrderItemRepository;
+import com.onlineshop.test.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Перенос старых заказов из Postgres в сегменты архива. Сначала сегмент целиком записывается на диск,
+// потом строки удаляются пакетами по archive.delete-batch-size в коротких транзакциях.
+// Сбой между этими шагами даёт лишь повторную копию заказов в следующем сегменте.
+@Slf4j
+@Component
+public class OrderArchiver {
+
+    // Размер IN (...) при чтении заказов и позиций для сегмента
+    private static final int LOAD_CHUNK = 1000;
+
+    private final ArchiveProperties properties;
+    private final OrderArchive orderArchive;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedCounter;
+
+    public OrderArchiver(ArchiveProperties properties,
+                         OrderArchive orderArchive,
+                         OrderRepository orderRepository,
+                         OrderItemRepository orderItemRepository,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.orderArchive = orderArchive;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedCounter = meterRegistry.counter("orders.archived");
+    }
+
+    @Scheduled(fixedDelayString = "${archive.interval:PT1H}", initialDelayString = "${archive.interval:PT1H}")
+    public void run() {
+        orderArchive.refresh();
+        if (!properties.jobEnabled()) {
+            return;
+        }
+
+        var before = LocalDateTime.now().minus(properties.cutoff());
+        int archived = 0;
+        List<Long> ids;
+        do {
+            ids = orderRepository.findArchivableIds(before, Limit.of(properties.segmentSize()));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            orderArchive.append(load(ids));
+            archived += delete(ids, before);
+        } while (ids.size() == properties.segmentSize());
+
+        if (archived > 0) {
+            log.info("В архив перенесено {} заказов старше {}", archived, before);
+        }
+    }
+
+    private List<ArchivedOrder> load(List<Long> ids) {
+        var orders = new ArrayList<ArchivedOrder>(ids.size());
+        for (int start = 0; start < ids.size(); start += LOAD_CHUNK) {
+            var chunk = ids.subList(start, Math.min(start + LOAD_CHUNK, ids.size()));
+            var items = orderItemRepository.findArchivedItems(chunk)
+                    .stream()
+                    .collect(Collectors.groupingBy(ArchivedOrderItem::orderId));
+
+            for (var order : orderRepository.findArchivedOrders(chunk)) {
+                order.items().addAll(items.getOrDefault(order.id(), List.of()));
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    private int delete(List<Long> ids, LocalDateTime before) {
+        int deleted = 0;
+        for (int start = 0; start < ids.size(); start += properties.deleteBatchSize()) {
+            var batch = ids.subList(start, Math.min(start + properties.deleteBatchSize(), ids.size()));
+            Integer count = transactionTemplate.execute(status -> {
+                orderRepository.markArchiving();
+                return orderRepository.deleteArchived(batch, before);
+            });
+            deleted += count != null ? count : 0;
+            archivedCounter.increment(count != null ? count : 0);
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,291 @@
+package com.onlineshop.test.support.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Неизменяемый файл архива заказов. Заказы отсортированы по id и сжаты блоками по blockSize записей;
+// в конце файла — разреженный индекс (первый id, смещение и размеры каждого блока) и футер.
+// Индекс читается в память при открытии, а файл отображается через mmap: поиск заказа — бинарный
+// поиск по индексу и распаковка одного блока.
+//
+// [блок 0][блок 1]...[индекс: count, (firstId, offset, compressed, raw) * count][футер]
+// футер: indexOffset, firstId, lastId, recordCount, MAGIC
+public final class Segment {
+
+    private static final int MAGIC = 0x4F415243;
+    private static final int FOOTER_BYTES = 8 + 8 + 8 + 4 + 4;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long firstId;
+    private final long lastId;
+    private final int recordCount;
+    private final long[] blockFirstIds;
+    private final long[] blockOffsets;
+    private final int[] blockCompressed;
+    private final int[] blockRaw;
+
+    private Segment(Path path, MappedByteBuffer buffer, long firstId, long lastId, int recordCount,
+                    long[] blockFirstIds, long[] blockOffsets, int[] blockCompressed, int[] blockRaw) {
+        this.path = path;
+        this.buffer = buffer;
+        this.firstId = firstId;
+        this.lastId = lastId;
+        this.recordCount = recordCount;
+        this.blockFirstIds = blockFirstIds;
+        this.blockOffsets = blockOffsets;
+        this.blockCompressed = blockCompressed;
+        this.blockRaw = blockRaw;
+    }
+
+    // Запись во временный файл и атомарное переименование: сегмент либо виден целиком, либо не виден вовсе
+    public static Segment write(Path path, List<ArchivedOrder> orders, int blockSize) throws IOException {
+        if (orders.isEmpty()) {
+            throw new IllegalArgumentException("Пустой сегмент");
+        }
+
+        var sorted = orders.stream().sorted((a, b) -> Long.compare(a.id(), b.id())).toList();
+        int blocks = (sorted.size() + blockSize - 1) / blockSize;
+        var index = new ByteArrayOutputStream(blocks * 24 + 4);
+        var indexOut = new DataOutputStream(index);
+        indexOut.writeInt(blocks);
+
+        var tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        var deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (var channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            long offset = 0;
+            for (int start = 0; start < sorted.size(); start += blockSize) {
+                var raw = encodeBlock(sorted.subList(start, Math.min(start + blockSize, sorted.size())));
+                var compressed = deflate(deflater, raw);
+
+                indexOut.writeLong(sorted.get(start).id());
+                indexOut.writeLong(offset);
+                indexOut.writeInt(compressed.length);
+                indexOut.writeInt(raw.length);
+                offset += writeFully(channel, ByteBuffer.wrap(compressed));
+            }
+
+            var footer = ByteBuffer.allocate(FOOTER_BYTES)
+                    .putLong(offset)
+                    .putLong(sorted.get(0).id())
+                    .putLong(sorted.get(sorted.size() - 1).id())
+                    .putInt(sorted.size())
+                    .putInt(MAGIC)
+                    .flip();
+            writeFully(channel, ByteBuffer.wrap(index.toByteArray()));
+            writeFully(channel, footer);
+            channel.force(true);
+        } finally {
+            deflater.end();
+        }
+
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+        return open(path);
+    }
+
+    public static Segment open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < FOOTER_BYTES || buffer.getInt(buffer.capacity() - 4) != MAGIC) {
+                throw new IOException("Повреждённый сегмент архива: " + path);
+            }
+
+            var footer = buffer.slice(buffer.capacity() - FOOTER_BYTES, FOOTER_BYTES);
+            int indexOffset = (int) footer.getLong();
+            long firstId = footer.getLong();
+            long lastId = footer.getLong();
+            int recordCount = footer.getInt();
+
+            var index = buffer.slice(indexOffset, buffer.capacity() - FOOTER_BYTES - indexOffset);
+            int blocks = index.getInt();
+            var blockFirstIds = new long[blocks];
+            var blockOffsets = new long[blocks];
+            var blockCompressed = new int[blocks];
+            var blockRaw = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                blockFirstIds[i] = index.getLong();
+                blockOffsets[i] = index.getLong();
+                blockCompressed[i] = index.getInt();
+                blockRaw[i] = index.getInt();
+            }
+
+            return new Segment(path, buffer, firstId, lastId, recordCount,
+                    blockFirstIds, blockOffsets, blockCompressed, blockRaw);
+        }
+    }
+
+    public Optional<ArchivedOrder> find(long id) {
+        if (id < firstId || id > lastId) {
+            return Optional.empty();
+        }
+
+        // Последний блок, первый id которого не больше искомого
+        int block = Arrays.binarySearch(blockFirstIds, id);
+        if (block < 0) {
+            block = -block - 2;
+        }
+
+        try (var in = new DataInputStream(new ByteArrayInputStream(inflate(block)))) {
+            while (in.available() > 0) {
+                var order = decode(in);
+                if (order.id() == id) {
+                    return Optional.of(order);
+                }
+                if (order.id() > id) {
+                    break;
+                }
+            }
+            return Optional.empty();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long firstId() {
+        return firstId;
+    }
+
+    public long lastId() {
+        return lastId;
+    }
+
+    public int recordCount() {
+        return recordCount;
+    }
+
+    private byte[] inflate(int block) {
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice((int) blockOffsets[block], blockCompressed[block]));
+            var raw = new byte[blockRaw[block]];
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                read += inflater.inflate(raw, read, raw.length - read);
+            }
+            return raw;
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Повреждённый блок " + block + " сегмента " + path, ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] encodeBlock(List<ArchivedOrder> orders) throws IOException {
+        var bytes = new ByteArrayOutputStream(orders.size() * 96);
+        var out = new DataOutputStream(bytes);
+        for (var order : orders) {
+            out.writeLong(order.id());
+            out.writeLong(order.amount());
+            writeNullableLong(out, order.customerId());
+            writeNullableString(out, order.customerName());
+            writeNullableLong(out, order.employeeId());
+            writeNullableString(out, order.employeeName());
+            writeNullableTime(out, order.createdAt());
+            writeNullableTime(out, order.updatedAt());
+            out.writeInt(order.items().size());
+            for (var item : order.items()) {
+                writeNullableLong(out, item.productId());
+                out.writeLong(item.quantity());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ArchivedOrder decode(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        long amount = in.readLong();
+        var customerId = readNullableLong(in);
+        var customerName = readNullableString(in);
+        var employeeId = readNullableLong(in);
+        var employeeName = readNullableString(in);
+        var createdAt = readNullableTime(in);
+        var updatedAt = readNullableTime(in);
+
+        int itemCount = in.readInt();
+        var items = new ArrayList<ArchivedOrderItem>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new ArchivedOrderItem(id, readNullableLong(in), in.readLong()));
+        }
+        return new ArchivedOrder(id, amount, customerId, customerName, employeeId, employeeName,
+                createdAt, updatedAt, items);
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        var out = new ByteArrayOutputStream(raw.length / 4 + 64);
+        var chunk = new byte[8192];
+        while (!deflater.finished()) {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        return out.toByteArray();
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        int written = 0;
+        while (bytes.hasRemaining()) {
+            written += channel.write(bytes);
+        }
+        return written;
+    }
+
+    private static void writeNullableLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readNullableLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullableTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readNullableTime(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.onlineshop.test.support.audit;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Разница двух снимков сущности — ответов-записей одного типа. При создании before равен null и в разницу
+// попадают все поля, при удалении null — after
+public final class AuditDiff {
+
+    private AuditDiff() {
+    }
+
+    public static Map<String, Change> between(Record before, Record after) {
+        var type = before != null ? before.getClass() : after.getClass();
+        var changes = new LinkedHashMap<String, Change>();
+        for (var component : type.getRecordComponents()) {
+            var from = read(component, before);
+            var to = read(component, after);
+            if (!Objects.equals(from, to)) {
+                changes.put(component.getName(), new Change(from, to));
+            }
+        }
+        return changes;
+    }
+
+    private static Object read(RecordComponent component, Record snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+        try {
+            return component.getAccessor().invoke(snapshot);
+        } catch (IllegalAccessException | InvocationTargetException ex) {
+            throw new IllegalStateException("Не удалось прочитать поле " + component.getName(), ex);
+        }
+    }
+
+    public record Change(Object from, Object to) {}
+}
@@ -0,0 +1,300 @@
+package com.onlineshop.test.support.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlineshop.test.configuration.AuditProperties;
+import com.onlineshop.test.entity.ChangeEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Аудит изменений через сервисы. Сервис передаёт снимки сущности до и после изменения; событие попадает
+// в очередь только после коммита (откаченное изменение не аудируется) и не ждёт записи в БД.
+// Очередь ограничена audit.queue-capacity без блокировок: счётчик мест резервируется атомарно, а при
+// переполнении событие отбрасывается и учитывается в audit.dropped. Отдельный поток забирает очередь
+// пакетами до audit.batch-size и пишет их одним COPY; под нагрузкой пакеты растут сами собой.
+// Разница полей считается и сериализуется в этом же потоке, а не в потоке запроса, — до сборки пакета:
+// событие, которое не удалось сериализовать, отбрасывается и учитывается в audit.failed, не ломая пакет.
+// Пакет повторяется не больше audit.max-retries раз, затем события пишутся по одному, а незаписанные
+// тоже учитываются в audit.failed.
+@Slf4j
+@Component
+public class AuditLog {
+
+    private final AuditProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String schema;
+    private final boolean sync;
+    private final Queue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Counter dropped;
+    private final Counter failed;
+    private final Counter written;
+    private final Timer flushes;
+    private final DistributionSummary batches;
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public AuditLog(AuditProperties properties, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                    @Value("${spring.jpa.properties.hibernate.default_schema:public}") String schema,
+                    MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.schema = schema;
+        this.sync = properties.durability() == AuditProperties.Durability.SYNC_ON_COMMIT;
+
+        Gauge.builder("audit.queue.depth", depth, AtomicInteger::get).register(meterRegistry);
+        this.dropped = meterRegistry.counter("audit.dropped");
+        this.failed = meterRegistry.counter("audit.failed");
+        this.written = meterRegistry.counter("audit.written");
+        this.flushes = Timer.builder("audit.flush")
+                .description("Запись одного пакета событий аудита")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batches = DistributionSummary.builder("audit.batch.size").register(meterRegistry);
+    }
+
+    public void record(ChangeEntity entity, Long id, AuditOperation operation, Record before, Record after) {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        var event = new AuditEvent(LocalDateTime.now(), entity, id, operation, before, after,
+                sync ? new CompletableFuture<>() : null);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(event);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(event);
+            }
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        ensurePartitions();
+        running = true;
+        writer = Thread.ofPlatform().name("audit-writer").start(this::run);
+    }
+
+    // Оставшиеся в очереди события дописываются до остановки
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        var thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(properties.syncTimeout().toMillis() * 2);
+        }
+    }
+
+    // Секции текущего и двух следующих месяцев
+    @Scheduled(cron = "0 0 3 * * *")
+    public void ensurePartitions() {
+        jdbcTemplate.queryForList("SELECT " + schema + ".ensure_audit_partitions(LOCALTIMESTAMP, 3)");
+    }
+
+    private void submit(AuditEvent event) {
+        if (depth.incrementAndGet() > properties.queueCapacity()) {
+            depth.decrementAndGet();
+            if (!sync) {
+                dropped.increment();
+                return;
+            }
+            // В режиме sync-on-commit при полной очереди событие пишет сам вызывающий
+            var row = toRow(event);
+            if (row == null) {
+                return;
+            }
+            try {
+                write(List.of(row));
+            } catch (RuntimeException ex) {
+                dropped.increment();
+                log.warn("Событие аудита {} {} потеряно: {}", event.entity(), event.entityId(), ex.getMessage());
+            }
+            return;
+        }
+
+        queue.add(event);
+        if (sync) {
+            LockSupport.unpark(writer);
+            await(event);
+        }
+    }
+
+    private void await(AuditEvent event) {
+        try {
+            event.written().get(properties.syncTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException | ExecutionException ex) {
+            // Изменение уже закоммичено: ответ не проваливаем, событие остаётся в пакете писателя
+            log.warn("Событие аудита {} {} не записано за {}: {}",
+                    event.entity(), event.entityId(), properties.syncTimeout(), ex.getMessage());
+        }
+    }
+
+    private void run() {
+        var batch = new ArrayList<Row>(properties.batchSize());
+        int attempts = 0;
+        while (running || !batch.isEmpty() || depth.get() > 0) {
+            AuditEvent event;
+            while (batch.size() < properties.batchSize() && (event = queue.poll()) != null) {
+                depth.decrementAndGet();
+                var row = toRow(event);
+                if (row != null) {
+                    batch.add(row);
+                }
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(properties.flushInterval().toNanos());
+                continue;
+            }
+
+            try {
+                write(batch);
+                batch.clear();
+                attempts = 0;
+            } catch (RuntimeException ex) {
+                batch.forEach(row -> row.event().fail(ex));
+                if (!running) {
+                    log.error("Аудит: при остановке потеряно {} событий: {}", batch.size(), ex.getMessage());
+                    dropped.increment(batch.size());
+                    batch.clear();
+                    continue;
+                }
+                if (++attempts >= properties.maxRetries()) {
+                    log.error("Аудит: пакет из {} событий не записан за {} попыток, события пишутся по одному: {}",
+                            batch.size(), attempts, ex.getMessage());
+                    writeEach(batch);
+                    batch.clear();
+                    attempts = 0;
+                    continue;
+                }
+                // Пакет повторяется, пока запись не удастся или не кончатся попытки; тем временем очередь может переполниться
+                log.warn("Аудит: не удалось записать пакет из {} событий (попытка {}): {}", batch.size(), attempts, ex.getMessage());
+                LockSupport.parkNanos(properties.retryBackoff().toNanos());
+            }
+        }
+    }
+
+    // Последняя попытка после исчерпания повторов: одно событие, которое не принимает БД, не уносит с собой пакет
+    private void writeEach(List<Row> rows) {
+        for (var row : rows) {
+            try {
+                write(List.of(row));
+            } catch (RuntimeException ex) {
+                failed.increment();
+                log.warn("Событие аудита {} {} потеряно: {}", row.event().entity(), row.event().entityId(), ex.getMessage());
+            }
+        }
+    }
+
+    private void write(List<Row> rows) {
+        var csv = new StringBuilder(rows.size() * 128);
+        rows.forEach(row -> csv.append(row.csv()));
+
+        var sql = "COPY " + schema + ".audit_log (occurred_at, entity, entity_id, operation, changes) FROM STDIN (FORMAT csv)";
+        flushes.record(() -> jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new StringReader(csv.toString()));
+            } catch (java.io.IOException ex) {
+                throw new IllegalStateException("COPY в audit_log не удался", ex);
+            }
+        }));
+
+        batches.record(rows.size());
+        written.increment(rows.size());
+        rows.forEach(row -> row.event().done());
+    }
+
+    // Строка CSV события; null — изменения не сериализуются, событие отброшено
+    private Row toRow(AuditEvent event) {
+        String changes;
+        try {
+            changes = objectMapper.writeValueAsString(AuditDiff.between(event.before(), event.after()));
+        } catch (JsonProcessingException | RuntimeException ex) {
+            failed.increment();
+            event.fail(ex);
+            log.warn("Событие аудита {} {} отброшено: не удалось сериализовать изменения: {}",
+                    event.entity(), event.entityId(), ex.getMessage());
+            return null;
+        }
+
+        var csv = new StringBuilder(128);
+        csv.append(event.occurredAt()).append(',')
+                .append(event.entity()).append(',')
+                .append(event.entityId()).append(',')
+                .append(event.operation()).append(',');
+        quote(csv, changes);
+        csv.append('\n');
+        return new Row(event, csv.toString());
+    }
+
+    // CSV: поле в кавычках, кавычки внутри удваиваются
+    private static void quote(StringBuilder csv, String value) {
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        csv.append('"');
+    }
+
+    private record Row(AuditEvent event, String csv) {}
+
+    private record AuditEvent(LocalDateTime occurredAt, ChangeEntity entity, Long entityId, AuditOperation operation,
+                              Record before, Record after, CompletableFuture<Void> written) {
+
+        void done() {
+            if (written != null) {
+                written.complete(null);
+            }
+        }
+
+        void fail(Exception ex) {
+            if (written != null) {
+                written.completeExceptionally(ex);
+            }
+        }
+    }
+}
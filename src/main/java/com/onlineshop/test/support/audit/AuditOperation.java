@@ -0,0 +1,7 @@
+package com.onlineshop.test.support.audit;
+
+public enum AuditOperation {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,18 @@
+package com.onlineshop.test.support.bulkhead;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Ограничивает число одновременных вызовов метода контроллера лимитом из bulkhead.limits.<value>
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    String HEAVY = "heavy";
+
+    String value();
+}
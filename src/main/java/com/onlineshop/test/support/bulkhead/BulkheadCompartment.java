@@ -0,0 +1,45 @@
+package com.onlineshop.test.support.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Один отсек bulkhead: семафор на maxConcurrent разрешений и короткое ожидание свободного места
+public class BulkheadCompartment {
+
+    private final Semaphore semaphore;
+    private final Duration maxWait;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public BulkheadCompartment(String name, int maxConcurrent, Duration maxWait, MeterRegistry registry) {
+        this.semaphore = new Semaphore(maxConcurrent, true);
+        this.maxWait = maxWait;
+        this.waitTimer = Timer.builder("bulkhead.wait").tag("name", name).register(registry);
+        this.rejected = Counter.builder("bulkhead.rejected").tag("name", name).register(registry);
+
+        Gauge.builder("bulkhead.available", semaphore, Semaphore::availablePermits)
+                .tag("name", name)
+                .register(registry);
+    }
+
+    public boolean tryAcquire() throws InterruptedException {
+        long start = System.nanoTime();
+        boolean acquired = semaphore.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (!acquired) {
+            rejected.increment();
+        }
+        return acquired;
+    }
+
+    public void release() {
+        semaphore.release();
+    }
+}
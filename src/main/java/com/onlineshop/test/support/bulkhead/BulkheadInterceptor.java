@@ -0,0 +1,59 @@
+package com.onlineshop.test.support.bulkhead;
+
+import com.onlineshop.test.configuration.BulkheadProperties;
+import com.onlineshop.test.exception.BulkheadFullException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Разрешение берётся до вызова контроллера и возвращается после полной отправки ответа.
+// Для асинхронных ответов (StreamingResponseBody) это происходит в конце ASYNC-диспетчеризации.
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String COMPARTMENT_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".compartment";
+
+    private final Map<String, BulkheadCompartment> compartments = new HashMap<>();
+
+    public BulkheadInterceptor(BulkheadProperties properties, MeterRegistry registry) {
+        properties.limits().forEach((name, limit) -> compartments.put(name,
+                new BulkheadCompartment(name, limit.maxConcurrent(), limit.maxWait(), registry)));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+
+        var bulkhead = method.getMethodAnnotation(Bulkhead.class);
+        if (bulkhead == null) {
+            return true;
+        }
+
+        var compartment = compartments.get(bulkhead.value());
+        if (compartment == null) {
+            throw new IllegalStateException("Bulkhead " + bulkhead.value() + " не настроен в bulkhead.limits");
+        }
+        if (!compartment.tryAcquire()) {
+            throw new BulkheadFullException(bulkhead.value());
+        }
+
+        request.setAttribute(COMPARTMENT_ATTRIBUTE, compartment);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(COMPARTMENT_ATTRIBUTE) instanceof BulkheadCompartment compartment) {
+            request.removeAttribute(COMPARTMENT_ATTRIBUTE);
+            compartment.release();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.onlineshop.test.support.cache;
+
+import com.onlineshop.test.configuration.LocalCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Согласованность LocalCache между узлами. Сервис после изменения вызывает invalidate: внутри транзакции
+// ключи копятся до коммита и уходят одним pg_notify на кэш в той же транзакции — Postgres доставит
+// уведомление слушателям только если транзакция закоммитится. Свой узел инвалидируется сразу после коммита,
+// остальные — получив уведомление через InvalidationListener.
+@Slf4j
+@Component
+public class CacheCoherence {
+
+    // Полезная нагрузка NOTIFY ограничена 8000 байт
+    private static final int MAX_IDS_PER_MESSAGE = 400;
+
+    private final String node = UUID.randomUUID().toString();
+    private final LocalCacheProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, LocalCache<?>> caches;
+    private final Timer lag;
+    private final Counter messages;
+    private final MeterRegistry meterRegistry;
+
+    public CacheCoherence(LocalCacheProperties properties, JdbcTemplate jdbcTemplate,
+                          List<LocalCache<?>> caches, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.caches = caches.stream().collect(Collectors.toMap(LocalCache::name, Function.identity()));
+        this.meterRegistry = meterRegistry;
+
+        // Разница часов узлов входит в задержку, поэтому часы узлов должны синхронизироваться по NTP
+        this.lag = Timer.builder("cache.invalidation.lag")
+                .description("От отправки NOTIFY на узле записи до инвалидации на узле чтения")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.messages = meterRegistry.counter("cache.invalidation.messages");
+    }
+
+    public void invalidate(String cache, Long id) {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            var ids = Map.<String, Set<Long>>of(cache, Set.of(id));
+            publish(ids);
+            invalidateLocal(ids);
+            return;
+        }
+        pending().add(cache, id);
+    }
+
+    // Сообщения, полученные слушателем за один опрос. Ключи одного кэша объединяются, а всплеск больше
+    // burst-threshold ключей сбрасывает кэш целиком: это дешевле поштучного удаления и не отстаёт
+    void apply(List<String> payloads) {
+        long now = System.currentTimeMillis();
+        var ids = new HashMap<String, Set<Long>>();
+        for (var payload : payloads) {
+            var message = InvalidationMessage.parse(payload).orElse(null);
+            if (message == null || message.node().equals(node)) {
+                continue;
+            }
+            messages.increment();
+            lag.record(Duration.ofMillis(Math.max(0, now - message.sentAt())));
+            ids.computeIfAbsent(message.cache(), name -> new LinkedHashSet<>()).addAll(message.ids());
+        }
+
+        ids.forEach((name, cacheIds) -> {
+            var cache = caches.get(name);
+            if (cache == null) {
+                return;
+            }
+            if (cacheIds.size() > properties.burstThreshold()) {
+                cache.invalidateAll();
+                flushed("burst");
+            } else {
+                cache.invalidate(cacheIds);
+            }
+        });
+    }
+
+    // Пропущенные уведомления восстановить нельзя, поэтому после переподключения сбрасывается всё
+    void invalidateAll(String reason) {
+        caches.values().forEach(LocalCache::invalidateAll);
+        flushed(reason);
+        log.info("Локальные кэши сброшены: {}", reason);
+    }
+
+    private void flushed(String reason) {
+        Counter.builder("cache.invalidation.flushes").tag("reason", reason).register(meterRegistry).increment();
+    }
+
+    private void publish(Map<String, Set<Long>> ids) {
+        long sentAt = System.currentTimeMillis();
+        ids.forEach((cache, cacheIds) -> {
+            var all = new ArrayList<>(cacheIds);
+            for (int from = 0; from < all.size(); from += MAX_IDS_PER_MESSAGE) {
+                var chunk = all.subList(from, Math.min(from + MAX_IDS_PER_MESSAGE, all.size()));
+                var payload = new InvalidationMessage(node, sentAt, cache, chunk).encode();
+                jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", properties.channel(), payload);
+            }
+        });
+    }
+
+    private void invalidateLocal(Map<String, ? extends Collection<Long>> ids) {
+        ids.forEach((name, cacheIds) -> {
+            var cache = caches.get(name);
+            if (cache != null) {
+                cache.invalidate(cacheIds);
+            }
+        });
+    }
+
+    private Pending pending() {
+        var pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    // Ключи, изменённые текущей транзакцией
+    private final class Pending implements TransactionSynchronization {
+
+        private final Map<String, Set<Long>> ids = new HashMap<>();
+
+        void add(String cache, Long id) {
+            ids.computeIfAbsent(cache, name -> new LinkedHashSet<>()).add(id);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            publish(ids);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheCoherence.this);
+            if (status == STATUS_COMMITTED) {
+                invalidateLocal(ids);
+            }
+        }
+    }
+}
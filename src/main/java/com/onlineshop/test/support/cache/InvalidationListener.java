@@ -0,0 +1,119 @@
+package com.onlineshop.test.support.cache;
+
+import com.onlineshop.test.configuration.LocalCacheProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Слушатель LISTEN на выделенном соединении в обход пула: соединение занято всё время работы узла
+// и не должно отнимать место у запросов. Соединение открывается заново после обрыва через
+// local-cache.reconnect-backoff, и после каждого (пере)подключения локальные кэши сбрасываются.
+// Если уведомлений нет poll-timeout, соединение проверяется запросом: обрыв без RST иначе не заметен.
+// Слушатель никто не внедряет, поэтому при ленивой инициализации (fast-startup) его создаёт при старте
+// StartupConfiguration вместе с остальной фоновой работой.
+@Slf4j
+@Component
+public class InvalidationListener {
+
+    private final LocalCacheProperties properties;
+    private final DataSourceProperties dataSourceProperties;
+    private final CacheCoherence cacheCoherence;
+    private final AtomicInteger connected = new AtomicInteger();
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    public InvalidationListener(LocalCacheProperties properties, DataSourceProperties dataSourceProperties,
+                                CacheCoherence cacheCoherence, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.dataSourceProperties = dataSourceProperties;
+        this.cacheCoherence = cacheCoherence;
+
+        Gauge.builder("cache.invalidation.connected", connected, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("cache-invalidation").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        closeQuietly(connection);
+    }
+
+    private void run() {
+        while (running) {
+            try (var listening = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                connection = listening;
+                try (var statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + properties.channel());
+                }
+                connected.set(1);
+                cacheCoherence.invalidateAll("reconnect");
+                listen(listening);
+            } catch (SQLException ex) {
+                if (running) {
+                    log.warn("Соединение LISTEN для инвалидации кэшей потеряно: {}", ex.getMessage());
+                }
+            } finally {
+                connected.set(0);
+                connection = null;
+            }
+
+            try {
+                Thread.sleep(properties.reconnectBackoff());
+            } catch (InterruptedException ex) {
+                return;
+            }
+        }
+    }
+
+    private void listen(Connection listening) throws SQLException {
+        var notifications = listening.unwrap(PGConnection.class);
+        int timeout = (int) properties.pollTimeout().toMillis();
+        while (running) {
+            var received = notifications.getNotifications(timeout);
+            if (received == null || received.length == 0) {
+                if (!listening.isValid(Math.max(1, timeout / 1000))) {
+                    throw new SQLException("соединение не отвечает");
+                }
+                continue;
+            }
+            cacheCoherence.apply(Arrays.stream(received).map(PGNotification::getParameter).toList());
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Узел останавливается, ошибка закрытия не важна
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.onlineshop.test.support.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// Полезная нагрузка NOTIFY: "<узел>|<время отправки, мс>|<кэш>|<id,id,...>"
+record InvalidationMessage(String node, long sentAt, String cache, List<Long> ids) {
+
+    String encode() {
+        return node + "|" + sentAt + "|" + cache + "|"
+                + ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    // Нераспознанное сообщение (другая версия приложения, ручной NOTIFY) пропускается
+    static Optional<InvalidationMessage> parse(String payload) {
+        var parts = payload.split("\\|", 4);
+        if (parts.length != 4) {
+            return Optional.empty();
+        }
+        try {
+            var ids = parts[3].isEmpty()
+                    ? List.<Long>of()
+                    : Arrays.stream(parts[3].split(",")).map(Long::valueOf).toList();
+            return Optional.of(new InvalidationMessage(parts[0], Long.parseLong(parts[1]), parts[2], ids));
+        } catch (NumberFormatException ex) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.onlineshop.test.support.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Кэш готовых ответов по ID внутри узла. Актуальность поддерживает CacheCoherence: запись на любом узле
+// инвалидирует ключ на всех. ttl — страховка от изменений в обход сервисов, а не основной механизм.
+// Загрузка, начатая до инвалидации и закончившаяся после неё, не должна положить в кэш старое значение:
+// каждая инвалидация увеличивает поколение, и значение, загруженное в прошлом поколении, удаляется сразу после записи.
+// Поколение фиксируется в момент начала загрузки и передаётся загрузчику: общая (single-flight) загрузка,
+// начатая до инвалидации, не разделяется с читателями нового поколения и не попадает в кэш.
+public class LocalCache<V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<Long, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public LocalCache(String name, int maxSize, long ttlNanos, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+
+        Gauge.builder("cache.size", entries, ConcurrentHashMap::size).tag("cache", name).register(meterRegistry);
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss").register(meterRegistry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    // Отсутствующий объект не кэшируется: после создания он должен появиться сразу
+    public Optional<V> get(Long id, Function<Long, Optional<V>> loader) {
+        return get(id, (key, loadedIn) -> loader.apply(key));
+    }
+
+    // loader получает ID и поколение, в котором начата загрузка
+    public Optional<V> get(Long id, BiFunction<Long, Long, Optional<V>> loader) {
+        long loadedIn = generation.get();
+        if (maxSize <= 0) {
+            return loader.apply(id, loadedIn);
+        }
+
+        var entry = entries.get(id);
+        if (entry != null && System.nanoTime() - entry.loadedAt() < ttlNanos) {
+            hits.increment();
+            return Optional.of(entry.value());
+        }
+
+        misses.increment();
+        var value = loader.apply(id, loadedIn);
+        value.ifPresent(loaded -> put(id, loaded, loadedIn));
+        return value;
+    }
+
+    public void invalidate(Collection<Long> ids) {
+        generation.incrementAndGet();
+        ids.forEach(entries::remove);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void put(Long id, V value, long loadedIn) {
+        if (entries.size() >= maxSize) {
+            // Вытесняется произвольная запись: кэш горячих ID, точный LRU здесь не окупается
+            var iterator = entries.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+
+        entries.put(id, new Entry<>(value, System.nanoTime()));
+        if (generation.get() != loadedIn) {
+            entries.remove(id);
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAt) {}
+}
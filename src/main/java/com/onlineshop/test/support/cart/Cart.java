@@ -0,0 +1,70 @@
+package com.onlineshop.test.support.cart;
+
+import com.onlineshop.test.support.collection.LongIntMap;
+
+import java.util.UUID;
+
+// Корзина в памяти: только ID клиента и карта productId -> количество, без графа сущностей.
+// Изменения содержимого выполняются под монитором корзины.
+public class Cart {
+
+    private final UUID id;
+    private final long customerId;
+    private final LongIntMap items;
+    private volatile long lastAccessMillis;
+    // Корзина вытеснена из хранилища: изменения в этот экземпляр больше не сохраняются
+    private boolean evicted;
+    // Идёт оформление заказа: корзину нельзя менять, оформлять повторно и вытеснять из памяти
+    private boolean checkingOut;
+
+    public Cart(UUID id, long customerId, LongIntMap items) {
+        this.id = id;
+        this.customerId = customerId;
+        this.items = items;
+        touch();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    // Доступ к содержимому только под synchronized (cart)
+    public LongIntMap getItems() {
+        return items;
+    }
+
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    // Проверяется и выставляется под synchronized (cart)
+    public boolean isEvicted() {
+        return evicted;
+    }
+
+    public void markEvicted() {
+        evicted = true;
+    }
+
+    // Проверяется и выставляется под synchronized (cart)
+    public boolean isCheckingOut() {
+        return checkingOut;
+    }
+
+    public void setCheckingOut(boolean checkingOut) {
+        this.checkingOut = checkingOut;
+    }
+
+    public void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    // Заголовок и поля корзины, UUID и карта позиций
+    public long estimatedBytes() {
+        return 32 + 32 + items.estimatedBytes();
+    }
+}
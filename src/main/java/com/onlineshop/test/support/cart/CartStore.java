@@ -0,0 +1,399 @@
+package com.onlineshop.test.support.cart;
+
+import com.onlineshop.test.configuration.CartProperties;
+import com.onlineshop.test.entity.CartSnapshot;
+import com.onlineshop.test.repository.CartSnapshotRepository;
+import com.onlineshop.test.support.collection.LongIntMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Ограниченное хранилище корзин в памяти. Корзины разложены по сегментам (LinkedHashMap в порядке
+// доступа со своей блокировкой), поэтому запросы к разным корзинам почти не конкурируют.
+// При переполнении сегмента давно не использованная корзина вытесняется: сбрасывается в cart_snapshots
+// (cart.spill=true) и поднимается обратно при следующем обращении. Обращение к БД — вне блокировки сегмента.
+// Строка снимка удаляется при подъёме корзины в память и пишется заново при каждом вытеснении; у пустой
+// корзины — удаляется. Подъём ждёт, пока сохраняется вытеснение той же корзины, иначе прочитал бы старый
+// снимок. Корзина в оформлении заказа не вытесняется: флаг оформления есть только в памяти.
+@Slf4j
+@Component
+public class CartStore {
+
+    private static final int SEGMENTS = 16;
+
+    private final CartProperties properties;
+    private final CartSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    // Вытесненные корзины, снимок которых ещё сохраняется: регистрируются под блокировкой сегмента
+    private final ConcurrentHashMap<UUID, CountDownLatch> spilling = new ConcurrentHashMap<>();
+    private final Counter spilledCounter;
+    private final Counter droppedCounter;
+
+    public CartStore(CartProperties properties, CartSnapshotRepository snapshotRepository,
+                     PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        int segmentCapacity = Math.max(1, properties.maxCarts() / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity, spilling);
+        }
+
+        // Средняя память на корзину: carts.memory.bytes / carts.active. Это оценка по размерам полей и массивов,
+        // не замер кучи: с профилем памяти она не сверялась
+        Gauge.builder("carts.active", this, CartStore::size).register(meterRegistry);
+        Gauge.builder("carts.memory.bytes", this, CartStore::estimatedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.spilledCounter = meterRegistry.counter("carts.evicted", "outcome", "spilled");
+        this.droppedCounter = meterRegistry.counter("carts.evicted", "outcome", "dropped");
+    }
+
+    public Cart create(long customerId) {
+        var cart = new Cart(UUID.randomUUID(), customerId, new LongIntMap());
+        spill(segmentFor(cart.getId()).put(cart));
+        return cart;
+    }
+
+    // Корзина из памяти, а при промахе — из cart_snapshots
+    public Optional<Cart> get(UUID id) {
+        var segment = segmentFor(id);
+        while (true) {
+            var cart = segment.get(id);
+            if (cart != null) {
+                cart.touch();
+                return Optional.of(cart);
+            }
+
+            if (!properties.spill()) {
+                return Optional.empty();
+            }
+
+            awaitSpill(id);
+            var loaded = load(segment, id);
+            if (loaded != null) {
+                spill(segment.evictOverflow());
+                return Optional.of(loaded);
+            }
+
+            // Снимка нет: корзины не существует, либо её уже подняли в память или снова вытесняют
+            if (segment.get(id) == null && !spilling.containsKey(id)) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    // Корзина кладётся в память до коммита удаления снимка: одновременный подъём той же корзины
+    // ждёт блокировку строки и после неё находит корзину в памяти
+    private Cart load(Segment segment, UUID id) {
+        return transactionTemplate.execute(status -> snapshotRepository.takeById(id)
+                .map(snapshot -> {
+                    var items = new LongIntMap(snapshot.getProductIds().length);
+                    for (int i = 0; i < snapshot.getProductIds().length; i++) {
+                        items.put(snapshot.getProductIds()[i], snapshot.getQuantities()[i]);
+                    }
+                    return segment.putIfAbsent(new Cart(id, snapshot.getCustomerId(), items));
+                })
+                .orElse(null));
+    }
+
+    private void awaitSpill(UUID id) {
+        var saving = spilling.get(id);
+        if (saving == null) {
+            return;
+        }
+
+        try {
+            saving.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Прервано ожидание сохранения корзины " + id, ex);
+        }
+    }
+
+    public void remove(UUID id) {
+        var cart = segmentFor(id).remove(id);
+        if (cart != null) {
+            synchronized (cart) {
+                cart.markEvicted();
+            }
+        }
+
+        if (properties.spill()) {
+            snapshotRepository.deleteById(id);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (var segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (var segment : segments) {
+            bytes += segment.estimatedBytes();
+        }
+        return bytes;
+    }
+
+    // Удаление корзин, к которым не обращались дольше cart.ttl
+    @Scheduled(fixedDelayString = "${cart.sweep-interval:PT1M}")
+    public void removeExpired() {
+        long expiredBefore = System.currentTimeMillis() - properties.ttl().toMillis();
+        int removed = 0;
+        for (var segment : segments) {
+            removed += segment.removeIdleSince(expiredBefore);
+        }
+
+        if (properties.spill()) {
+            removed += snapshotRepository.deleteUpdatedBefore(LocalDateTime.now().minus(properties.ttl()));
+        }
+
+        if (removed > 0) {
+            log.debug("Удалено {} брошенных корзин", removed);
+        }
+    }
+
+    // При остановке корзины из памяти сохраняются, чтобы пережить рестарт
+    @PreDestroy
+    public void spillAll() {
+        if (!properties.spill()) {
+            return;
+        }
+
+        for (var segment : segments) {
+            spill(segment.drain());
+        }
+    }
+
+    private void spill(List<Cart> evicted) {
+        for (var cart : evicted) {
+            try {
+                spill(cart);
+            } finally {
+                var saving = spilling.remove(cart.getId());
+                if (saving != null) {
+                    saving.countDown();
+                }
+            }
+        }
+    }
+
+    private void spill(Cart cart) {
+        CartSnapshot snapshot;
+        synchronized (cart) {
+            cart.markEvicted();
+            snapshot = cart.getItems().isEmpty() ? null : toSnapshot(cart);
+        }
+
+        if (!properties.spill()) {
+            droppedCounter.increment();
+            return;
+        }
+
+        try {
+            if (snapshot == null) {
+                // Пустую корзину не сохраняем, но и прежний снимок не должен её воскресить
+                snapshotRepository.deleteById(cart.getId());
+                droppedCounter.increment();
+            } else {
+                snapshotRepository.save(snapshot);
+                spilledCounter.increment();
+            }
+        } catch (RuntimeException ex) {
+            droppedCounter.increment();
+            log.warn("Не удалось сохранить корзину {}: {}", cart.getId(), ex.getMessage());
+        }
+    }
+
+    private static CartSnapshot toSnapshot(Cart cart) {
+        var items = cart.getItems();
+        var productIds = new long[items.size()];
+        var quantities = new int[items.size()];
+        int[] position = {0};
+        items.forEach((productId, quantity) -> {
+            productIds[position[0]] = productId;
+            quantities[position[0]++] = quantity;
+        });
+
+        return new CartSnapshot(cart.getId(), cart.getCustomerId(), productIds, quantities, LocalDateTime.now());
+    }
+
+    private Segment segmentFor(UUID id) {
+        return segments[(id.hashCode() & 0x7fffffff) % SEGMENTS];
+    }
+
+    private static final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<UUID, Cart> carts = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+        private final ConcurrentHashMap<UUID, CountDownLatch> spilling;
+
+        Segment(int capacity, ConcurrentHashMap<UUID, CountDownLatch> spilling) {
+            this.capacity = capacity;
+            this.spilling = spilling;
+        }
+
+        Cart get(UUID id) {
+            lock.lock();
+            try {
+                return carts.get(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<Cart> put(Cart cart) {
+            lock.lock();
+            try {
+                carts.put(cart.getId(), cart);
+                return evictOverflowLocked();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Cart putIfAbsent(Cart cart) {
+            lock.lock();
+            try {
+                var existing = carts.putIfAbsent(cart.getId(), cart);
+                return existing != null ? existing : cart;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Cart remove(UUID id) {
+            lock.lock();
+            try {
+                return carts.remove(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<Cart> evictOverflow() {
+            lock.lock();
+            try {
+                return evictOverflowLocked();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Первые в порядке доступа — самые давно использованные. Корзины в оформлении заказа пропускаются,
+        // поэтому сегмент может временно превысить ёмкость
+        private List<Cart> evictOverflowLocked() {
+            if (carts.size() <= capacity) {
+                return List.of();
+            }
+
+            var evicted = new ArrayList<Cart>(carts.size() - capacity);
+            var iterator = carts.values().iterator();
+            while (carts.size() > capacity && iterator.hasNext()) {
+                var cart = iterator.next();
+                if (markEvicted(cart)) {
+                    iterator.remove();
+                    evicted.add(cart);
+                    spilling.put(cart.getId(), new CountDownLatch(1));
+                }
+            }
+            return evicted;
+        }
+
+        // Проверка оформления и отметка вытеснения атомарны под монитором корзины
+        private static boolean markEvicted(Cart cart) {
+            synchronized (cart) {
+                if (cart.isCheckingOut()) {
+                    return false;
+                }
+                cart.markEvicted();
+                return true;
+            }
+        }
+
+        int removeIdleSince(long expiredBeforeMillis) {
+            lock.lock();
+            try {
+                int removed = 0;
+                var iterator = carts.values().iterator();
+                while (iterator.hasNext()) {
+                    var cart = iterator.next();
+                    if (cart.getLastAccessMillis() >= expiredBeforeMillis) {
+                        // Дальше в порядке доступа только более свежие корзины
+                        break;
+                    }
+                    if (markEvicted(cart)) {
+                        iterator.remove();
+                        removed++;
+                    }
+                }
+                return removed;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<Cart> drain() {
+            lock.lock();
+            try {
+                var drained = new ArrayList<>(carts.values());
+                carts.clear();
+                for (var cart : drained) {
+                    spilling.put(cart.getId(), new CountDownLatch(1));
+                }
+                return drained;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return carts.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long estimatedBytes() {
+            lock.lock();
+            try {
+                // Узел LinkedHashMap и ключ UUID на каждую запись
+                long bytes = 0;
+                for (var cart : carts.values()) {
+                    synchronized (cart) {
+                        bytes += 40 + 32 + cart.estimatedBytes();
+                    }
+                }
+                return bytes;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.onlineshop.test.support.coalescing;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+// Загрузка по ID для горячих чтений: одинаковые одновременные запросы объединяются (single-flight),
+// а при включённом micro-batching разные ID из одного окна загружаются одним запросом
+public class CoalescingLoader<K, V> implements AutoCloseable {
+
+    private final SingleFlight<K, V> singleFlight = new SingleFlight<>();
+    private final Function<K, Optional<V>> singleLoader;
+    private final MicroBatcher<K, V> batcher;
+
+    public CoalescingLoader(Function<K, Optional<V>> singleLoader) {
+        this.singleLoader = singleLoader;
+        this.batcher = null;
+    }
+
+    public CoalescingLoader(Function<K, Optional<V>> singleLoader, MicroBatcher<K, V> batcher) {
+        this.singleLoader = singleLoader;
+        this.batcher = batcher;
+    }
+
+    public Optional<V> load(K key) {
+        return loadFresh(key, Long.MIN_VALUE);
+    }
+
+    // Загрузка для LocalCache: generation — поколение кэша на момент начала чтения; загрузку,
+    // начатую в более раннем поколении, вызов не разделяет (см. SingleFlight)
+    public Optional<V> loadFresh(K key, long generation) {
+        try {
+            return Optional.ofNullable(singleFlight.execute(key, generation, this::fetch).join());
+        } catch (CompletionException e) {
+            // Исключения загрузчика (например, *NotFoundException) пробрасываются как есть
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private CompletableFuture<V> fetch(K key) {
+        if (batcher != null) {
+            return batcher.submit(key);
+        }
+        return CompletableFuture.completedFuture(singleLoader.apply(key).orElse(null));
+    }
+
+    @Override
+    public void close() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.onlineshop.test.support.coalescing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+// Собирает разные ключи, пришедшие в течение короткого окна, и загружает их одним запросом
+// (WHERE id IN (...)). Первый ключ в пустой очереди планирует сброс через window.
+public class MicroBatcher<K, V> implements AutoCloseable {
+
+    private final Function<Set<K>, Map<K, V>> loader;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+
+    private final ConcurrentLinkedQueue<Pending<K, V>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    public MicroBatcher(String name, Function<Set<K>, Map<K, V>> loader, long windowNanos, int maxBatchSize, int threads) {
+        this.loader = loader;
+        this.windowNanos = windowNanos;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newScheduledThreadPool(threads, Thread.ofPlatform().name(name + "-batch-", 0).daemon().factory());
+    }
+
+    public CompletableFuture<V> submit(K key) {
+        var pending = new Pending<K, V>(key, new CompletableFuture<>());
+        queue.add(pending);
+
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+        }
+        return pending.future();
+    }
+
+    private void flush() {
+        // Сбрасываем флаг до чтения очереди: ключ, добавленный во время сброса, запланирует следующий
+        flushScheduled.set(false);
+
+        List<Pending<K, V>> batch = new ArrayList<>(maxBatchSize);
+        Pending<K, V> pending;
+        while ((pending = queue.poll()) != null) {
+            batch.add(pending);
+            if (batch.size() == maxBatchSize) {
+                load(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            load(batch);
+        }
+    }
+
+    private void load(List<Pending<K, V>> batch) {
+        Set<K> keys = new HashSet<>();
+        for (var pending : batch) {
+            keys.add(pending.key());
+        }
+
+        Map<K, V> values;
+        try {
+            values = keys.isEmpty() ? new HashMap<>() : loader.apply(keys);
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.future().completeExceptionally(e));
+            return;
+        }
+
+        // Отсутствующий ключ означает, что строки нет: future завершается null
+        batch.forEach(pending -> pending.future().complete(values.get(pending.key())));
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+
+    private record Pending<K, V>(K key, CompletableFuture<V> future) {}
+}
@@ -0,0 +1,49 @@
+package com.onlineshop.test.support.coalescing;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Одновременные вызовы с одинаковым ключом получают один и тот же future:
+// первый вызов выполняет загрузку, остальные ждут его результат.
+// Результат не кэшируется — ключ удаляется сразу после завершения загрузки.
+// generation — поколение инвалидаций вызывающего кэша на момент вызова: к загрузке, начатой в более
+// раннем поколении (возможно, до коммита изменения), вызов не присоединяется и начинает свою.
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    public CompletableFuture<V> execute(K key, Function<K, CompletableFuture<V>> call) {
+        return execute(key, Long.MIN_VALUE, call);
+    }
+
+    public CompletableFuture<V> execute(K key, long generation, Function<K, CompletableFuture<V>> call) {
+        var created = new Flight<V>(generation, new CompletableFuture<>());
+        var current = inFlight.compute(key, (k, existing) ->
+                existing != null && existing.generation() >= generation ? existing : created);
+        if (current != created) {
+            return current.future();
+        }
+
+        try {
+            call.apply(key).whenComplete((value, error) -> {
+                inFlight.remove(key, created);
+                if (error != null) {
+                    created.future().completeExceptionally(error);
+                } else {
+                    created.future().complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.future().completeExceptionally(e);
+        }
+        return created.future();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private record Flight<V>(long generation, CompletableFuture<V> future) {}
+}
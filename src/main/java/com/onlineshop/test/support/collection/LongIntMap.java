@@ -0,0 +1,177 @@
+package com.onlineshop.test.support.collection;
+
+import java.util.Arrays;
+
+// Компактная карта long -> int с открытой адресацией: два примитивных массива вместо
+// HashMap<Long, Integer> (без объектов-обёрток и узлов). Ключ 0 зарезервирован под пустую ячейку,
+// поэтому допускаются только положительные ключи (ID из BIGSERIAL).
+public class LongIntMap {
+
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongIntMap(int capacity) {
+        int tableSize = Integer.highestOneBit(Math.max(MIN_CAPACITY, capacity) - 1) << 1;
+        this.keys = new long[tableSize];
+        this.values = new int[tableSize];
+    }
+
+    // 0, если ключа нет
+    public int get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? 0 : values[index];
+    }
+
+    // Значение 0 удаляет ключ
+    public void put(long key, int value) {
+        checkKey(key);
+        if (value == 0) {
+            remove(key);
+            return;
+        }
+
+        int index = indexOf(key);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        insert(key, value);
+        size++;
+    }
+
+    // Прибавляет delta за один поиск ячейки и возвращает новое значение; итог 0 удаляет ключ
+    public int addTo(long key, int delta) {
+        checkKey(key);
+        int index = indexOf(key);
+        if (index < 0) {
+            put(key, delta);
+            return delta;
+        }
+
+        int value = values[index] + delta;
+        if (value == 0) {
+            remove(key);
+        } else {
+            values[index] = value;
+        }
+        return value;
+    }
+
+    public int remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return 0;
+        }
+
+        int removed = values[index];
+        int mask = keys.length - 1;
+        int hole = index;
+
+        // Обратный сдвиг: элементы цепочки пробирования переезжают в освободившуюся ячейку,
+        // чтобы поиск не останавливался на дыре
+        for (int next = (index + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+
+        keys[hole] = 0;
+        values[hole] = 0;
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    // Заголовок объекта и два массива (заголовок массива 16 байт)
+    public long estimatedBytes() {
+        return 24 + 16 + 8L * keys.length + 16 + 4L * values.length;
+    }
+
+    private int indexOf(long key) {
+        if (key <= 0) {
+            return -1;
+        }
+
+        int mask = keys.length - 1;
+        for (int index = slot(key, mask); keys[index] != 0; index = (index + 1) & mask) {
+            if (keys[index] == key) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(long key, int value) {
+        int mask = keys.length - 1;
+        int index = slot(key, mask);
+        while (keys[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+    }
+
+    private void resize(int capacity) {
+        var oldKeys = keys;
+        var oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static void checkKey(long key) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Ключ должен быть положительным: " + key);
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+}
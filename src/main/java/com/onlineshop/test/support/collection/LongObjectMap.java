@@ -0,0 +1,130 @@
+package com.onlineshop.test.support.collection;
+
+import java.util.function.LongFunction;
+
+// Карта long -> V с открытой адресацией по тем же правилам, что LongIntMap: ключи в примитивном
+// массиве, ключ 0 зарезервирован под пустую ячейку. Удаления нет — ключи только добавляются.
+public class LongObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    public LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongObjectMap(int capacity) {
+        int tableSize = Integer.highestOneBit(Math.max(MIN_CAPACITY, capacity) - 1) << 1;
+        this.keys = new long[tableSize];
+        this.values = new Object[tableSize];
+    }
+
+    // null, если ключа нет
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    public void put(long key, V value) {
+        checkKey(key);
+        int index = indexOf(key);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        insert(key, value);
+        size++;
+    }
+
+    public V computeIfAbsent(long key, LongFunction<V> factory) {
+        var value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<V> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    // Только сама карта, без значений: массив ключей и массив ссылок (сжатые указатели, 4 байта)
+    public long estimatedBytes() {
+        return 24 + 16 + 8L * keys.length + 16 + 4L * values.length;
+    }
+
+    private int indexOf(long key) {
+        if (key <= 0) {
+            return -1;
+        }
+
+        int mask = keys.length - 1;
+        for (int index = slot(key, mask); keys[index] != 0; index = (index + 1) & mask) {
+            if (keys[index] == key) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(long key, Object value) {
+        int mask = keys.length - 1;
+        int index = slot(key, mask);
+        while (keys[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+    }
+
+    private void resize(int capacity) {
+        var oldKeys = keys;
+        var oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static void checkKey(long key) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Ключ должен быть положительным: " + key);
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+}
@@ -0,0 +1,57 @@
+package com.onlineshop.test.support.feed;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Кольцевой буфер событий без блокировок на несколько писателей. Писатель занимает номер через
+// getAndIncrement, кладёт событие в ячейку и продвигает published строго по порядку номеров,
+// поэтому читатель видит только полностью записанные события. Читатели ничего не пишут в буфер:
+// каждый держит свой курсор, а отставший больше чем на capacity событий теряет перезаписанные.
+public class EventRing<T> {
+
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+
+    public EventRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ёмкость должна быть степенью двойки: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public long publish(T event) {
+        long sequence = claimed.getAndIncrement();
+        slots.set((int) (sequence & mask), new Slot<>(sequence, event));
+
+        // Ждём писателей с меньшими номерами: обычно это единицы наносекунд
+        while (!published.compareAndSet(sequence, sequence + 1)) {
+            Thread.onSpinWait();
+        }
+        return sequence;
+    }
+
+    // Номер следующего события; все события с меньшими номерами уже видны
+    public long head() {
+        return published.get();
+    }
+
+    // Самый старый номер, который ещё лежит в буфере
+    public long tail() {
+        return Math.max(0, head() - slots.length());
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    // null, если событие уже перезаписано
+    public T get(long sequence) {
+        var slot = slots.get((int) (sequence & mask));
+        return slot != null && slot.sequence() == sequence ? slot.event() : null;
+    }
+
+    private record Slot<T>(long sequence, T event) {}
+}
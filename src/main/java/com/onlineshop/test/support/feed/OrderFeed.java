@@ -0,0 +1,190 @@
+package com.onlineshop.test.support.feed;
+
+import com.onlineshop.test.configuration.OrderFeedProperties;
+import com.onlineshop.test.event.OrderChangedEvent;
+import com.onlineshop.test.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Живая лента изменений заказов для SSE. События после коммита попадают в EventRing, а каждому подписчику
+// их отправляет отдельная задача на виртуальном потоке: медленный клиент задерживает только себя.
+// Отставший больше чем на order-feed.buffer-size событий получает событие reset и продолжает с самого
+// старого события в буфере. ID события — "<запуск>-<номер>", поэтому Last-Event-ID от прошлого запуска
+// приложения распознаётся и тоже приводит к reset.
+@Slf4j
+@Component
+public class OrderFeed {
+
+    private static final String RESET = "reset";
+
+    private final OrderFeedProperties properties;
+    private final EventRing<OrderChangedEvent> ring;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final DistributionSummary lag;
+    private final Counter dropped;
+
+    public OrderFeed(OrderFeedProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.ring = new EventRing<>(properties.bufferSize());
+
+        Gauge.builder("orders.feed.subscribers", subscribers, Set::size).register(meterRegistry);
+        this.lag = DistributionSummary.builder("orders.feed.lag")
+                .description("Отставание подписчика от головы буфера в событиях")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.dropped = meterRegistry.counter("orders.feed.dropped");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        ring.publish(event);
+        subscribers.forEach(Subscriber::signal);
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= properties.maxSubscribers()) {
+            throw new BulkheadFullException("order-feed");
+        }
+
+        var emitter = new SseEmitter(properties.timeout().toMillis());
+        var subscriber = new Subscriber(emitter, resumeFrom(lastEventId));
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscriber.close());
+
+        subscribers.add(subscriber);
+        subscriber.signal();
+        return emitter;
+    }
+
+    // Комментарий раз в order-feed.heartbeat держит соединение через прокси и выявляет отключившихся
+    @Scheduled(fixedDelayString = "${order-feed.heartbeat:PT15S}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::requestHeartbeat);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    // Курсор, с которого продолжить; -1 — нужен reset (чужой запуск или неразборчивый ID)
+    private long resumeFrom(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return ring.head();
+        }
+
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(runId)) {
+            return -1;
+        }
+        try {
+            long next = Long.parseLong(lastEventId.substring(dash + 1)) + 1;
+            return next <= ring.head() ? next : -1;
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private volatile boolean closed;
+        // Читается и пишется только задачей drain, которая у подписчика всегда одна
+        private long cursor;
+        private boolean resetPending;
+
+        Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.resetPending = cursor < 0;
+            this.cursor = cursor < 0 ? ring.head() : cursor;
+        }
+
+        void signal() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        void requestHeartbeat() {
+            heartbeatDue = true;
+            signal();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    }
+
+                    // Неизвестный Last-Event-ID: reset уходит сразу после подписки, не дожидаясь нового события
+                    if (resetPending) {
+                        resetPending = false;
+                        emitter.send(SseEmitter.event().name(RESET).data(0));
+                    }
+
+                    long head = ring.head();
+                    lag.record(head - cursor);
+                    while (cursor < head && !closed) {
+                        send();
+                    }
+
+                    // Освобождаем подписчика; если за это время пришли события, пробуем забрать их сами
+                    scheduled.set(false);
+                    if (closed || (ring.head() <= cursor && !heartbeatDue) || !scheduled.compareAndSet(false, true)) {
+                        return;
+                    }
+                }
+            } catch (Exception ex) {
+                log.debug("Подписчик ленты заказов отключён: {}", ex.getMessage());
+                close();
+                emitter.completeWithError(ex);
+            }
+        }
+
+        private void send() throws Exception {
+            var event = cursor >= ring.tail() ? ring.get(cursor) : null;
+            if (event == null) {
+                // Подписчик отстал и часть событий перезаписана: клиенту стоит перечитать список заказов
+                long resumeAt = ring.tail();
+                dropped.increment(resumeAt - cursor);
+                emitter.send(SseEmitter.event().name(RESET).data(resumeAt - cursor));
+                cursor = resumeAt;
+                return;
+            }
+
+            emitter.send(SseEmitter.event()
+                    .id(runId + "-" + cursor)
+                    .name(event.type().name().toLowerCase())
+                    .data(event, MediaType.APPLICATION_JSON));
+            cursor++;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.onlineshop.test.support.jobs;
+
+import com.onlineshop.test.configuration.JobsProperties;
+import com.onlineshop.test.repository.JobRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+// Удаление выполненных и окончательно упавших задач старше jobs.retention; запускается по расписанию
+@Component
+public class FinishedJobsCleanup implements JobHandler {
+
+    public static final String TYPE = "jobs.cleanup";
+
+    private final JobRepository jobRepository;
+    private final JobsProperties properties;
+
+    public FinishedJobsCleanup(JobRepository jobRepository, JobsProperties properties) {
+        this.jobRepository = jobRepository;
+        this.properties = properties;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public void handle(String payload) {
+        jobRepository.deleteFinishedBefore(LocalDateTime.now().minus(properties.retention()));
+    }
+}
@@ -0,0 +1,10 @@
+package com.onlineshop.test.support.jobs;
+
+// Обработчик задач одного типа. Задача может выполниться повторно (узел упал после работы,
+// но до отметки о завершении), поэтому обработчик должен быть идемпотентным
+public interface JobHandler {
+
+    String type();
+
+    void handle(String payload) throws Exception;
+}
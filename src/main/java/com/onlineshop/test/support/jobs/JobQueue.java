@@ -0,0 +1,35 @@
+package com.onlineshop.test.support.jobs;
+
+import com.onlineshop.test.configuration.JobsProperties;
+import com.onlineshop.test.entity.Job;
+import com.onlineshop.test.entity.JobStatus;
+import com.onlineshop.test.repository.JobRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// Постановка задач в очередь. Внутри транзакции вызывающего задача появится только вместе с её коммитом
+@Component
+public class JobQueue {
+
+    private final JobRepository jobRepository;
+    private final JobsProperties properties;
+
+    public JobQueue(JobRepository jobRepository, JobsProperties properties) {
+        this.jobRepository = jobRepository;
+        this.properties = properties;
+    }
+
+    @Transactional
+    public Long enqueue(String type, String payload) {
+        return enqueue(type, payload, LocalDateTime.now());
+    }
+
+    @Transactional
+    public Long enqueue(String type, String payload, LocalDateTime runAt) {
+        var job = new Job(null, type, payload, JobStatus.PENDING, runAt, 0, properties.maxAttempts(),
+                null, null, null, LocalDateTime.now(), null);
+        return jobRepository.save(job).getId();
+    }
+}
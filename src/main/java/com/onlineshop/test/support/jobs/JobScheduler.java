@@ -0,0 +1,67 @@
+package com.onlineshop.test.support.jobs;
+
+import com.onlineshop.test.configuration.JobsProperties;
+import com.onlineshop.test.repository.JobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Повторяющиеся задачи из jobs.schedules. Каждый такт один узел (под advisory-блокировкой) сдвигает
+// наступившие расписания на следующий срок cron и ставит по задаче в общую очередь — выполнит её
+// любой свободный узел. Пропущенные, пока узлы лежали, запуски не догоняются: следующий срок считается от now.
+@Slf4j
+@Component
+public class JobScheduler {
+
+    private final JobRepository jobRepository;
+    private final JobQueue jobQueue;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, CronExpression> schedules = new LinkedHashMap<>();
+
+    public JobScheduler(JobsProperties properties,
+                        JobRepository jobRepository,
+                        JobQueue jobQueue,
+                        JobWorker jobWorker,
+                        PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.jobQueue = jobQueue;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        properties.schedules().forEach((type, cron) -> {
+            if (!jobWorker.hasHandler(type)) {
+                throw new IllegalStateException("Для расписания " + type + " нет обработчика задач");
+            }
+            schedules.put(type, CronExpression.parse(cron));
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.schedule-interval:PT5S}")
+    public void enqueueDue() {
+        if (schedules.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!jobRepository.tryLockScheduler()) {
+                return;
+            }
+
+            var now = LocalDateTime.now();
+            schedules.forEach((type, cron) -> {
+                var next = cron.next(now);
+                jobRepository.registerSchedule(type, next);
+                if (jobRepository.advanceSchedule(type, now, next) > 0) {
+                    jobQueue.enqueue(type, null, now);
+                    log.debug("Поставлена задача по расписанию {}, следующий запуск {}", type, next);
+                }
+            });
+        });
+    }
+}
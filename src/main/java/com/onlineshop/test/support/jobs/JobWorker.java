@@ -0,0 +1,185 @@
+package com.onlineshop.test.support.jobs;
+
+import com.onlineshop.test.configuration.JobsProperties;
+import com.onlineshop.test.entity.Job;
+import com.onlineshop.test.entity.JobStatus;
+import com.onlineshop.test.repository.JobRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Исполнитель задач на этом узле. Опрос забирает не больше задач, чем свободных слотов (jobs.concurrency),
+// помечает их RUNNING с арендой jobs.lease и отдаёт в пул. Пока задача выполняется, аренда продлевается;
+// если узел пропал, задачу вернёт в очередь reapExpired на любом другом узле.
+@Slf4j
+@Component
+public class JobWorker {
+
+    // Потолок паузы между повторами упавшей задачи
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final JobsProperties properties;
+    private final JobRepository jobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, JobHandler> handlers;
+    private final String workerId;
+    private final Semaphore slots;
+    private final ExecutorService executor;
+    private final Map<Long, Job> running = new ConcurrentHashMap<>();
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+
+    public JobWorker(JobsProperties properties,
+                     JobRepository jobRepository,
+                     List<JobHandler> handlers,
+                     PlatformTransactionManager transactionManager,
+                     MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jobRepository = jobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.handlers = handlers.stream().collect(Collectors.toMap(JobHandler::type, Function.identity()));
+        this.workerId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+        this.slots = new Semaphore(properties.concurrency());
+        this.executor = properties.virtualThreads()
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(properties.concurrency());
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("jobs.queue.depth", queueDepth, AtomicLong::get)
+                .description("Готовые к выполнению задачи в очереди")
+                .register(meterRegistry);
+        Gauge.builder("jobs.running", running, Map::size).register(meterRegistry);
+    }
+
+    public boolean hasHandler(String type) {
+        return handlers.containsKey(type);
+    }
+
+    // Пока опрос забирает полные пакеты и есть свободные слоты, следующий пакет берётся сразу
+    @Scheduled(fixedDelayString = "${jobs.poll-interval:PT1S}")
+    public void poll() {
+        if (!properties.enabled()) {
+            return;
+        }
+
+        int free;
+        List<Job> claimed;
+        do {
+            free = slots.availablePermits();
+            if (free == 0) {
+                return;
+            }
+            claimed = claim(free);
+            claimed.forEach(this::submit);
+        } while (claimed.size() == free);
+    }
+
+    // Продление аренды выполняющихся задач
+    @Scheduled(fixedDelayString = "${jobs.heartbeat-interval:PT10S}")
+    public void heartbeat() {
+        if (!running.isEmpty()) {
+            jobRepository.extendLease(running.keySet(), workerId, LocalDateTime.now().plus(properties.lease()));
+        }
+    }
+
+    // Возврат задач с истёкшей арендой и замер глубины очереди; безопасно на всех узлах сразу
+    @Scheduled(fixedDelayString = "${jobs.reap-interval:PT30S}")
+    public void reap() {
+        var now = LocalDateTime.now();
+        int reaped = jobRepository.reapExpired(now);
+        if (reaped > 0) {
+            log.warn("Возвращено в очередь {} задач с истёкшей арендой", reaped);
+        }
+        queueDepth.set(jobRepository.countDue(now));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        int released = jobRepository.releaseAll(workerId);
+        if (released > 0) {
+            log.info("При остановке возвращено в очередь {} задач", released);
+        }
+    }
+
+    private List<Job> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            var now = LocalDateTime.now();
+            var jobs = jobRepository.lockDue(now, limit);
+            for (var job : jobs) {
+                job.setStatus(JobStatus.RUNNING);
+                job.setLockedBy(workerId);
+                job.setLeaseUntil(now.plus(properties.lease()));
+                job.setAttempts(job.getAttempts() + 1);
+                meterRegistry.timer("jobs.latency", "type", job.getType())
+                        .record(Duration.between(job.getRunAt(), now));
+            }
+            return jobs;
+        });
+    }
+
+    private void submit(Job job) {
+        slots.acquireUninterruptibly();
+        running.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RuntimeException ex) {
+            // Пул уже остановлен: задача вернётся в очередь в releaseAll или по истечении аренды
+            running.remove(job.getId());
+            slots.release();
+        }
+    }
+
+    private void run(Job job) {
+        var sample = Timer.start(meterRegistry);
+        var outcome = "done";
+        try {
+            var handler = handlers.get(job.getType());
+            if (handler == null) {
+                throw new IllegalStateException("Нет обработчика задач типа " + job.getType());
+            }
+            handler.handle(job.getPayload());
+            jobRepository.complete(job.getId(), workerId, LocalDateTime.now());
+        } catch (Exception ex) {
+            outcome = job.getAttempts() >= job.getMaxAttempts() ? "failed" : "retry";
+            log.warn("Задача {} ({}) упала, попытка {} из {}: {}",
+                    job.getId(), job.getType(), job.getAttempts(), job.getMaxAttempts(), ex.getMessage());
+            var now = LocalDateTime.now();
+            jobRepository.fail(job.getId(), workerId, String.valueOf(ex.getMessage()), now.plus(backoff(job.getAttempts())), now);
+        } finally {
+            sample.stop(meterRegistry.timer("jobs.duration", "type", job.getType(), "outcome", outcome));
+            running.remove(job.getId());
+            slots.release();
+        }
+    }
+
+    // retry-backoff * 2^(попытка - 1), не больше часа
+    private Duration backoff(int attempt) {
+        var backoff = properties.retryBackoff().multipliedBy(1L << Math.min(attempt - 1, 20));
+        return backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff;
+    }
+}
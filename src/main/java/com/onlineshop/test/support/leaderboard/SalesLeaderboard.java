@@ -0,0 +1,174 @@
+package com.onlineshop.test.support.leaderboard;
+
+import com.onlineshop.test.configuration.LeaderboardProperties;
+import com.onlineshop.test.dto.response.LeaderboardEntryResponse;
+import com.onlineshop.test.event.OrderChangedEvent;
+import com.onlineshop.test.event.TransactionSnapshot;
+import com.onlineshop.test.repository.EmployeeRepository;
+import com.onlineshop.test.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Рейтинг продаж сотрудников в памяти: чтение не обращается к Postgres. Счётчики обновляются
+// событиями заказов после коммита, а при старте и затем раз в leaderboard.reconcile-interval
+// пересобираются из orders, чтобы исправить расхождения (рестарт, изменения в обход сервиса).
+// Пересборка читает orders в REPEATABLE READ и запоминает снимок транзакции. Событие заказа, чья
+// транзакция видна снимку, уже учтено в пересобранных счётчиках и пропускается — и пришедшее во время
+// пересборки, и запоздавшее после подмены; остальные события применяются к новым счётчикам.
+@Slf4j
+@Component
+public class SalesLeaderboard {
+
+    private final OrderRepository orderRepository;
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate snapshotTemplate;
+    private final int minutes;
+    // Подмена счётчиков и применение событий не пересекаются
+    private final Object lock = new Object();
+
+    private volatile ConcurrentHashMap<Long, SalesWindow> windows = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<Long, String> names = new ConcurrentHashMap<>();
+    // Снимок, по которому собраны текущие счётчики; null — счётчики ещё не пересобирались
+    private TransactionSnapshot snapshot;
+    // События, пришедшие во время пересборки: после подмены применяются те, что не видны её снимку
+    private List<OrderChangedEvent> replay;
+
+    public SalesLeaderboard(LeaderboardProperties properties, OrderRepository orderRepository,
+                            EmployeeRepository employeeRepository, PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.employeeRepository = employeeRepository;
+        this.minutes = (int) properties.retention().toMinutes();
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        synchronized (lock) {
+            if (replay != null) {
+                replay.add(event);
+            }
+            if (!counted(snapshot, event)) {
+                apply(windows, event);
+            }
+        }
+    }
+
+    public void putEmployeeName(Long employeeId, String name) {
+        names.put(employeeId, name);
+    }
+
+    // Лучшие сотрудники по сумме продаж за окно
+    public List<LeaderboardEntryResponse> top(Duration window, int limit) {
+        long now = currentMinute();
+        int span = (int) Math.min(window.toMinutes(), minutes);
+        var currentNames = names;
+
+        var entries = new ArrayList<LeaderboardEntryResponse>();
+        windows.forEach((employeeId, sales) -> {
+            var totals = sales.sum(now, span);
+            if (totals.orders() > 0) {
+                entries.add(new LeaderboardEntryResponse(
+                        employeeId, currentNames.get(employeeId), totals.amount(), totals.orders()));
+            }
+        });
+
+        return entries.stream()
+                .sorted(Comparator.comparing(LeaderboardEntryResponse::amount).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    // Первый запуск — сразу после старта приложения
+    @Scheduled(fixedDelayString = "${leaderboard.reconcile-interval:PT5M}")
+    public void reconcile() {
+        synchronized (lock) {
+            replay = new ArrayList<>();
+        }
+        try {
+            var rebuilt = new ConcurrentHashMap<Long, SalesWindow>();
+            var since = LocalDateTime.ofEpochSecond((currentMinute() - minutes + 1) * 60, 0, ZoneOffset.UTC);
+            var rebuiltSnapshot = snapshotTemplate.execute(status -> {
+                // Первый запрос транзакции фиксирует снимок, агрегат читается по нему же
+                var taken = TransactionSnapshot.parse(orderRepository.currentSnapshot());
+                for (var row : orderRepository.sumSalesByEmployeeMinute(since)) {
+                    add(rebuilt, row.getEmployeeId(), row.getMinute(), row.getAmount(), row.getOrders());
+                }
+                return taken;
+            });
+
+            var rebuiltNames = new ConcurrentHashMap<Long, String>();
+            for (var employee : employeeRepository.findAllNames()) {
+                if (employee.getName() != null) {
+                    rebuiltNames.put(employee.getId(), employee.getName());
+                }
+            }
+
+            synchronized (lock) {
+                for (var event : replay) {
+                    if (!counted(rebuiltSnapshot, event)) {
+                        apply(rebuilt, event);
+                    }
+                }
+                windows = rebuilt;
+                names = rebuiltNames;
+                snapshot = rebuiltSnapshot;
+                replay = null;
+            }
+        } catch (RuntimeException ex) {
+            synchronized (lock) {
+                replay = null;
+            }
+            log.warn("Не удалось пересобрать рейтинг продаж: {}", ex.getMessage());
+        }
+    }
+
+    private static boolean counted(TransactionSnapshot snapshot, OrderChangedEvent event) {
+        return snapshot != null && event.transactionId() != null && snapshot.sees(event.transactionId());
+    }
+
+    private void apply(ConcurrentHashMap<Long, SalesWindow> target, OrderChangedEvent event) {
+        if (event.employeeId() == null || event.createdAt() == null) {
+            return;
+        }
+
+        long minute = toMinute(event.createdAt());
+        long amount = event.amount() != null ? event.amount() : 0;
+        long previousAmount = event.previousAmount() != null ? event.previousAmount() : 0;
+
+        switch (event.type()) {
+            case CREATED -> add(target, event.employeeId(), minute, amount, 1);
+            case UPDATED -> add(target, event.employeeId(), minute, amount - previousAmount, 0);
+            case DELETED -> add(target, event.employeeId(), minute, -amount, -1);
+        }
+    }
+
+    private void add(ConcurrentHashMap<Long, SalesWindow> target, Long employeeId, long minute, long amount, long orders) {
+        if (minute <= currentMinute() - minutes) {
+            return;
+        }
+        target.computeIfAbsent(employeeId, id -> new SalesWindow(minutes)).add(minute, amount, orders);
+    }
+
+    private static long currentMinute() {
+        return toMinute(LocalDateTime.now());
+    }
+
+    private static long toMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+}
@@ -0,0 +1,71 @@
+package com.onlineshop.test.support.leaderboard;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Кольцевой буфер минутных корзин продаж одного сотрудника. Корзина минуты m лежит в ячейке m % size;
+// устаревшая корзина заменяется новой через CAS, а суммы копятся в LongAdder, так что запись без блокировок.
+final class SalesWindow {
+
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    SalesWindow(int minutes) {
+        this.buckets = new AtomicReferenceArray<>(minutes);
+    }
+
+    void add(long minute, long amount, long orders) {
+        int index = (int) Math.floorMod(minute, (long) buckets.length());
+
+        while (true) {
+            var bucket = buckets.get(index);
+            if (bucket != null && bucket.minute == minute) {
+                bucket.add(amount, orders);
+                return;
+            }
+            if (bucket != null && bucket.minute > minute) {
+                // Минута старше хранимого окна
+                return;
+            }
+
+            var fresh = new Bucket(minute);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                fresh.add(amount, orders);
+                return;
+            }
+        }
+    }
+
+    // Сумма по минутам (toMinute - minutes, toMinute]
+    Totals sum(long toMinute, int minutes) {
+        long amount = 0;
+        long orders = 0;
+        int span = Math.min(minutes, buckets.length());
+
+        for (long minute = toMinute - span + 1; minute <= toMinute; minute++) {
+            var bucket = buckets.get((int) Math.floorMod(minute, (long) buckets.length()));
+            if (bucket != null && bucket.minute == minute) {
+                amount += bucket.amount.sum();
+                orders += bucket.orders.sum();
+            }
+        }
+        return new Totals(amount, orders);
+    }
+
+    record Totals(long amount, long orders) {}
+
+    private static final class Bucket {
+
+        final long minute;
+        final LongAdder amount = new LongAdder();
+        final LongAdder orders = new LongAdder();
+
+        Bucket(long minute) {
+            this.minute = minute;
+        }
+
+        void add(long amount, long orders) {
+            this.amount.add(amount);
+            this.orders.add(orders);
+        }
+    }
+}
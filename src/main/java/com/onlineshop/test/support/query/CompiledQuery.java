@@ -0,0 +1,6 @@
+package com.onlineshop.test.support.query;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+public record CompiledQuery<T>(Specification<T> specification, Sort sort, int limit) {}
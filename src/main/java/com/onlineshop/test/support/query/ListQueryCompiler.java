@@ -0,0 +1,107 @@
+package com.onlineshop.test.support.query;
+
+import com.onlineshop.test.configuration.QueryProperties;
+import com.onlineshop.test.dto.request.ListQuery;
+import com.onlineshop.test.exception.InvalidQueryException;
+import com.onlineshop.test.repository.specification.QueryField;
+import com.onlineshop.test.repository.specification.QueryOperator;
+import com.onlineshop.test.repository.specification.QuerySchema;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+// Превращает параметры списка в Specification + Sort по белому списку полей сущности.
+// На больших таблицах пропускает только запросы, которые может обслужить индекс:
+// индексное условие либо сортировка по индексу (ORDER BY ... LIMIT читает начало индекса).
+@Component
+@AllArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ListQueryCompiler {
+
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    QueryProperties properties;
+    TableStatistics tableStatistics;
+
+    public <T> CompiledQuery<T> compile(QuerySchema<T> schema, ListQuery query) {
+        var specifications = new ArrayList<Specification<T>>();
+        boolean indexed = false;
+
+        for (var criterion : query.criteria()) {
+            var field = field(schema, criterion.field());
+            var operator = operator(field, criterion.operator());
+            specifications.add(schema.predicate(field, operator, value(field, criterion.value())));
+            indexed |= field.filterIndexed();
+        }
+
+        var orders = new ArrayList<Sort.Order>();
+        for (var order : query.sort()) {
+            var field = field(schema, order.field());
+            if (!field.sortable()) {
+                throw new InvalidQueryException("Сортировка по полю " + field.name() + " недоступна");
+            }
+            orders.add(order.descending() ? Sort.Order.desc(field.path()) : Sort.Order.asc(field.path()));
+        }
+
+        if (!query.sort().isEmpty()) {
+            indexed |= field(schema, query.sort().get(0).field()).sortIndexed();
+        }
+
+        if (!indexed && tableStatistics.isLarge(schema.table())) {
+            throw new InvalidQueryException("Таблица " + schema.table() + " большая: нужен фильтр или сортировка "
+                    + "по индексированному полю (" + schema.fieldNames() + ")");
+        }
+
+        return new CompiledQuery<>(Specification.allOf(specifications), Sort.by(orders), limit(query.limit()));
+    }
+
+    private static QueryField field(QuerySchema<?> schema, String name) {
+        return schema
+                .field(name)
+                .orElseThrow(() -> new InvalidQueryException(
+                        "Поле " + name + " недоступно; разрешены: " + schema.fieldNames()));
+    }
+
+    private static QueryOperator operator(QueryField field, String name) {
+        try {
+            var operator = QueryOperator.valueOf(name.toUpperCase(Locale.ROOT));
+            if (field.operators().contains(operator)) {
+                return operator;
+            }
+        } catch (IllegalArgumentException ignored) {
+            // Сообщение ниже
+        }
+        throw new InvalidQueryException("Оператор " + name + " недоступен для поля " + field.name()
+                + "; разрешены: " + field.operators());
+    }
+
+    private static Object value(QueryField field, String value) {
+        if (value.length() > MAX_VALUE_LENGTH) {
+            throw new InvalidQueryException("Слишком длинное значение фильтра " + field.name());
+        }
+        if (field.type() == Long.class) {
+            try {
+                return Long.valueOf(value);
+            } catch (NumberFormatException ex) {
+                throw new InvalidQueryException("Поле " + field.name() + " ожидает число: " + value);
+            }
+        }
+        return value;
+    }
+
+    private int limit(Integer limit) {
+        if (limit == null) {
+            return properties.defaultLimit();
+        }
+        if (limit <= 0 || limit > properties.maxLimit()) {
+            throw new InvalidQueryException("limit должен быть от 1 до " + properties.maxLimit());
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,53 @@
+package com.onlineshop.test.support.query;
+
+import com.onlineshop.test.configuration.QueryProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// Оценка числа строк таблицы из статистики планировщика (pg_class.reltuples) без COUNT(*).
+// Значение кэшируется на query.statistics-ttl.
+@Component
+public class TableStatistics {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final QueryProperties properties;
+    private final String schema;
+    private final ConcurrentHashMap<String, Estimate> estimates = new ConcurrentHashMap<>();
+
+    public TableStatistics(JdbcTemplate jdbcTemplate, QueryProperties properties,
+                           @Value("${spring.jpa.properties.hibernate.default_schema:public}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.schema = schema;
+    }
+
+    public boolean isLarge(String table) {
+        return estimatedRows(table) >= properties.largeTableRows();
+    }
+
+    public long estimatedRows(String table) {
+        long now = System.nanoTime();
+        var estimate = estimates.get(table);
+        if (estimate == null || now - estimate.loadedAt() > properties.statisticsTtl().toNanos()) {
+            estimate = new Estimate(load(table), now);
+            estimates.put(table, estimate);
+        }
+        return estimate.rows();
+    }
+
+    // reltuples = -1, пока таблицу ни разу не анализировали: считаем её маленькой
+    private long load(String table) {
+        return jdbcTemplate
+                .queryForList("SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = to_regclass(?)",
+                        Long.class, schema + "." + table)
+                .stream()
+                .findFirst()
+                .map(rows -> Math.max(rows, 0))
+                .orElse(0L);
+    }
+
+    private record Estimate(long rows, long loadedAt) {}
+}
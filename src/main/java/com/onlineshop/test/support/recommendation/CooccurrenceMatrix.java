@@ -0,0 +1,142 @@
+package com.onlineshop.test.support.recommendation;
+
+import com.onlineshop.test.support.collection.LongIntMap;
+import com.onlineshop.test.support.collection.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Разреженная симметричная матрица совместных покупок: для товара A строка LongIntMap хранит,
+// в скольких заказах вместе с A был куплен каждый товар B. Пара хранится в обеих строках,
+// поэтому чтение соседей — обход одной строки. Запись и чтение разделены ReadWriteLock:
+// заказы приходят редко, а рекомендации читаются на каждой странице товара.
+public class CooccurrenceMatrix {
+
+    private final LongObjectMap<LongIntMap> rows = new LongObjectMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // delta = 1 учитывает заказ, -1 — его удаление; products — различные ID товаров одного заказа
+    public void add(long[] products, int count, int delta) {
+        if (count < 2) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                var row = rows.computeIfAbsent(products[i], key -> new LongIntMap());
+                for (int j = 0; j < count; j++) {
+                    if (i != j) {
+                        row.addTo(products[j], delta);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Переносит счётчики other в эту матрицу. Строки, которых здесь нет, забираются без копирования,
+    // поэтому other после слияния использовать нельзя
+    public void merge(CooccurrenceMatrix other) {
+        lock.writeLock().lock();
+        try {
+            other.rows.forEach((product, otherRow) -> {
+                var row = rows.get(product);
+                if (row == null) {
+                    rows.put(product, otherRow);
+                } else {
+                    otherRow.forEach(row::addTo);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // n товаров, чаще всего покупаемых вместе с product: по числу заказов, при равенстве — по ID
+    public List<Related> top(long product, int n) {
+        lock.readLock().lock();
+        try {
+            var row = rows.get(product);
+            if (row == null || n <= 0) {
+                return List.of();
+            }
+
+            var top = new TopN(Math.min(n, row.size()));
+            row.forEach(top);
+            return top.toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int products() {
+        lock.readLock().lock();
+        try {
+            return rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long[] bytes = {rows.estimatedBytes()};
+            rows.forEach((product, row) -> bytes[0] += row.estimatedBytes());
+            return bytes[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public record Related(long productId, int orders) {}
+
+    // Отсортированный по убыванию массив из n лучших; строка обходится один раз без упаковки в объекты
+    private static final class TopN implements LongIntMap.EntryConsumer {
+
+        private final long[] ids;
+        private final int[] counts;
+        private int size;
+
+        TopN(int n) {
+            this.ids = new long[n];
+            this.counts = new int[n];
+        }
+
+        @Override
+        public void accept(long id, int count) {
+            // До первой пересборки матрица пуста: удаление заказа, созданного раньше, временно уводит счётчик в минус
+            if (count <= 0 || ids.length == 0) {
+                return;
+            }
+            if (size == ids.length && !before(count, id, counts[size - 1], ids[size - 1])) {
+                return;
+            }
+
+            int position = size < ids.length ? size++ : size - 1;
+            while (position > 0 && before(count, id, counts[position - 1], ids[position - 1])) {
+                ids[position] = ids[position - 1];
+                counts[position] = counts[position - 1];
+                position--;
+            }
+            ids[position] = id;
+            counts[position] = count;
+        }
+
+        List<Related> toList() {
+            var result = new ArrayList<Related>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(new Related(ids[i], counts[i]));
+            }
+            return result;
+        }
+
+        private static boolean before(int count, long id, int otherCount, long otherId) {
+            return count > otherCount || (count == otherCount && id < otherId);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.onlineshop.test.support.recommendation;
+
+// Товар в заказе: строка скана order_items при пересборке матрицы совместных покупок
+public record OrderProduct(Long orderId, Long productId) {}
@@ -0,0 +1,227 @@
+package com.onlineshop.test.support.recommendation;
+
+import com.onlineshop.test.configuration.RecommendationProperties;
+import com.onlineshop.test.dto.response.RelatedProductResponse;
+import com.onlineshop.test.event.OrderChangedEvent;
+import com.onlineshop.test.event.TransactionSnapshot;
+import com.onlineshop.test.repository.OrderItemRepository;
+import com.onlineshop.test.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Pattern;
+
+// «Часто покупают вместе»: матрица совместных покупок в памяти, чтение не обращается к Postgres.
+// При старте и затем раз в recommendations.rebuild-interval матрица собирается заново параллельным
+// сканом order_items: диапазон ID заказов делится пополам в ForkJoinPool, пока не станет меньше
+// build-chunk-size, частичные матрицы сливаются при join. Между пересборками созданные и удалённые
+// заказы учитываются событиями после коммита. Архивированные заказы выпадают из матрицы при пересборке,
+// так что рекомендации отражают покупки за время хранения заказов в БД.
+// Все куски сканируются по одному снимку: пересборка открывает транзакцию REPEATABLE READ и экспортирует
+// её снимок (pg_export_snapshot), а каждый кусок читается в своей транзакции с SET TRANSACTION SNAPSHOT.
+// Событие, чья транзакция видна этому снимку, уже учтено сканом и пропускается — как в SalesLeaderboard.
+@Slf4j
+@Component
+public class ProductRecommendations {
+
+    // Идентификатор экспортированного снимка, например 00000003-0000001B-1
+    private static final Pattern SNAPSHOT_ID = Pattern.compile("[0-9A-Fa-f-]+");
+
+    private final RecommendationProperties properties;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    // Транзакции кусков: invoke может выполнить задачу в вызывающем потоке, где уже открыта транзакция пересборки
+    private final TransactionTemplate scanTemplate;
+    // Подмена матрицы и применение событий не пересекаются
+    private final Object lock = new Object();
+
+    private volatile CooccurrenceMatrix matrix = new CooccurrenceMatrix();
+    // Снимок, по которому собрана текущая матрица; null — матрица ещё не пересобиралась
+    private TransactionSnapshot snapshot;
+    // События, пришедшие во время пересборки: после подмены применяются те, что не видны её снимку
+    private List<OrderChangedEvent> replay;
+
+    public ProductRecommendations(RecommendationProperties properties, OrderRepository orderRepository,
+                                  OrderItemRepository orderItemRepository, JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+        this.scanTemplate = new TransactionTemplate(transactionManager, snapshotTemplate);
+        this.scanTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("recommendations.products", this, recommendations -> recommendations.matrix.products())
+                .register(meterRegistry);
+        Gauge.builder("recommendations.memory", this, recommendations -> recommendations.matrix.estimatedBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        synchronized (lock) {
+            if (replay != null) {
+                replay.add(event);
+            }
+            if (!counted(snapshot, event)) {
+                apply(matrix, event);
+            }
+        }
+    }
+
+    // Неизвестный товар и товар без совместных покупок дают пустой список
+    public List<RelatedProductResponse> related(long productId, int n) {
+        return matrix.top(productId, n).stream()
+                .map(related -> new RelatedProductResponse(related.productId(), related.orders()))
+                .toList();
+    }
+
+    // Первый запуск — сразу после старта приложения
+    @Scheduled(fixedDelayString = "${recommendations.rebuild-interval:PT6H}")
+    public void rebuild() {
+        synchronized (lock) {
+            replay = new ArrayList<>();
+        }
+        try {
+            long started = System.nanoTime();
+            var rebuilt = snapshotTemplate.execute(status -> {
+                // Первый запрос транзакции фиксирует снимок; экспортированный снимок — он же
+                var taken = TransactionSnapshot.parse(orderRepository.currentSnapshot());
+                var exported = orderRepository.exportSnapshot();
+                long maxId = orderRepository.findMaxId();
+
+                // Экспортированный снимок доступен, пока открыта эта транзакция: куски читаются внутри неё
+                try (var pool = new ForkJoinPool(properties.buildParallelism())) {
+                    return new Rebuilt(pool.invoke(new ScanTask(exported, 1, maxId)), taken);
+                }
+            });
+
+            synchronized (lock) {
+                for (var event : replay) {
+                    if (!counted(rebuilt.snapshot(), event)) {
+                        apply(rebuilt.matrix(), event);
+                    }
+                }
+                matrix = rebuilt.matrix();
+                snapshot = rebuilt.snapshot();
+                replay = null;
+            }
+            log.info("Матрица совместных покупок пересобрана: {} товаров за {} мс",
+                    rebuilt.matrix().products(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException ex) {
+            synchronized (lock) {
+                replay = null;
+            }
+            log.warn("Не удалось пересобрать матрицу совместных покупок: {}", ex.getMessage());
+        }
+    }
+
+    private static boolean counted(TransactionSnapshot snapshot, OrderChangedEvent event) {
+        return snapshot != null && event.transactionId() != null && snapshot.sees(event.transactionId());
+    }
+
+    private static void apply(CooccurrenceMatrix target, OrderChangedEvent event) {
+        var productIds = event.productIds();
+        if (productIds == null || productIds.size() < 2) {
+            return;
+        }
+
+        var products = productIds.stream().mapToLong(Long::longValue).toArray();
+        switch (event.type()) {
+            case CREATED -> target.add(products, products.length, 1);
+            case DELETED -> target.add(products, products.length, -1);
+            case UPDATED -> {
+                // Изменение суммы не меняет состав заказа
+            }
+        }
+    }
+
+    // Частичная матрица по заказам с ID из [fromId, toId] в отдельной транзакции по снимку пересборки
+    private CooccurrenceMatrix scan(String exported, long fromId, long toId) {
+        if (!SNAPSHOT_ID.matcher(exported).matches()) {
+            throw new IllegalStateException("Неверный идентификатор снимка: " + exported);
+        }
+        return scanTemplate.execute(status -> {
+            // SET TRANSACTION SNAPSHOT должен быть первым запросом транзакции
+            jdbcTemplate.execute("SET TRANSACTION SNAPSHOT '" + exported + "'");
+            return scan(fromId, toId);
+        });
+    }
+
+    private CooccurrenceMatrix scan(long fromId, long toId) {
+        var result = new CooccurrenceMatrix();
+        var products = new long[16];
+        int count = 0;
+        long currentOrder = 0;
+
+        // Строки упорядочены по заказу: товары накапливаются, пока не сменится ID заказа
+        for (var row : orderItemRepository.findOrderProducts(fromId, toId)) {
+            if (row.orderId() != currentOrder) {
+                result.add(products, count, 1);
+                currentOrder = row.orderId();
+                count = 0;
+            }
+            if (count == products.length) {
+                products = Arrays.copyOf(products, count * 2);
+            }
+            products[count++] = row.productId();
+        }
+        result.add(products, count, 1);
+        return result;
+    }
+
+    private record Rebuilt(CooccurrenceMatrix matrix, TransactionSnapshot snapshot) {}
+
+    private final class ScanTask extends RecursiveTask<CooccurrenceMatrix> {
+
+        private final String exported;
+        private final long fromId;
+        private final long toId;
+
+        ScanTask(String exported, long fromId, long toId) {
+            this.exported = exported;
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        protected CooccurrenceMatrix compute() {
+            if (toId - fromId < properties.buildChunkSize()) {
+                return scan(exported, fromId, toId);
+            }
+
+            long middle = fromId + (toId - fromId) / 2;
+            var left = new ScanTask(exported, fromId, middle);
+            left.fork();
+            var right = new ScanTask(exported, middle + 1, toId).compute();
+            var leftResult = left.join();
+
+            // Меньшая матрица вливается в большую: меньше строк копируется
+            if (leftResult.products() >= right.products()) {
+                leftResult.merge(right);
+                return leftResult;
+            }
+            right.merge(leftResult);
+            return right;
+        }
+    }
+}
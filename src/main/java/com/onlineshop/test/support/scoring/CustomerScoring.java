@@ -0,0 +1,121 @@
+package com.onlineshop.test.support.scoring;
+
+import com.onlineshop.test.configuration.CustomerScoreProperties;
+import com.onlineshop.test.repository.CustomerRepository;
+import com.onlineshop.test.repository.CustomerScoreRepository;
+import com.onlineshop.test.support.jobs.JobHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Задача пересчёта RFM-оценок клиентов. Пересчитываются только клиенты из очереди customer_rfm_pending,
+// которую пополняет триггер на orders. ID клиентов делятся на customer-score.ranges диапазонов,
+// каждый проходится курсором по ID кусками по chunk-size клиентов, по одной транзакции на кусок.
+// Прерванный запуск ничего не теряет: необработанные клиенты остаются в очереди до повтора задачи.
+// После агрегатов квинтили пересчитываются по всем клиентам одним UPDATE.
+// Пересчёт на всех узлах один: запуск, затянувшийся дольше интервала расписания, не пересекается
+// со следующим, иначе устаревший снимок мог бы перезаписать более свежие агрегаты
+@Slf4j
+@Component
+public class CustomerScoring implements JobHandler {
+
+    public static final String TYPE = "customers.rfm";
+
+    private final CustomerScoreProperties properties;
+    private final CustomerRepository customerRepository;
+    private final CustomerScoreRepository customerScoreRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSourceProperties dataSourceProperties;
+
+    public CustomerScoring(CustomerScoreProperties properties,
+                           CustomerRepository customerRepository,
+                           CustomerScoreRepository customerScoreRepository,
+                           PlatformTransactionManager transactionManager,
+                           DataSourceProperties dataSourceProperties) {
+        this.properties = properties;
+        this.dataSourceProperties = dataSourceProperties;
+        this.customerRepository = customerRepository;
+        this.customerScoreRepository = customerScoreRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    // Сессионная advisory-блокировка держится отдельным соединением в обход пула: соединение из пула
+    // на всё время запуска отнимало бы место у запросов и попадало бы под leak-detection-threshold.
+    // Закрытие соединения снимает блокировку и при ошибке запуска
+    @Override
+    public void handle(String payload) {
+        try (var lock = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+             var statement = lock.prepareStatement("SELECT pg_try_advisory_lock(hashtext('customer_rfm'))");
+             var result = statement.executeQuery()) {
+            if (!result.next() || !result.getBoolean(1)) {
+                log.info("Пересчёт RFM-оценок уже выполняется на другом узле");
+                return;
+            }
+            refresh();
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Не удалось взять блокировку пересчёта RFM-оценок: " + ex.getMessage(), ex);
+        }
+    }
+
+    private void refresh() {
+        long started = System.nanoTime();
+        long maxId = customerRepository.findMaxId();
+        long rangeSize = Math.max(1, (maxId + properties.ranges() - 1) / properties.ranges());
+
+        try (var executor = Executors.newFixedThreadPool(properties.parallelism())) {
+            var ranges = new ArrayList<Future<Integer>>();
+            for (long from = 1; from <= maxId; from += rangeSize) {
+                long fromId = from;
+                long toId = Math.min(from + rangeSize - 1, maxId);
+                ranges.add(executor.submit(() -> refreshRange(fromId, toId)));
+            }
+
+            int chunks = 0;
+            for (var range : ranges) {
+                chunks += range.get();
+            }
+
+            if (chunks > 0) {
+                int rescored = transactionTemplate.execute(status -> customerScoreRepository.rescore());
+                log.info("RFM-оценки пересчитаны: {} кусков, изменилось оценок {}, за {} мс",
+                        chunks, rescored, (System.nanoTime() - started) / 1_000_000);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Пересчёт RFM-оценок прерван", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Пересчёт RFM-оценок не удался: " + ex.getCause().getMessage(), ex.getCause());
+        }
+    }
+
+    // Число обработанных кусков диапазона
+    private int refreshRange(long fromId, long toId) {
+        int chunks = 0;
+        long after = fromId - 1;
+        while (true) {
+            long cursor = after;
+            Long last = transactionTemplate.execute(status ->
+                    customerScoreRepository.refreshChunk(cursor, toId, properties.chunkSize()));
+            if (last == null) {
+                return chunks;
+            }
+            after = last;
+            chunks++;
+        }
+    }
+}
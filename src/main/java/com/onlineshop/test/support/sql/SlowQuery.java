@@ -0,0 +1,13 @@
+package com.onlineshop.test.support.sql;
+
+import java.time.Instant;
+
+// plan — вывод EXPLAIN (ANALYZE, BUFFERS) или null, если план не снимался
+public record SlowQuery(
+        Instant executedAt,
+        long elapsedMillis,
+        String handler,
+        String sql,
+        String parameters,
+        String plan
+) {}
@@ -0,0 +1,125 @@
+package com.onlineshop.test.support.sql;
+
+import com.onlineshop.test.configuration.SqlLoggingProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Кольцевой буфер последних медленных запросов. При sql-log.explain=true медленный SELECT повторяется
+// в фоне через EXPLAIN (ANALYZE, BUFFERS) с теми же параметрами в read-only транзакции с откатом.
+// Очередь на EXPLAIN ограничена: при всплеске медленных запросов они сохраняются без плана.
+@Slf4j
+public class SlowQueryLog {
+
+    static final String EXPLAIN_PREFIX = "EXPLAIN (ANALYZE, BUFFERS) ";
+
+    private final SqlLoggingProperties properties;
+    private final ObjectProvider<DataSource> dataSource;
+    private final AtomicReferenceArray<SlowQuery> entries;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor explainExecutor = new ThreadPoolExecutor(
+            1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16),
+            Thread.ofPlatform().name("sql-explain").daemon().factory());
+
+    public SlowQueryLog(SqlLoggingProperties properties, ObjectProvider<DataSource> dataSource) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.entries = new AtomicReferenceArray<>(properties.slowBufferSize());
+    }
+
+    public void record(SlowQuery query, List<ParameterSetOperation> parameters) {
+        if (!properties.explain() || !isSelect(query.sql())) {
+            add(query);
+            return;
+        }
+
+        try {
+            explainExecutor.execute(() -> add(new SlowQuery(query.executedAt(), query.elapsedMillis(),
+                    query.handler(), query.sql(), query.parameters(), explain(query.sql(), parameters))));
+        } catch (RejectedExecutionException ex) {
+            add(query);
+        }
+    }
+
+    // Новые первыми
+    public List<SlowQuery> recent() {
+        long last = sequence.get();
+        int size = entries.length();
+        var result = new ArrayList<SlowQuery>(size);
+        for (long i = last - 1; i >= Math.max(0, last - size); i--) {
+            var entry = entries.get((int) (i % size));
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    private void add(SlowQuery query) {
+        entries.set((int) (sequence.getAndIncrement() % entries.length()), query);
+    }
+
+    private String explain(String sql, List<ParameterSetOperation> parameters) {
+        try (var connection = dataSource.getObject().getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try {
+                try (var timeout = connection.createStatement()) {
+                    timeout.execute("SET LOCAL statement_timeout = " + properties.explainTimeout().toMillis());
+                }
+                try (var statement = connection.prepareStatement(EXPLAIN_PREFIX + sql)) {
+                    bind(statement, parameters);
+                    try (var rows = statement.executeQuery()) {
+                        var plan = new StringBuilder();
+                        while (rows.next()) {
+                            plan.append(rows.getString(1)).append('\n');
+                        }
+                        return plan.toString();
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException ex) {
+            log.debug("EXPLAIN не выполнен: {}", ex.getMessage());
+            return "EXPLAIN не выполнен: " + ex.getMessage();
+        }
+    }
+
+    private static void bind(PreparedStatement statement, List<ParameterSetOperation> parameters) throws SQLException {
+        for (var parameter : parameters) {
+            var args = parameter.getArgs();
+            if (!(args[0] instanceof Integer index)) {
+                continue;
+            }
+            if ("setNull".equals(parameter.getMethod().getName())) {
+                statement.setNull(index, (Integer) args[1]);
+            } else {
+                statement.setObject(index, args[1]);
+            }
+        }
+    }
+
+    private static boolean isSelect(String sql) {
+        return sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select");
+    }
+}
@@ -0,0 +1,99 @@
+package com.onlineshop.test.support.sql;
+
+import com.onlineshop.test.configuration.SqlLoggingProperties;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Структурированный лог SQL в формате key=value. Обычные запросы пишутся с вероятностью sample-rate,
+// медленные — всегда, вместе с формой параметров (типы и длины, без значений) и методом контроллера.
+@Slf4j
+public class SqlExecutionListener implements QueryExecutionListener {
+
+    private final SqlLoggingProperties properties;
+    private final ObjectProvider<SlowQueryLog> slowQueryLog;
+    private final long slowThresholdMillis;
+
+    public SqlExecutionListener(SqlLoggingProperties properties, ObjectProvider<SlowQueryLog> slowQueryLog) {
+        this.properties = properties;
+        this.slowQueryLog = slowQueryLog;
+        this.slowThresholdMillis = properties.slowThreshold().toMillis();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        if (queries.isEmpty() || queries.get(0).getQuery().startsWith(SlowQueryLog.EXPLAIN_PREFIX)) {
+            return;
+        }
+
+        long elapsed = execution.getElapsedTime();
+        boolean slow = elapsed >= slowThresholdMillis;
+        if (!slow && ThreadLocalRandom.current().nextDouble() >= properties.sampleRate()) {
+            return;
+        }
+
+        var handler = handler();
+        for (var query : queries) {
+            var parameters = query.getParametersList().isEmpty()
+                    ? List.<ParameterSetOperation>of()
+                    : query.getParametersList().get(0);
+            var shape = shape(parameters);
+
+            if (slow) {
+                log.warn("sql slow=true elapsed_ms={} success={} batch_size={} handler={} params={} sql=\"{}\"",
+                        elapsed, execution.isSuccess(), execution.getBatchSize(), handler, shape, query.getQuery());
+                slowQueryLog.getObject().record(
+                        new SlowQuery(Instant.now(), elapsed, handler, query.getQuery(), shape, null), parameters);
+            } else {
+                log.info("sql slow=false elapsed_ms={} success={} batch_size={} handler={} params={} sql=\"{}\"",
+                        elapsed, execution.isSuccess(), execution.getBatchSize(), handler, shape, query.getQuery());
+            }
+        }
+    }
+
+    // Метод контроллера текущего запроса; вне HTTP-запроса (планировщик, выгрузка в async-потоке) — имя потока
+    private static String handler() {
+        var attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "#" + method.getMethod().getName();
+        }
+        return "thread:" + Thread.currentThread().getName();
+    }
+
+    // [Long, String(12), null]: типы параметров без значений, чтобы в лог не попадали персональные данные
+    private static String shape(List<ParameterSetOperation> parameters) {
+        var joiner = new StringJoiner(", ", "[", "]");
+        parameters.stream()
+                .sorted(Comparator.comparingInt(parameter -> parameter.getArgs()[0] instanceof Integer index ? index : 0))
+                .forEach(parameter -> {
+                    var value = parameter.getArgs().length > 1 ? parameter.getArgs()[1] : null;
+                    if ("setNull".equals(parameter.getMethod().getName()) || value == null) {
+                        joiner.add("null");
+                    } else if (value instanceof String string) {
+                        joiner.add("String(" + string.length() + ")");
+                    } else {
+                        joiner.add(value.getClass().getSimpleName());
+                    }
+                });
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,20 @@
+package com.onlineshop.test.support.tracing;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+// Завершённая трасса запроса: layerNanos — собственное время слоёв, в сумме не больше duration
+// (время самого сервлет-контейнера и фильтров до трассировки не входит никуда)
+public record CompletedTrace(
+        String traceId,
+        String method,
+        String path,
+        int status,
+        Instant startedAt,
+        long startEpochNanos,
+        long durationNanos,
+        Map<Layer, Long> layerNanos,
+        List<SpanData> spans,
+        int droppedSpans
+) {}
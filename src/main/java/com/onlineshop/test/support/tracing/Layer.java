@@ -0,0 +1,15 @@
+package com.onlineshop.test.support.tracing;
+
+// Слой приложения, к которому относится время спана. В разбивке запроса каждому слою достаётся
+// собственное время его спанов — без времени вложенных спанов
+public enum Layer {
+    HTTP,
+    CONTROLLER,
+    SERVICE,
+    REPOSITORY,
+    MAPPING,
+    POOL,
+    JDBC,
+    LOCK,
+    SERIALIZATION
+}
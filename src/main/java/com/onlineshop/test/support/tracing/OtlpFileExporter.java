@@ -0,0 +1,128 @@
+package com.onlineshop.test.support.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlineshop.test.configuration.TracingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Выгрузка трасс в файл в формате OTLP/JSON: строка на трассу, как пишет file exporter коллектора
+// OpenTelemetry, поэтому файл читают otlpjsonfile receiver и Jaeger/Tempo через коллектор.
+// Пишет один фоновый поток; при переполнении очереди трасса остаётся только в памяти (tracing.export.dropped).
+@Slf4j
+public class OtlpFileExporter {
+
+    private static final int SPAN_KIND_INTERNAL = 1;
+    private static final int SPAN_KIND_SERVER = 2;
+
+    private final Path file;
+    private final String serviceName;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final Counter dropped;
+
+    private BufferedWriter writer;
+
+    public OtlpFileExporter(TracingProperties properties, String serviceName, ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.file = Path.of(properties.exportFile());
+        this.serviceName = serviceName;
+        this.objectMapper = objectMapper;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.exportQueueCapacity()),
+                Thread.ofPlatform().name("trace-export").daemon().factory());
+        this.dropped = meterRegistry.counter("tracing.export.dropped");
+    }
+
+    public void export(CompletedTrace trace) {
+        try {
+            executor.execute(() -> write(trace));
+        } catch (RejectedExecutionException ex) {
+            dropped.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+        } catch (IOException ex) {
+            log.warn("Не удалось закрыть файл трасс {}: {}", file, ex.getMessage());
+        }
+    }
+
+    private void write(CompletedTrace trace) {
+        try {
+            if (writer == null) {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(objectMapper.writeValueAsString(request(trace)));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException ex) {
+            dropped.increment();
+            log.warn("Не удалось записать трассу {} в {}: {}", trace.traceId(), file, ex.getMessage());
+        }
+    }
+
+    // ExportTraceServiceRequest в JSON-кодировке OTLP: 64-битные числа строками, ID в hex
+    private Map<String, Object> request(CompletedTrace trace) {
+        var spans = new ArrayList<Map<String, Object>>(trace.spans().size());
+        for (var span : trace.spans()) {
+            var otlp = new LinkedHashMap<String, Object>();
+            otlp.put("traceId", trace.traceId());
+            otlp.put("spanId", span.spanId());
+            if (span.parentSpanId() != null) {
+                otlp.put("parentSpanId", span.parentSpanId());
+            }
+            otlp.put("name", span.name());
+            otlp.put("kind", span.parentSpanId() == null ? SPAN_KIND_SERVER : SPAN_KIND_INTERNAL);
+            otlp.put("startTimeUnixNano", Long.toString(span.startEpochNanos()));
+            otlp.put("endTimeUnixNano", Long.toString(span.startEpochNanos() + span.durationNanos()));
+
+            var attributes = new ArrayList<Map<String, Object>>();
+            attributes.add(attribute("shop.layer", span.layer().name()));
+            attributes.add(attribute("thread.name", span.thread()));
+            if (span.parentSpanId() == null) {
+                attributes.add(attribute("http.request.method", trace.method()));
+                attributes.add(attribute("url.path", trace.path()));
+                attributes.add(Map.of("key", "http.response.status_code",
+                        "value", Map.of("intValue", Integer.toString(trace.status()))));
+            }
+            otlp.put("attributes", attributes);
+            spans.add(otlp);
+        }
+
+        var scope = Map.of("scope", Map.of("name", "com.onlineshop.test.tracing"), "spans", spans);
+        var resource = Map.of("attributes", List.of(attribute("service.name", serviceName)));
+        return Map.of("resourceSpans", List.of(Map.of("resource", resource, "scopeSpans", List.of(scope))));
+    }
+
+    private static Map<String, Object> attribute(String key, String value) {
+        return Map.of("key", key, "value", Map.of("stringValue", value));
+    }
+}
@@ -0,0 +1,34 @@
+package com.onlineshop.test.support.tracing;
+
+import com.onlineshop.test.dto.response.SlowRequestResponse;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+// GET /actuator/slowrequests?limit=&spans= — самые долгие из последних трассированных запросов
+// с разбивкой времени по слоям; spans=true добавляет сами спаны
+@Endpoint(id = "slowrequests")
+public class SlowRequestEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+
+    private final TraceCollector traceCollector;
+
+    public SlowRequestEndpoint(TraceCollector traceCollector) {
+        this.traceCollector = traceCollector;
+    }
+
+    @ReadOperation
+    public List<SlowRequestResponse> slowRequests(@Nullable Integer limit, @Nullable Boolean spans) {
+        int count = limit != null ? limit : DEFAULT_LIMIT;
+        if (count <= 0 || count > MAX_LIMIT) {
+            throw new InvalidEndpointRequestException("Число запросов должно быть от 1 до " + MAX_LIMIT,
+                    "limit out of range");
+        }
+        return traceCollector.slowest(count, Boolean.TRUE.equals(spans));
+    }
+}
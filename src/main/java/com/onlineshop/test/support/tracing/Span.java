@@ -0,0 +1,49 @@
+package com.onlineshop.test.support.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Открытый участок трассы. Спан закрывается в том же потоке, в котором открыт; дочерний спан может
+// выполняться в другом потоке (продолжение запроса в executor), поэтому время детей копится атомарно
+public final class Span {
+
+    private final Trace trace;
+    private final Span parent;
+    private final String spanId;
+    private final Layer layer;
+    private final String name;
+    private final long startNanos;
+    private final AtomicLong childNanos = new AtomicLong();
+
+    Span(Trace trace, Span parent, Layer layer, String name) {
+        this.trace = trace;
+        this.parent = parent;
+        this.spanId = String.format("%016x", ThreadLocalRandom.current().nextLong());
+        this.layer = layer;
+        this.name = name;
+        this.startNanos = System.nanoTime();
+    }
+
+    public Trace trace() {
+        return trace;
+    }
+
+    Span parent() {
+        return parent;
+    }
+
+    Layer layer() {
+        return layer;
+    }
+
+    // Собственное время спана достаётся его слою, полное — учитывается у родителя как время ребёнка
+    void end() {
+        long duration = System.nanoTime() - startNanos;
+        long self = Math.max(0, duration - childNanos.get());
+        if (parent != null) {
+            parent.childNanos.addAndGet(duration);
+        }
+        trace.finished(new SpanData(spanId, parent != null ? parent.spanId : null, layer, name,
+                trace.epochNanos(startNanos), duration, self, Thread.currentThread().getName()));
+    }
+}
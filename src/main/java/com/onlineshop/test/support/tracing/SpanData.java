@@ -0,0 +1,13 @@
+package com.onlineshop.test.support.tracing;
+
+// Закрытый спан; время начала — в наносекундах от эпохи, как в OTLP
+public record SpanData(
+        String spanId,
+        String parentSpanId,
+        Layer layer,
+        String name,
+        long startEpochNanos,
+        long durationNanos,
+        long selfNanos,
+        String thread
+) {}
@@ -0,0 +1,88 @@
+package com.onlineshop.test.support.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Трасса одного HTTP-запроса. Спаны сохраняются до tracing.max-spans на трассу (запрос с N+1 или
+// маппингом тысяч строк иначе занял бы память тысячами спанов), но время по слоям считается по всем
+public final class Trace {
+
+    private final String traceId;
+    private final String method;
+    private final String path;
+    private final long startEpochNanos;
+    private final long startNanos;
+    private final int maxSpans;
+    private final List<SpanData> spans = new ArrayList<>();
+    private final AtomicInteger droppedSpans = new AtomicInteger();
+    private final AtomicLongArray layerNanos = new AtomicLongArray(Layer.values().length);
+
+    private volatile long durationNanos;
+    private volatile boolean completed;
+
+    Trace(String method, String path, int maxSpans) {
+        var random = ThreadLocalRandom.current();
+        this.traceId = String.format("%016x%016x", random.nextLong(), random.nextLong());
+        this.method = method;
+        this.path = path;
+        var now = Instant.now();
+        this.startEpochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        this.startNanos = System.nanoTime();
+        this.maxSpans = maxSpans;
+    }
+
+    public String traceId() {
+        return traceId;
+    }
+
+    String name() {
+        return method + " " + path;
+    }
+
+    long epochNanos(long nanoTime) {
+        return startEpochNanos + (nanoTime - startNanos);
+    }
+
+    // Спаны, закрытые после завершения трассы (зависшее продолжение в executor), не учитываются
+    void finished(SpanData span) {
+        if (completed) {
+            return;
+        }
+        layerNanos.addAndGet(span.layer().ordinal(), span.selfNanos());
+        if (span.parentSpanId() == null) {
+            durationNanos = span.durationNanos();
+        }
+        synchronized (spans) {
+            // Корневой спан закрывается последним и сохраняется всегда: без него трасса не собирается в дерево
+            if (spans.size() < maxSpans || span.parentSpanId() == null) {
+                spans.add(span);
+                return;
+            }
+        }
+        droppedSpans.incrementAndGet();
+    }
+
+    // Вызывается после закрытия корневого спана: длительность трассы — его длительность
+    CompletedTrace complete(int status) {
+        completed = true;
+
+        var layers = new EnumMap<Layer, Long>(Layer.class);
+        for (var layer : Layer.values()) {
+            long nanos = layerNanos.get(layer.ordinal());
+            if (nanos > 0) {
+                layers.put(layer, nanos);
+            }
+        }
+        List<SpanData> recorded;
+        synchronized (spans) {
+            recorded = List.copyOf(spans);
+        }
+        return new CompletedTrace(traceId, method, path, status,
+                Instant.ofEpochSecond(0, startEpochNanos), startEpochNanos, durationNanos, layers, recorded, droppedSpans.get());
+    }
+}
@@ -0,0 +1,74 @@
+package com.onlineshop.test.support.tracing;
+
+import com.onlineshop.test.configuration.TracingProperties;
+import com.onlineshop.test.dto.response.SlowRequestResponse;
+import com.onlineshop.test.dto.response.TraceSpanResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Коллектор в памяти: кольцевой буфер последних tracing.buffer-size трасс. Самые медленные выбираются
+// при чтении — запись трассы остаётся одной операцией над массивом без блокировок.
+public class TraceCollector {
+
+    private final AtomicReferenceArray<CompletedTrace> traces;
+    private final AtomicLong sequence = new AtomicLong();
+    private final OtlpFileExporter exporter;
+    private final Counter collected;
+
+    public TraceCollector(TracingProperties properties, OtlpFileExporter exporter, MeterRegistry meterRegistry) {
+        this.traces = new AtomicReferenceArray<>(properties.bufferSize());
+        this.exporter = exporter;
+        this.collected = meterRegistry.counter("tracing.traces");
+    }
+
+    public void add(CompletedTrace trace) {
+        traces.set((int) (sequence.getAndIncrement() % traces.length()), trace);
+        collected.increment();
+        if (exporter != null) {
+            exporter.export(trace);
+        }
+    }
+
+    // Самые долгие из последних трасс, долгие первыми
+    public List<SlowRequestResponse> slowest(int limit, boolean withSpans) {
+        var recent = new ArrayList<CompletedTrace>(traces.length());
+        for (int i = 0; i < traces.length(); i++) {
+            var trace = traces.get(i);
+            if (trace != null) {
+                recent.add(trace);
+            }
+        }
+
+        return recent.stream()
+                .sorted(Comparator.comparingLong(CompletedTrace::durationNanos).reversed())
+                .limit(limit)
+                .map(trace -> toResponse(trace, withSpans))
+                .toList();
+    }
+
+    private static SlowRequestResponse toResponse(CompletedTrace trace, boolean withSpans) {
+        var layers = new EnumMap<Layer, Double>(Layer.class);
+        trace.layerNanos().forEach((layer, nanos) -> layers.put(layer, millis(nanos)));
+
+        var spans = !withSpans ? List.<TraceSpanResponse>of() : trace.spans().stream()
+                .sorted(Comparator.comparingLong(SpanData::startEpochNanos))
+                .map(span -> new TraceSpanResponse(span.spanId(), span.parentSpanId(), span.layer(), span.name(),
+                        millis(span.startEpochNanos() - trace.startEpochNanos()),
+                        millis(span.durationNanos()), millis(span.selfNanos()), span.thread()))
+                .toList();
+
+        return new SlowRequestResponse(trace.traceId(), trace.method(), trace.path(), trace.status(),
+                trace.startedAt(), millis(trace.durationNanos()), layers, spans, trace.droppedSpans());
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
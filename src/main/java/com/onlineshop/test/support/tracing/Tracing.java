@@ -0,0 +1,65 @@
+package com.onlineshop.test.support.tracing;
+
+// Текущий спан потока. Точки трассировки (аспект слоёв, слушатель JDBC, конвертер ответа) открывают
+// дочерний спан, только если поток выполняет трассируемый запрос; иначе open возвращает null
+// и close(null) ничего не делает — вне трассы накладные расходы сводятся к чтению ThreadLocal.
+public final class Tracing {
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private Tracing() {
+    }
+
+    public static Span open(Layer layer, String name) {
+        var parent = CURRENT.get();
+        if (parent == null) {
+            return null;
+        }
+        var span = new Span(parent.trace(), parent, layer, name);
+        CURRENT.set(span);
+        return span;
+    }
+
+    public static void close(Span span) {
+        if (span == null) {
+            return;
+        }
+        span.end();
+        restore(span.parent());
+    }
+
+    public static Span current() {
+        return CURRENT.get();
+    }
+
+    // Продолжение трассы в другом потоке: задача выполняется с тем же текущим спаном, что и при отправке
+    public static Runnable wrap(Runnable task) {
+        var captured = CURRENT.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            var previous = CURRENT.get();
+            CURRENT.set(captured);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    static Span begin(Trace trace) {
+        var root = new Span(trace, null, Layer.HTTP, trace.name());
+        CURRENT.set(root);
+        return root;
+    }
+
+    static void restore(Span span) {
+        if (span == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(span);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.onlineshop.test.support.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+// Спаны вызовов контроллеров, сервисов, репозиториев и мапперов MapStruct. Вызовы внутри одного бина
+// (this.method()) прокси не видит и отдельных спанов не получают.
+@Aspect
+public class TracingAspect {
+
+    @Around("within(@org.springframework.web.bind.annotation.RestController *)")
+    public Object controller(ProceedingJoinPoint call) throws Throwable {
+        return trace(Layer.CONTROLLER, call);
+    }
+
+    @Around("within(@org.springframework.stereotype.Service *)")
+    public Object service(ProceedingJoinPoint call) throws Throwable {
+        return trace(Layer.SERVICE, call);
+    }
+
+    // this(): метод JpaSpecificationExecutor или фрагмента репозитория тоже вызывается через прокси репозитория
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object repository(ProceedingJoinPoint call) throws Throwable {
+        return trace(Layer.REPOSITORY, call);
+    }
+
+    @Around("within(com.onlineshop.test.mapper..*)")
+    public Object mapping(ProceedingJoinPoint call) throws Throwable {
+        return trace(Layer.MAPPING, call);
+    }
+
+    private static Object trace(Layer layer, ProceedingJoinPoint call) throws Throwable {
+        if (Tracing.current() == null) {
+            return call.proceed();
+        }
+
+        var span = Tracing.open(layer, name(layer, call));
+        try {
+            return call.proceed();
+        } finally {
+            Tracing.close(span);
+        }
+    }
+
+    // OrderService.getAllOrders; у репозитория — интерфейс приложения (первый интерфейс прокси),
+    // а не CrudRepository, где объявлен findById
+    private static String name(Layer layer, ProceedingJoinPoint call) {
+        var type = layer == Layer.REPOSITORY
+                ? call.getThis().getClass().getInterfaces()[0]
+                : call.getSignature().getDeclaringType();
+        return type.getSimpleName() + "." + call.getSignature().getName();
+    }
+}
@@ -0,0 +1,89 @@
+package com.onlineshop.test.support.tracing;
+
+import com.onlineshop.test.configuration.TracingProperties;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Корневой спан запроса. Выборка tracing.sample-rate решается здесь: невыбранный запрос идёт без трассы.
+// Асинхронный запрос (потоковая выгрузка, SSE) завершает трассу, когда контейнер закрывает ответ,
+// а не когда поток сервлета выходит из фильтра.
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final TracingProperties properties;
+    private final TraceCollector collector;
+
+    public TracingFilter(TracingProperties properties, TraceCollector collector) {
+        this.properties = properties;
+        this.collector = collector;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!properties.enabled() || ThreadLocalRandom.current().nextDouble() >= properties.sampleRate()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        var trace = new Trace(request.getMethod(), request.getRequestURI(), properties.maxSpans());
+        response.setHeader(TRACE_ID_HEADER, trace.traceId());
+        var root = Tracing.begin(trace);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Tracing.restore(null);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(trace, root, response));
+            } else {
+                finish(trace, root, response);
+            }
+        }
+    }
+
+    private void finish(Trace trace, Span root, HttpServletResponse response) {
+        root.end();
+        collector.add(trace.complete(response.getStatus()));
+    }
+
+    private final class CompletionListener implements AsyncListener {
+
+        private final Trace trace;
+        private final Span root;
+        private final HttpServletResponse response;
+
+        CompletionListener(Trace trace, Span root, HttpServletResponse response) {
+            this.trace = trace;
+            this.root = root;
+            this.response = response;
+        }
+
+        // onComplete приходит и после тайм-аута или ошибки
+        @Override
+        public void onComplete(AsyncEvent event) {
+            finish(trace, root, response);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.onlineshop.test.support.tracing;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+// Обёртка конвертера Jackson (JSON, CBOR, Smile): запись ответа и чтение тела запроса — спаны SERIALIZATION.
+// Время записи включает отправку байтов клиенту, пока они не помещаются в буфер ответа.
+public class TracingHttpMessageConverter implements GenericHttpMessageConverter<Object> {
+
+    private final GenericHttpMessageConverter<Object> delegate;
+    private final String name;
+
+    public TracingHttpMessageConverter(GenericHttpMessageConverter<Object> delegate) {
+        this.delegate = delegate;
+        this.name = delegate.getClass().getSimpleName();
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return delegate.canRead(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return delegate.canRead(type, contextClass, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return delegate.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return delegate.canWrite(type, clazz, mediaType);
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return delegate.getSupportedMediaTypes();
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return delegate.getSupportedMediaTypes(clazz);
+    }
+
+    @Override
+    public Object read(Class<?> clazz, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+        var span = Tracing.open(Layer.SERIALIZATION, name + ".read");
+        try {
+            return delegate.read(clazz, inputMessage);
+        } finally {
+            Tracing.close(span);
+        }
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        var span = Tracing.open(Layer.SERIALIZATION, name + ".read");
+        try {
+            return delegate.read(type, contextClass, inputMessage);
+        } finally {
+            Tracing.close(span);
+        }
+    }
+
+    @Override
+    public void write(Object body, MediaType contentType, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        var span = Tracing.open(Layer.SERIALIZATION, name + ".write");
+        try {
+            delegate.write(body, contentType, outputMessage);
+        } finally {
+            Tracing.close(span);
+        }
+    }
+
+    @Override
+    public void write(Object body, Type type, MediaType contentType, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        var span = Tracing.open(Layer.SERIALIZATION, name + ".write");
+        try {
+            delegate.write(body, type, contentType, outputMessage);
+        } finally {
+            Tracing.close(span);
+        }
+    }
+}
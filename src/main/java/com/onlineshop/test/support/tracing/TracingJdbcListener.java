@@ -0,0 +1,75 @@
+package com.onlineshop.test.support.tracing;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Locale;
+
+// Спаны JDBC на прокси datasource-proxy: получение соединения из пула (POOL) и каждый оператор.
+// Оператор, который может ждать чужую блокировку строки или advisory-блокировку, относится к LOCK:
+// время ожидания блокировки Postgres клиенту отдельно не сообщает, и оно входит во время такого оператора.
+// SKIP LOCKED, NOWAIT и pg_try_advisory_* не ждут и считаются обычным JDBC.
+public class TracingJdbcListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final int MAX_SQL_LENGTH = 200;
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        if (Tracing.current() == null || queries.isEmpty()) {
+            return;
+        }
+
+        var sql = queries.get(0).getQuery();
+        var name = sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) + "…" : sql;
+        if (execution.isBatch()) {
+            name = name + " [batch " + execution.getBatchSize() + "]";
+        }
+        Tracing.open(waitsForLock(sql) ? Layer.LOCK : Layer.JDBC, name);
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        closeCurrent(Layer.JDBC, Layer.LOCK);
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext context) {
+        if (isGetConnection(context) && Tracing.current() != null) {
+            Tracing.open(Layer.POOL, "getConnection");
+        }
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext context) {
+        if (isGetConnection(context)) {
+            closeCurrent(Layer.POOL, Layer.POOL);
+        }
+    }
+
+    private static boolean isGetConnection(MethodExecutionContext context) {
+        return context.getTarget() instanceof DataSource && "getConnection".equals(context.getMethod().getName());
+    }
+
+    // Спан закрывается, только если его открыл этот слушатель: трасса могла начаться посреди оператора
+    private static void closeCurrent(Layer first, Layer second) {
+        var span = Tracing.current();
+        if (span != null && (span.layer() == first || span.layer() == second)) {
+            Tracing.close(span);
+        }
+    }
+
+    static boolean waitsForLock(String sql) {
+        var text = sql.toLowerCase(Locale.ROOT);
+        if (text.contains("pg_advisory_lock") || text.contains("pg_advisory_xact_lock")) {
+            return true;
+        }
+        boolean locking = text.contains(" for update") || text.contains(" for no key update")
+                || text.contains(" for share") || text.contains(" for key share");
+        return locking && !text.contains("skip locked") && !text.contains("nowait");
+    }
+}
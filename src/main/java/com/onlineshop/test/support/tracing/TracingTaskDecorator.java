@@ -0,0 +1,13 @@
+package com.onlineshop.test.support.tracing;
+
+import org.springframework.core.task.TaskDecorator;
+
+// Продолжение трассы в applicationTaskExecutor: @Async-методы и асинхронные ответы MVC
+// (StreamingResponseBody, Callable) выполняются с текущим спаном отправившего потока
+public class TracingTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return Tracing.wrap(runnable);
+    }
+}
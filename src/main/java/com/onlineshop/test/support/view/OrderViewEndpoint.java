@@ -0,0 +1,20 @@
+package com.onlineshop.test.support.view;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+// POST /actuator/orderview — пересборка order_view из orders, customers и employees
+@Endpoint(id = "orderview")
+public class OrderViewEndpoint {
+
+    private final OrderViewRebuilder orderViewRebuilder;
+
+    public OrderViewEndpoint(OrderViewRebuilder orderViewRebuilder) {
+        this.orderViewRebuilder = orderViewRebuilder;
+    }
+
+    @WriteOperation
+    public OrderViewRebuilder.Result rebuild() {
+        return orderViewRebuilder.rebuild();
+    }
+}
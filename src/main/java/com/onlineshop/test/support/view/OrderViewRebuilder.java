@@ -0,0 +1,75 @@
+package com.onlineshop.test.support.view;
+
+import com.onlineshop.test.configuration.OrderViewProperties;
+import com.onlineshop.test.repository.OrderRepository;
+import com.onlineshop.test.repository.OrderViewRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Пересборка order_view из исходных таблиц. Диапазон id заказов режется на куски, каждый кусок —
+// отдельный INSERT ... SELECT ... ON CONFLICT в своей короткой транзакции, куски идут параллельно.
+// Запись заказов при этом не блокируется; если клиента переименовали посреди пересборки, его имя
+// в уже обработанном куске может остаться старым — повторный запуск это исправит.
+@Slf4j
+@Component
+public class OrderViewRebuilder {
+
+    private final OrderViewProperties properties;
+    private final OrderRepository orderRepository;
+    private final OrderViewRepository orderViewRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OrderViewRebuilder(OrderViewProperties properties,
+                              OrderRepository orderRepository,
+                              OrderViewRepository orderViewRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.orderRepository = orderRepository;
+        this.orderViewRepository = orderViewRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public Result rebuild() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Пересборка order_view уже выполняется");
+        }
+
+        long started = System.nanoTime();
+        try (var executor = Executors.newFixedThreadPool(properties.rebuildParallelism())) {
+            long maxId = orderRepository.findMaxId();
+            var chunks = new ArrayList<Future<Integer>>();
+            for (long from = 1; from <= maxId; from += properties.rebuildChunkSize()) {
+                long fromId = from;
+                long toId = Math.min(from + properties.rebuildChunkSize() - 1, maxId);
+                chunks.add(executor.submit(() -> transactionTemplate.execute(status -> orderViewRepository.refreshRange(fromId, toId))));
+            }
+
+            long rows = 0;
+            for (var chunk : chunks) {
+                rows += chunk.get();
+            }
+
+            var result = new Result(rows, chunks.size(), (System.nanoTime() - started) / 1_000_000);
+            log.info("order_view пересобрана: {} строк, {} кусков за {} мс", result.rows(), result.chunks(), result.millis());
+            return result;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Пересборка order_view прервана", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Пересборка order_view не удалась: " + ex.getCause().getMessage(), ex.getCause());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public record Result(long rows, int chunks, long millis) {}
+}
@@ -0,0 +1,27 @@
+-- Очередь фоновых задач на Postgres. Узлы забирают готовые задачи через FOR UPDATE SKIP LOCKED
+-- и держат аренду (lease_until), продлевая её, пока задача выполняется. Аренда истекла (узел упал) —
+-- задача возвращается в очередь. locked_by отсекает запоздалое завершение чужой задачи.
+CREATE TABLE jobs (
+                      id BIGSERIAL PRIMARY KEY,
+                      type VARCHAR(64) NOT NULL,
+                      payload TEXT,
+                      status VARCHAR(16) NOT NULL,
+                      run_at timestamp NOT NULL,
+                      attempts INT NOT NULL DEFAULT 0,
+                      max_attempts INT NOT NULL,
+                      locked_by VARCHAR(128),
+                      lease_until timestamp,
+                      last_error TEXT,
+                      created_at timestamp NOT NULL,
+                      finished_at timestamp
+);
+
+CREATE INDEX idx_jobs_pending_run_at ON jobs(run_at) WHERE status = 'PENDING';
+CREATE INDEX idx_jobs_running_lease ON jobs(lease_until) WHERE status = 'RUNNING';
+CREATE INDEX idx_jobs_finished_at ON jobs(finished_at) WHERE status IN ('DONE', 'FAILED');
+
+-- Следующий запуск каждого повторяющегося расписания; задачу ставит тот узел, чей UPDATE сдвинул next_run_at
+CREATE TABLE job_schedules (
+                               name VARCHAR(64) PRIMARY KEY,
+                               next_run_at timestamp NOT NULL
+);
@@ -0,0 +1,69 @@
+-- RFM-оценки клиентов (давность, частота, сумма заказов) для маркетинга. Агрегаты клиента пересчитываются
+-- фоновой задачей только для клиентов из customer_rfm_pending: триггер на orders пишет туда клиента
+-- каждого созданного, удалённого или перенесённого заказа в той же транзакции. Заказ, удалённый архиватором
+-- (shop.archiving = 'on', см. V8), клиента в очередь не ставит, а добавляется к его итогам в customer_rfm_archived:
+-- агрегаты считаются по orders вместе с ними, так что архивация оценку не меняет
+CREATE TABLE customer_rfm (
+                              customer_id BIGINT PRIMARY KEY REFERENCES customers(id) ON DELETE CASCADE,
+                              last_order_at timestamp NOT NULL,
+                              orders BIGINT NOT NULL,
+                              amount BIGINT NOT NULL,
+                              recency_score SMALLINT NOT NULL DEFAULT 0,
+                              frequency_score SMALLINT NOT NULL DEFAULT 0,
+                              monetary_score SMALLINT NOT NULL DEFAULT 0,
+                              computed_at timestamp NOT NULL
+);
+
+-- Строки не схлопываются по клиенту: задача забирает только закоммиченные к её снимку строки,
+-- а поздно закоммиченное изменение остаётся отдельной строкой до следующего запуска
+CREATE TABLE customer_rfm_pending (
+                                      id BIGSERIAL PRIMARY KEY,
+                                      customer_id BIGINT NOT NULL
+);
+
+CREATE INDEX idx_customer_rfm_pending_customer ON customer_rfm_pending(customer_id);
+
+-- Итоги архивированных заказов клиента: сами заказы из Postgres уже удалены
+CREATE TABLE customer_rfm_archived (
+                                       customer_id BIGINT PRIMARY KEY REFERENCES customers(id) ON DELETE CASCADE,
+                                       last_order_at timestamp NOT NULL,
+                                       orders BIGINT NOT NULL,
+                                       amount BIGINT NOT NULL
+);
+
+CREATE FUNCTION record_rfm_change() RETURNS trigger
+    LANGUAGE plpgsql
+    SET search_path FROM CURRENT
+AS $$
+BEGIN
+    IF TG_OP = 'DELETE' AND current_setting('shop.archiving', true) = 'on' THEN
+        IF OLD.customer_id IS NOT NULL THEN
+            INSERT INTO customer_rfm_archived (customer_id, last_order_at, orders, amount)
+            VALUES (OLD.customer_id, OLD.created_at, 1, OLD.amount)
+            ON CONFLICT (customer_id) DO UPDATE
+            SET last_order_at = greatest(customer_rfm_archived.last_order_at, EXCLUDED.last_order_at),
+                orders = customer_rfm_archived.orders + 1,
+                amount = customer_rfm_archived.amount + EXCLUDED.amount;
+        END IF;
+        RETURN NULL;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.customer_id IS NOT NULL THEN
+        INSERT INTO customer_rfm_pending (customer_id) VALUES (OLD.customer_id);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.customer_id IS NOT NULL
+        AND (TG_OP = 'INSERT' OR NEW.customer_id IS DISTINCT FROM OLD.customer_id) THEN
+        INSERT INTO customer_rfm_pending (customer_id) VALUES (NEW.customer_id);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER orders_rfm_changed AFTER INSERT OR DELETE ON orders
+    FOR EACH ROW EXECUTE FUNCTION record_rfm_change();
+CREATE TRIGGER orders_rfm_updated AFTER UPDATE OF customer_id, amount ON orders
+    FOR EACH ROW WHEN ((OLD.customer_id, OLD.amount) IS DISTINCT FROM (NEW.customer_id, NEW.amount))
+    EXECUTE FUNCTION record_rfm_change();
+
+-- Первый запуск задачи считает всех клиентов с заказами
+INSERT INTO customer_rfm_pending (customer_id)
+SELECT DISTINCT customer_id FROM orders WHERE customer_id IS NOT NULL;
@@ -0,0 +1,32 @@
+-- История цен продуктов: строка действует с valid_from до valid_from следующей строки того же продукта.
+-- Цена на момент — одна проба первичного ключа (product_id, valid_from) с конца диапазона.
+-- Пишется триггером на каждое создание продукта и изменение цены, в том числе в обход сервиса
+CREATE TABLE product_prices (
+                                product_id BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+                                valid_from timestamp NOT NULL,
+                                price BIGINT NOT NULL CHECK (price >= 0),
+                                PRIMARY KEY (product_id, valid_from)
+);
+
+-- Время самого изменения, а не начала транзакции: из двух пересекающихся транзакций позже действует та,
+-- что изменила цену позже (вторая ждёт блокировку строки products). Совпадение времени оставляет последнюю цену
+CREATE FUNCTION record_price() RETURNS trigger
+    LANGUAGE plpgsql
+    SET search_path FROM CURRENT
+AS $$
+BEGIN
+    INSERT INTO product_prices (product_id, valid_from, price)
+    VALUES (NEW.id, clock_timestamp()::timestamp, NEW.price)
+    ON CONFLICT (product_id, valid_from) DO UPDATE SET price = EXCLUDED.price;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER products_price_created AFTER INSERT ON products
+    FOR EACH ROW EXECUTE FUNCTION record_price();
+CREATE TRIGGER products_price_changed AFTER UPDATE OF price ON products
+    FOR EACH ROW WHEN (OLD.price IS DISTINCT FROM NEW.price) EXECUTE FUNCTION record_price();
+
+-- Прежние цены неизвестны: текущая цена считается действующей с начала эпохи
+INSERT INTO product_prices (product_id, valid_from, price)
+SELECT id, TIMESTAMP '1970-01-01 00:00:00', price FROM products;
@@ -0,0 +1,48 @@
+-- Журнал аудита изменений через сервисы: кто (сущность, id), что (операция) и какие поля как изменились.
+-- Таблица только для добавления и секционирована по месяцам: старые месяцы отсоединяются или удаляются
+-- целиком (DETACH/DROP PARTITION), без DELETE. Строки без подходящей секции попадают в audit_log_default.
+CREATE TABLE audit_log (
+                           occurred_at timestamp NOT NULL,
+                           entity VARCHAR(16) NOT NULL,
+                           entity_id BIGINT NOT NULL,
+                           operation VARCHAR(8) NOT NULL,
+                           changes jsonb NOT NULL
+) PARTITION BY RANGE (occurred_at);
+
+CREATE TABLE audit_log_default PARTITION OF audit_log DEFAULT;
+
+CREATE INDEX idx_audit_log_entity ON audit_log(entity, entity_id, occurred_at);
+
+CREATE FUNCTION reject_audit_change() RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    RAISE EXCEPTION 'audit_log только для добавления: % запрещён', TG_OP;
+END;
+$$;
+
+CREATE TRIGGER audit_log_append_only BEFORE UPDATE OR DELETE OR TRUNCATE ON audit_log
+    FOR EACH STATEMENT EXECUTE FUNCTION reject_audit_change();
+
+-- Секции на months месяцев начиная с месяца from_month; приложение вызывает её при старте и ежедневно,
+-- чтобы секция появлялась раньше первых строк своего месяца
+CREATE FUNCTION ensure_audit_partitions(from_month timestamp, months INT) RETURNS void
+    LANGUAGE plpgsql
+    SET search_path FROM CURRENT
+AS $$
+DECLARE
+    start_at timestamp;
+    partition_name TEXT;
+BEGIN
+    FOR i IN 0..months - 1 LOOP
+        start_at := date_trunc('month', from_month) + make_interval(months => i);
+        partition_name := 'audit_log_' || to_char(start_at, 'YYYY_MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF audit_log FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, start_at, start_at + INTERVAL '1 month');
+        END IF;
+    END LOOP;
+END;
+$$;
+
+SELECT ensure_audit_partitions(LOCALTIMESTAMP, 3);
@@ -0,0 +1,2 @@
+-- BRIN по created_at: заказы пишутся в порядке времени, поэтому индекс получается крошечным
+CREATE INDEX idx_orders_created_at_brin ON orders USING BRIN (created_at);
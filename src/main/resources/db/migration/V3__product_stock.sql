@@ -0,0 +1,26 @@
+-- Остаток товара разбит на несколько строк (шардов): покупки горячего товара
+-- забирают разные строки через FOR UPDATE SKIP LOCKED и не ждут друг друга
+CREATE TABLE product_stock_shards (
+                                      id BIGSERIAL PRIMARY KEY,
+                                      product_id BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+                                      shard INT NOT NULL,
+                                      quantity BIGINT NOT NULL CHECK (quantity >= 0),
+                                      UNIQUE (product_id, shard)
+);
+
+CREATE TABLE stock_reservations (
+                                    id BIGSERIAL PRIMARY KEY,
+                                    product_id BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+                                    order_id BIGINT REFERENCES orders(id) ON DELETE SET NULL,
+                                    quantity BIGINT NOT NULL CHECK (quantity > 0),
+                                    status VARCHAR(16) NOT NULL,
+                                    created_at timestamp NOT NULL,
+                                    expires_at timestamp
+);
+
+-- Резервы создаются вместе с позициями заказа и вставляются пакетом: Hibernate берёт ID блоками по 50
+ALTER SEQUENCE stock_reservations_id_seq INCREMENT BY 50;
+
+CREATE INDEX idx_stock_reservations_product_id ON stock_reservations(product_id);
+CREATE INDEX idx_stock_reservations_order_id ON stock_reservations(order_id);
+CREATE INDEX idx_stock_reservations_expires_at ON stock_reservations(expires_at) WHERE status = 'RESERVED';
@@ -0,0 +1,14 @@
+-- Корзины, вытесненные из памяти: позиции хранятся двумя параллельными массивами
+CREATE TABLE cart_snapshots (
+                                id UUID PRIMARY KEY,
+                                customer_id BIGINT NOT NULL REFERENCES customers(id) ON DELETE CASCADE,
+                                product_ids BIGINT[] NOT NULL,
+                                quantities INT[] NOT NULL,
+                                updated_at timestamp NOT NULL
+);
+
+CREATE INDEX idx_cart_snapshots_updated_at ON cart_snapshots(updated_at);
+
+-- Оформление корзины создаёт заказ со всеми позициями, и они вставляются пакетом: Hibernate берёт ID блоками
+-- по 50. Таблица order_items создана в V1__init.sql, поэтому последовательность меняется здесь
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
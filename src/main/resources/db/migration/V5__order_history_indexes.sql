@@ -0,0 +1,7 @@
+-- История заказов клиента и сотрудника: диапазон по (created_at, id) в порядке индекса.
+-- INCLUDE содержит остальные колонки orders, нужные странице: orders читается Index Only Scan после VACUUM.
+-- Имена клиента и сотрудника и число позиций — отдельные пробы по первичным ключам и idx_order_items_order_id
+-- на каждую строку страницы, то есть не больше размера страницы.
+-- id DESC вместо ASC: страница сортируется по (created_at DESC, id DESC) и идёт одним проходом индекса.
+CREATE INDEX idx_orders_customer_history ON orders(customer_id, created_at DESC, id DESC) INCLUDE (amount, employee_id);
+CREATE INDEX idx_orders_employee_history ON orders(employee_id, created_at DESC, id DESC) INCLUDE (amount, customer_id);
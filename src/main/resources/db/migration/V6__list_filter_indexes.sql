@@ -0,0 +1,9 @@
+-- Поля из белого списка фильтров и сортировок (repository/specification/*Specifications)
+CREATE INDEX idx_products_price ON products(price);
+CREATE INDEX idx_customers_city ON customers(city);
+CREATE INDEX idx_employees_position ON employees(position);
+CREATE INDEX idx_employees_salary ON employees(salary);
+
+-- Поиск по префиксу без учёта регистра: lower(name) LIKE 'abc%'
+CREATE INDEX idx_products_name_prefix ON products(lower(name) varchar_pattern_ops);
+CREATE INDEX idx_customers_name_prefix ON customers(lower(name) varchar_pattern_ops);
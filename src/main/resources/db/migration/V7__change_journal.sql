@@ -0,0 +1,73 @@
+-- Журнал изменений для дельта-синхронизации (GET /api/changes).
+-- Триггеры пишут каждое изменение пяти таблиц в change_pending в той же транзакции, включая каскадные
+-- ON DELETE SET NULL. Номер seq назначает один секвенсор уже после коммита, поэтому номера видны
+-- потребителям строго по возрастанию и курсор since не пропускает поздно закоммиченные изменения.
+CREATE TABLE change_pending (
+                                id BIGSERIAL PRIMARY KEY,
+                                entity VARCHAR(16) NOT NULL,
+                                entity_id BIGINT NOT NULL,
+                                operation VARCHAR(8) NOT NULL,
+                                changed_at timestamp NOT NULL DEFAULT LOCALTIMESTAMP
+);
+
+CREATE SEQUENCE change_journal_seq;
+
+-- Одна строка на сущность: повторное изменение получает новый seq, предыдущая запись вытесняется
+CREATE TABLE change_journal (
+                                entity VARCHAR(16) NOT NULL,
+                                entity_id BIGINT NOT NULL,
+                                seq BIGINT NOT NULL DEFAULT nextval('change_journal_seq'),
+                                operation VARCHAR(8) NOT NULL,
+                                changed_at timestamp NOT NULL,
+                                PRIMARY KEY (entity, entity_id)
+);
+
+CREATE UNIQUE INDEX idx_change_journal_seq ON change_journal(seq);
+CREATE INDEX idx_change_journal_deleted_at ON change_journal(changed_at) WHERE operation = 'DELETE';
+
+-- purged_seq — наибольший seq удалённых по сроку хранения записей; курсор меньше него устарел
+CREATE TABLE change_journal_state (
+                                      id INT PRIMARY KEY CHECK (id = 1),
+                                      purged_seq BIGINT NOT NULL
+);
+
+INSERT INTO change_journal_state (id, purged_seq) VALUES (1, 0);
+
+CREATE FUNCTION record_change() RETURNS trigger
+    LANGUAGE plpgsql
+    SET search_path FROM CURRENT
+AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO change_pending (entity, entity_id, operation) VALUES (TG_ARGV[0], OLD.id, 'DELETE');
+    ELSE
+        INSERT INTO change_pending (entity, entity_id, operation) VALUES (TG_ARGV[0], NEW.id, 'UPSERT');
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER departments_changed AFTER INSERT OR DELETE ON departments
+    FOR EACH ROW EXECUTE FUNCTION record_change('DEPARTMENT');
+CREATE TRIGGER departments_updated AFTER UPDATE ON departments
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*) EXECUTE FUNCTION record_change('DEPARTMENT');
+
+CREATE TRIGGER employees_changed AFTER INSERT OR DELETE ON employees
+    FOR EACH ROW EXECUTE FUNCTION record_change('EMPLOYEE');
+CREATE TRIGGER employees_updated AFTER UPDATE ON employees
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*) EXECUTE FUNCTION record_change('EMPLOYEE');
+
+CREATE TRIGGER customers_changed AFTER INSERT OR DELETE ON customers
+    FOR EACH ROW EXECUTE FUNCTION record_change('CUSTOMER');
+CREATE TRIGGER customers_updated AFTER UPDATE ON customers
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*) EXECUTE FUNCTION record_change('CUSTOMER');
+
+CREATE TRIGGER orders_changed AFTER INSERT OR DELETE ON orders
+    FOR EACH ROW EXECUTE FUNCTION record_change('ORDER');
+CREATE TRIGGER orders_updated AFTER UPDATE ON orders
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*) EXECUTE FUNCTION record_change('ORDER');
+
+CREATE TRIGGER products_changed AFTER INSERT OR DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION record_change('PRODUCT');
+CREATE TRIGGER products_updated AFTER UPDATE ON products
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*) EXECUTE FUNCTION record_change('PRODUCT');
@@ -0,0 +1,20 @@
+-- Удаление заказа архиватором помечается в журнале как ARCHIVE: заказ по-прежнему читается по ID,
+-- и потребителям не нужно удалять его у себя. Архиватор выставляет shop.archiving в своей транзакции
+CREATE OR REPLACE FUNCTION record_change() RETURNS trigger
+    LANGUAGE plpgsql
+    SET search_path FROM CURRENT
+AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO change_pending (entity, entity_id, operation)
+        VALUES (TG_ARGV[0], OLD.id,
+                CASE WHEN current_setting('shop.archiving', true) = 'on' THEN 'ARCHIVE' ELSE 'DELETE' END);
+    ELSE
+        INSERT INTO change_pending (entity, entity_id, operation) VALUES (TG_ARGV[0], NEW.id, 'UPSERT');
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+DROP INDEX idx_change_journal_deleted_at;
+CREATE INDEX idx_change_journal_deleted_at ON change_journal(changed_at) WHERE operation IN ('DELETE', 'ARCHIVE');
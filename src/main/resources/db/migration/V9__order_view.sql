@@ -0,0 +1,25 @@
+-- Денормализованная модель чтения заказов: имена клиента и сотрудника лежат в строке заказа,
+-- поэтому чтение заказов — скан одной таблицы без join. Обновляется сервисами в транзакции записи;
+-- строка удаляется вместе с заказом (в том числе при архивации) каскадом по внешнему ключу
+CREATE TABLE order_view (
+                            id BIGINT PRIMARY KEY REFERENCES orders(id) ON DELETE CASCADE,
+                            amount BIGINT NOT NULL,
+                            customer_id BIGINT,
+                            customer_name VARCHAR(255),
+                            employee_id BIGINT,
+                            employee_name VARCHAR(255),
+                            created_at timestamp NOT NULL,
+                            updated_at timestamp NOT NULL
+);
+
+-- Список заказов сортируется по created_at DESC; фильтр по клиенту/сотруднику и переименование
+-- идут по индексам (customer_id, created_at) и (employee_id, created_at)
+CREATE INDEX idx_order_view_created_at ON order_view(created_at DESC);
+CREATE INDEX idx_order_view_customer ON order_view(customer_id, created_at DESC);
+CREATE INDEX idx_order_view_employee ON order_view(employee_id, created_at DESC);
+
+INSERT INTO order_view (id, amount, customer_id, customer_name, employee_id, employee_name, created_at, updated_at)
+SELECT o.id, o.amount, o.customer_id, c.name, o.employee_id, e.name, o.created_at, o.updated_at
+FROM orders o
+         LEFT JOIN customers c ON c.id = o.customer_id
+         LEFT JOIN employees e ON e.id = o.employee_id;
@@ -0,0 +1,77 @@
+package com.onlineshop.test.configuration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Integration tests
+@Testcontainers
+@ActiveProfiles("fast-startup")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class FastStartupContextTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private Collection<ScheduledTaskHolder> scheduledTaskHolders;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Test
+    @DisplayName("Job queue schedules are registered despite lazy initialization")
+    void fastStartup_ShouldRegisterJobQueueSchedules() {
+        assertThat(scheduledTasks())
+                .anyMatch(task -> task.contains("JobScheduler."))
+                .anyMatch(task -> task.contains("JobWorker."));
+    }
+
+    @Test
+    @DisplayName("Job handlers are created at startup so the worker can find them")
+    void fastStartup_ShouldCreateJobHandlers() {
+        assertThat(context.getBeanFactory().containsSingleton("finishedJobsCleanup")).isTrue();
+        assertThat(context.getBeanFactory().containsSingleton("customerScoring")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Order archival is scheduled despite lazy initialization")
+    void fastStartup_ShouldRegisterOrderArchival() {
+        assertThat(scheduledTasks()).anyMatch(task -> task.contains("OrderArchiver.run"));
+    }
+
+    @Test
+    @DisplayName("Cache invalidation listener starts although nothing injects it")
+    void fastStartup_ShouldStartInvalidationListener() {
+        assertThat(context.getBeanFactory().containsSingleton("invalidationListener")).isTrue();
+    }
+
+    // Имена вида com.onlineshop.test.support.jobs.JobWorker.poll
+    private List<String> scheduledTasks() {
+        return scheduledTaskHolders.stream()
+                .flatMap(holder -> holder.getScheduledTasks().stream())
+                .map(Object::toString)
+                .toList();
+    }
+}
@@ -0,0 +1,76 @@
+package com.onlineshop.test.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlineshop.test.dto.response.OrderResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Benchmark: размер ответа и время сериализации 10 000 заказов в JSON, CBOR и Smile (./gradlew benchmark).
+// Результаты пока не сняты: выигрыш бинарных форматов не подтверждён, проверяется только меньший размер
+@Tag("benchmark")
+class SerializationFormatBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SerializationFormatBenchmarkTest.class);
+
+    private static final int ROWS = 10_000;
+    private static final int ITERATIONS = 20;
+
+    private final List<OrderResponse> orders = LongStream.rangeClosed(1, ROWS)
+            .mapToObj(id -> new OrderResponse(
+                    id,
+                    id * 100,
+                    "Customer " + (id % 500),
+                    "Employee " + (id % 50),
+                    LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id)))
+            .toList();
+
+    @Test
+    @DisplayName("Binary formats are smaller than JSON")
+    void binaryFormats_ShouldBeSmallerThanJson() throws IOException {
+        var json = measure("json", Jackson2ObjectMapperBuilder.json().build());
+        var cbor = measure("cbor", Jackson2ObjectMapperBuilder.cbor().build());
+        var smile = measure("smile", Jackson2ObjectMapperBuilder.smile().build());
+
+        assertThat(cbor).isLessThan(json);
+        assertThat(smile).isLessThan(json);
+    }
+
+    private int measure(String format, ObjectMapper mapper) throws IOException {
+        // Прогрев JIT
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(orders);
+        }
+
+        long start = System.nanoTime();
+        byte[] body = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            body = mapper.writeValueAsBytes(orders);
+        }
+        long avgMicros = (System.nanoTime() - start) / ITERATIONS / 1_000;
+
+        log.info("{} rows={} bytes={} gzip={} serialize={}us", format, ROWS, body.length, gzip(body), avgMicros);
+
+        return body.length;
+    }
+
+    private static int gzip(byte[] body) throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.size();
+    }
+}
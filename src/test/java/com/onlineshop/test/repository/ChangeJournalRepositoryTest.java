@@ -0,0 +1,86 @@
+package com.onlineshop.test.repository;
+
+import com.onlineshop.test.entity.ChangeEntity;
+import com.onlineshop.test.entity.ChangeJournalEntry;
+import com.onlineshop.test.entity.ChangeOperation;
+import com.onlineshop.test.entity.Customer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Integration tests
+@DataJpaTest
+@Testcontainers
+class ChangeJournalRepositoryTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private ChangeJournalRepository changeJournalRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    @DisplayName("Repeated changes of an entity are compacted into one entry with a newer seq")
+    void sequencePending_ShouldKeepLatestChangePerEntity() {
+        var customer = customerRepository.saveAndFlush(customer("John"));
+        changeJournalRepository.sequencePending(100);
+        var created = changeJournalRepository.findAfter(0, Limit.of(10));
+
+        customer.setCity("Boston");
+        customerRepository.saveAndFlush(customer);
+        customerRepository.delete(customer);
+        customerRepository.flush();
+        changeJournalRepository.sequencePending(100);
+        var changes = changeJournalRepository.findAfter(0, Limit.of(10));
+
+        assertThat(created).extracting(ChangeJournalEntry::getOperation).containsExactly(ChangeOperation.UPSERT);
+        assertThat(changes).hasSize(1);
+        assertThat(changes.get(0).getEntity()).isEqualTo(ChangeEntity.CUSTOMER);
+        assertThat(changes.get(0).getEntityId()).isEqualTo(customer.getId());
+        assertThat(changes.get(0).getOperation()).isEqualTo(ChangeOperation.DELETE);
+        assertThat(changes.get(0).getSeq()).isGreaterThan(created.get(0).getSeq());
+    }
+
+    @Test
+    @DisplayName("Purging old tombstones advances purged_seq")
+    void purgeDeletedBefore_ShouldAdvancePurgedSeq() {
+        var customer = customerRepository.saveAndFlush(customer("Jane"));
+        customerRepository.delete(customer);
+        customerRepository.flush();
+        changeJournalRepository.sequencePending(100);
+        long head = changeJournalRepository.findHead();
+
+        changeJournalRepository.purgeDeletedBefore(LocalDateTime.now().plusMinutes(1));
+
+        assertThat(changeJournalRepository.findPurgedSeq()).isEqualTo(head);
+        assertThat(changeJournalRepository.findAfter(0, Limit.of(10))).isEmpty();
+    }
+
+    private static Customer customer(String name) {
+        var customer = new Customer();
+        customer.setName(name);
+        customer.setCity("New York");
+        return customer;
+    }
+}
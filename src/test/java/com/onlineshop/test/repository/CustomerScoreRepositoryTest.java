@@ -0,0 +1,121 @@
+package com.onlineshop.test.repository;
+
+import com.onlineshop.test.entity.Customer;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Integration tests
+@DataJpaTest
+@Testcontainers
+class CustomerScoreRepositoryTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private CustomerScoreRepository customerScoreRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Refresh aggregates queued customers, rescore ranks them and the queue is drained")
+    void refreshChunk_ShouldAggregateOrdersOfQueuedCustomers() {
+        var loyal = customer("Loyal");
+        var occasional = customer("Occasional");
+        order(loyal, 300);
+        order(loyal, 700);
+        order(occasional, 100);
+
+        Long last = customerScoreRepository.refreshChunk(0, Long.MAX_VALUE, 1000);
+        customerScoreRepository.rescore();
+        entityManager.clear();
+
+        assertThat(last).isEqualTo(occasional.getId());
+        assertThat(customerScoreRepository.refreshChunk(0, Long.MAX_VALUE, 1000)).isNull();
+
+        var score = customerScoreRepository.findById(loyal.getId()).orElseThrow();
+        assertThat(score.getOrders()).isEqualTo(2);
+        assertThat(score.getAmount()).isEqualTo(1000);
+        assertThat(score.getMonetaryScore()).isGreaterThan(
+                customerScoreRepository.findById(occasional.getId()).orElseThrow().getMonetaryScore());
+    }
+
+    @Test
+    @DisplayName("Customer whose last order is deleted loses the score")
+    void refreshChunk_ShouldRemoveScore_WhenCustomerHasNoOrders() {
+        var customer = customer("Gone");
+        long orderId = order(customer, 500);
+        customerScoreRepository.refreshChunk(0, Long.MAX_VALUE, 1000);
+
+        entityManager.createNativeQuery("DELETE FROM postgres.orders WHERE id = :id")
+                .setParameter("id", orderId)
+                .executeUpdate();
+        customerScoreRepository.refreshChunk(0, Long.MAX_VALUE, 1000);
+        entityManager.clear();
+
+        assertThat(customerScoreRepository.findById(customer.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Archiving orders keeps the customer score and later refreshes still count them")
+    void refreshChunk_ShouldKeepArchivedOrders_WhenOrdersAreArchived() {
+        var customer = customer("Regular");
+        long archivedId = order(customer, 400);
+        order(customer, 600);
+        customerScoreRepository.refreshChunk(0, Long.MAX_VALUE, 1000);
+
+        entityManager.createNativeQuery("SELECT set_config('shop.archiving', 'on', true)").getSingleResult();
+        entityManager.createNativeQuery("DELETE FROM postgres.orders WHERE id = :id")
+                .setParameter("id", archivedId)
+                .executeUpdate();
+        entityManager.createNativeQuery("SELECT set_config('shop.archiving', 'off', true)").getSingleResult();
+        assertThat(customerScoreRepository.refreshChunk(0, Long.MAX_VALUE, 1000)).isNull();
+
+        // Новый заказ ставит клиента в очередь: пересчёт учитывает и архивированный заказ
+        order(customer, 100);
+        customerScoreRepository.refreshChunk(0, Long.MAX_VALUE, 1000);
+        entityManager.clear();
+
+        var score = customerScoreRepository.findById(customer.getId()).orElseThrow();
+        assertThat(score.getOrders()).isEqualTo(3);
+        assertThat(score.getAmount()).isEqualTo(1100);
+    }
+
+    private Customer customer(String name) {
+        var customer = new Customer();
+        customer.setName(name);
+        return customerRepository.saveAndFlush(customer);
+    }
+
+    private long order(Customer customer, long amount) {
+        return ((Number) entityManager.createNativeQuery("""
+                        INSERT INTO postgres.orders (created_at, updated_at, amount, customer_id)
+                        VALUES (LOCALTIMESTAMP, LOCALTIMESTAMP, :amount, :customerId)
+                        RETURNING id
+                        """)
+                .setParameter("amount", amount)
+                .setParameter("customerId", customer.getId())
+                .getSingleResult()).longValue();
+    }
+}
@@ -0,0 +1,74 @@
+package com.onlineshop.test.repository;
+
+import com.onlineshop.test.entity.Job;
+import com.onlineshop.test.entity.JobStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Integration tests
+@DataJpaTest
+@Testcontainers
+class JobRepositoryTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Test
+    @DisplayName("Only due pending jobs are claimed, earliest first")
+    void lockDue_ShouldReturnDueJobsInRunAtOrder() {
+        var now = LocalDateTime.now();
+        var late = jobRepository.save(job(now.minusMinutes(1)));
+        var early = jobRepository.save(job(now.minusMinutes(5)));
+        jobRepository.save(job(now.plusMinutes(5)));
+        jobRepository.flush();
+
+        assertThat(jobRepository.lockDue(now, 10)).extracting(Job::getId).containsExactly(early.getId(), late.getId());
+    }
+
+    @Test
+    @DisplayName("Completion by a worker that lost the lease is ignored")
+    void complete_ShouldRequireLeaseOwner() {
+        var job = job(LocalDateTime.now());
+        job.setStatus(JobStatus.RUNNING);
+        job.setLockedBy("worker-a");
+        jobRepository.saveAndFlush(job);
+
+        assertThat(jobRepository.complete(job.getId(), "worker-b", LocalDateTime.now())).isZero();
+        assertThat(jobRepository.complete(job.getId(), "worker-a", LocalDateTime.now())).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A due schedule is advanced exactly once")
+    void advanceSchedule_ShouldAdvanceOnce() {
+        var now = LocalDateTime.now();
+        jobRepository.registerSchedule("test", now.minusSeconds(1));
+
+        assertThat(jobRepository.advanceSchedule("test", now, now.plusHours(1))).isEqualTo(1);
+        assertThat(jobRepository.advanceSchedule("test", now, now.plusHours(1))).isZero();
+    }
+
+    private static Job job(LocalDateTime runAt) {
+        return new Job(null, "test", null, JobStatus.PENDING, runAt, 0, 3, null, null, null, LocalDateTime.now(), null);
+    }
+}
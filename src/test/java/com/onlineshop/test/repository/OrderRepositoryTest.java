@@ -0,0 +1,138 @@
+package com.onlineshop.test.repository;
+
+import com.onlineshop.test.dto.request.OrderFilterRequest;
+import com.onlineshop.test.entity.Customer;
+import com.onlineshop.test.repository.specification.OrderSpecifications;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Integration tests: проверка планов запросов по диапазонам дат
+@DataJpaTest
+@Testcontainers
+class OrderRepositoryTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Customer customer;
+
+    @BeforeEach
+    public void setUp() {
+        customer = new Customer();
+        customer.setName("John");
+        customer.setCity("New York");
+        customerRepository.saveAndFlush(customer);
+
+        // 20 000 заказов с монотонно растущим created_at, как в реальной таблице
+        entityManager.createNativeQuery("""
+                        INSERT INTO postgres.orders (created_at, updated_at, amount, customer_id)
+                        SELECT TIMESTAMP '2024-01-01' + g * INTERVAL '1 minute',
+                               TIMESTAMP '2024-01-01' + g * INTERVAL '1 minute',
+                               g % 1000,
+                               CASE WHEN g % 100 = 0 THEN :customerId END
+                        FROM generate_series(1, 20000) AS g
+                        """)
+                .setParameter("customerId", customer.getId())
+                .executeUpdate();
+        entityManager.createNativeQuery("ANALYZE postgres.orders").executeUpdate();
+    }
+
+    // Список заказов читает order_view (OrderViewRepositoryTest); по created_at в orders остаются
+    // агрегат рейтинга продаж (sumSalesByEmployeeMinute) и отбор заказов в архив
+    @Test
+    void testDateRangeUsesBrinIndex() {
+        var plan = explain("""
+                SELECT employee_id, sum(amount) FROM postgres.orders
+                WHERE created_at >= TIMESTAMP '2024-01-02' AND created_at < TIMESTAMP '2024-01-03'
+                GROUP BY employee_id
+                """);
+
+        assertThat(plan).contains("idx_orders_created_at_brin");
+    }
+
+    @Test
+    void testCustomerHistoryUsesHistoryIndex() {
+        // Часть findCustomerHistory по orders; имена и число позиций — пробы по ключам на строку страницы
+        var plan = explain("""
+                SELECT id, amount, employee_id, created_at FROM postgres.orders
+                WHERE customer_id = %d AND (created_at, id) < (TIMESTAMP '2024-01-02', 9223372036854775807)
+                ORDER BY created_at DESC, id DESC
+                LIMIT 20
+                """.formatted(customer.getId()));
+
+        // Index Only Scan планировщик выберет после VACUUM (карта видимости), в транзакции теста проверяем индекс
+        assertThat(plan).contains("idx_orders_customer_history");
+    }
+
+    @Test
+    void testCustomerHistoryKeysetPages() {
+        var first = orderRepository.findCustomerHistory(
+                customer.getId(), LocalDateTime.of(9999, 1, 1, 0, 0), Long.MAX_VALUE, Limit.of(150));
+        var last = first.get(first.size() - 1);
+        var second = orderRepository.findCustomerHistory(
+                customer.getId(), last.createdAt(), last.id(), Limit.of(150));
+
+        // 200 заказов клиента: страница из 150 и остаток из 50 без пересечений
+        assertThat(first).hasSize(150);
+        assertThat(second).hasSize(50);
+        assertThat(second.get(0).createdAt()).isBefore(last.createdAt());
+        assertThat(second).allMatch(order -> order.itemCount() == 0);
+    }
+
+    @Test
+    void testFindAllBySpecification() {
+        var filter = new OrderFilterRequest();
+        filter.setFrom(LocalDateTime.of(2024, 1, 2, 0, 0));
+        filter.setTo(LocalDateTime.of(2024, 1, 3, 0, 0));
+        filter.setCustomerId(customer.getId());
+
+        var orders = orderRepository.findAll(OrderSpecifications.byFilter(filter));
+
+        // 1440 минут в сутках, каждый сотый заказ принадлежит клиенту
+        assertThat(orders).hasSize(14);
+    }
+
+    private String explain(String sql) {
+        // На маленькой таблице планировщик может предпочесть seq scan, поэтому запрещаем его явно
+        entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+
+        List<?> rows = entityManager
+                .createNativeQuery("EXPLAIN " + sql)
+                .getResultList();
+
+        return rows.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,214 @@
+package com.onlineshop.test.repository;
+
+import com.onlineshop.test.dto.request.OrderFilterRequest;
+import com.onlineshop.test.entity.Customer;
+import com.onlineshop.test.repository.specification.OrderViewSpecifications;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Integration tests
+@DataJpaTest
+@Testcontainers
+class OrderViewRepositoryTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Refresh copies the customer name, rename and order deletion are reflected in the view")
+    void refreshRange_ShouldDenormalizeCustomerName() {
+        var customer = new Customer();
+        customer.setName("John");
+        customer.setCity("New York");
+        customerRepository.saveAndFlush(customer);
+
+        long orderId = ((Number) entityManager.createNativeQuery("""
+                        INSERT INTO postgres.orders (created_at, updated_at, amount, customer_id)
+                        VALUES (LOCALTIMESTAMP, LOCALTIMESTAMP, 500, :customerId)
+                        RETURNING id
+                        """)
+                .setParameter("customerId", customer.getId())
+                .getSingleResult()).longValue();
+
+        orderViewRepository.refresh(orderId);
+        orderViewRepository.renameCustomer(customer.getId(), "Johnny");
+        entityManager.clear();
+
+        var view = orderViewRepository.findById(orderId).orElseThrow();
+        assertThat(view.getAmount()).isEqualTo(500);
+        assertThat(view.getCustomerName()).isEqualTo("Johnny");
+
+        entityManager.createNativeQuery("DELETE FROM postgres.orders WHERE id = :id")
+                .setParameter("id", orderId)
+                .executeUpdate();
+        entityManager.clear();
+
+        assertThat(orderViewRepository.findById(orderId)).isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Refresh waits for an uncommitted customer rename and copies the new name")
+    void refreshRange_ShouldCopyNewName_WhenRenameCommitsDuringRefresh() throws Exception {
+        var customer = new Customer();
+        customer.setName("John");
+        customer.setCity("Boston");
+        customerRepository.saveAndFlush(customer);
+
+        var transaction = new TransactionTemplate(transactionManager);
+        long orderId = transaction.execute(status -> ((Number) entityManager.createNativeQuery("""
+                        INSERT INTO postgres.orders (created_at, updated_at, amount, customer_id)
+                        VALUES (LOCALTIMESTAMP, LOCALTIMESTAMP, 300, :customerId)
+                        RETURNING id
+                        """)
+                .setParameter("customerId", customer.getId())
+                .getSingleResult()).longValue());
+
+        var renamed = new CountDownLatch(1);
+        try (var executor = Executors.newSingleThreadExecutor()) {
+            // Переименование обновило клиента, но модель ещё не трогало и не закоммичено
+            var rename = executor.submit(() -> transaction.executeWithoutResult(status -> {
+                entityManager.createNativeQuery("UPDATE postgres.customers SET name = 'Johnny' WHERE id = :id")
+                        .setParameter("id", customer.getId())
+                        .executeUpdate();
+                renamed.countDown();
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(renamed.await(5, TimeUnit.SECONDS)).isTrue();
+
+            transaction.executeWithoutResult(status -> orderViewRepository.refresh(orderId));
+            assertThat(rename).succeedsWithin(5, TimeUnit.SECONDS);
+        }
+
+        assertThat(orderViewRepository.findById(orderId).orElseThrow().getCustomerName()).isEqualTo("Johnny");
+    }
+
+    // GET /api/orders читает order_view: проверяем планы именно этих запросов, а не orders
+    @Test
+    @DisplayName("Date range filter on the order list uses idx_order_view_created_at")
+    void findAll_ShouldUseCreatedAtIndex_WhenFilteredByDateRange() {
+        seedOrders();
+
+        var plan = explain("""
+                SELECT * FROM postgres.order_view
+                WHERE created_at >= TIMESTAMP '2024-01-02' AND created_at < TIMESTAMP '2024-01-03'
+                  AND amount >= 500
+                ORDER BY created_at DESC
+                """);
+
+        assertThat(plan).contains("idx_order_view_created_at");
+    }
+
+    @Test
+    @DisplayName("Customer filter on the order list uses idx_order_view_customer")
+    void findAll_ShouldUseCustomerIndex_WhenFilteredByCustomer() {
+        var customerId = seedOrders();
+
+        var plan = explain("""
+                SELECT * FROM postgres.order_view
+                WHERE created_at >= TIMESTAMP '2024-01-02' AND created_at < TIMESTAMP '2024-01-03'
+                  AND customer_id = %d
+                ORDER BY created_at DESC
+                """.formatted(customerId));
+
+        assertThat(plan).contains("idx_order_view_customer");
+    }
+
+    @Test
+    @DisplayName("Order list filter selects matching rows of the view")
+    void findAll_ShouldReturnMatchingOrders_WhenFilteredBySpecification() {
+        var filter = new OrderFilterRequest();
+        filter.setFrom(LocalDateTime.of(2024, 1, 2, 0, 0));
+        filter.setTo(LocalDateTime.of(2024, 1, 3, 0, 0));
+        filter.setCustomerId(seedOrders());
+
+        var orders = orderViewRepository.findAll(
+                OrderViewSpecifications.byFilter(filter), Sort.by(Sort.Direction.DESC, "createdAt"));
+
+        // 1440 минут в сутках, каждый сотый заказ принадлежит клиенту
+        assertThat(orders).hasSize(14);
+        assertThat(orders).allMatch(order -> "John".equals(order.getCustomerName()));
+    }
+
+    // 20 000 заказов с монотонно растущим created_at, каждый сотый — одного клиента; возвращает ID клиента
+    private Long seedOrders() {
+        var customer = new Customer();
+        customer.setName("John");
+        customer.setCity("New York");
+        customerRepository.saveAndFlush(customer);
+
+        entityManager.createNativeQuery("""
+                        INSERT INTO postgres.orders (created_at, updated_at, amount, customer_id)
+                        SELECT TIMESTAMP '2024-01-01' + g * INTERVAL '1 minute',
+                               TIMESTAMP '2024-01-01' + g * INTERVAL '1 minute',
+                               g % 1000,
+                               CASE WHEN g % 100 = 0 THEN :customerId END
+                        FROM generate_series(1, 20000) AS g
+                        """)
+                .setParameter("customerId", customer.getId())
+                .executeUpdate();
+        orderViewRepository.refreshRange(0, Long.MAX_VALUE);
+        entityManager.createNativeQuery("ANALYZE postgres.order_view").executeUpdate();
+        entityManager.clear();
+
+        return customer.getId();
+    }
+
+    private String explain(String sql) {
+        // На маленькой таблице планировщик может предпочесть seq scan, поэтому запрещаем его явно
+        entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+
+        List<?> rows = entityManager
+                .createNativeQuery("EXPLAIN " + sql)
+                .getResultList();
+
+        return rows.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining("\n"));
+    }
+}
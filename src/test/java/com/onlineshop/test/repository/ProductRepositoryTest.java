@@ -0,0 +1,119 @@
+package com.onlineshop.test.repository;
+
+import com.onlineshop.test.entity.Product;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Integration tests
+@DataJpaTest
+@Testcontainers
+class ProductRepositoryTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Price at an instant comes from the latest history row not after it")
+    void findPriceAt_ShouldReturnPriceValidAtInstant() {
+        var product = new Product();
+        product.setName("Laptop");
+        product.setPrice(1200L);
+        productRepository.saveAndFlush(product);
+        history(product.getId(), "2020-01-01 00:00:00", 1000);
+        history(product.getId(), "2021-01-01 00:00:00", 1100);
+
+        assertThat(productRepository.findPriceAt(product.getId(), LocalDateTime.of(2020, 6, 1, 0, 0))).contains(1000L);
+        assertThat(productRepository.findPriceAt(product.getId(), LocalDateTime.of(2021, 1, 1, 0, 0))).contains(1100L);
+        assertThat(productRepository.findPriceAt(product.getId(), LocalDateTime.now().plusMinutes(1))).contains(1200L);
+        assertThat(productRepository.findPriceAt(product.getId(), LocalDateTime.of(2019, 1, 1, 0, 0))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Batch pricing keeps the order of pairs and returns null for unknown prices")
+    void findPricesAt_ShouldPriceEveryPairInOrder() {
+        var product = new Product();
+        product.setName("Mouse");
+        product.setPrice(30L);
+        productRepository.saveAndFlush(product);
+        history(product.getId(), "2020-01-01 00:00:00", 20);
+
+        var prices = productRepository.findPricesAt(
+                new Long[]{product.getId(), product.getId(), product.getId()},
+                new LocalDateTime[]{LocalDateTime.of(2020, 2, 1, 0, 0), LocalDateTime.of(2019, 1, 1, 0, 0), LocalDateTime.now().plusMinutes(1)});
+
+        assertThat(prices).extracting(ProductRepository.PriceAt::getPrice).containsExactly(20L, null, 30L);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Of two overlapping price changes the later change stays current")
+    void recordPrice_ShouldKeepLaterChange_WhenTransactionsOverlap() {
+        var product = new Product();
+        product.setName("Keyboard");
+        product.setPrice(50L);
+        productRepository.saveAndFlush(product);
+
+        var outer = new TransactionTemplate(transactionManager);
+        var inner = new TransactionTemplate(transactionManager);
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        outer.executeWithoutResult(status -> {
+            // Внешняя транзакция начинается раньше, а цену меняет уже после коммита внутренней
+            entityManager.createNativeQuery("SELECT 1").getSingleResult();
+            inner.executeWithoutResult(innerStatus -> setPrice(product.getId(), 60));
+            setPrice(product.getId(), 70);
+        });
+
+        assertThat(productRepository.findPriceAt(product.getId(), LocalDateTime.now().plusMinutes(1))).contains(70L);
+    }
+
+    private void setPrice(Long productId, long price) {
+        entityManager.createNativeQuery("UPDATE postgres.products SET price = :price WHERE id = :productId")
+                .setParameter("productId", productId)
+                .setParameter("price", price)
+                .executeUpdate();
+    }
+
+    private void history(Long productId, String validFrom, long price) {
+        entityManager.createNativeQuery("""
+                        INSERT INTO postgres.product_prices (product_id, valid_from, price)
+                        VALUES (:productId, CAST(:validFrom AS timestamp), :price)
+                        """)
+                .setParameter("productId", productId)
+                .setParameter("validFrom", validFrom)
+                .setParameter("price", price)
+                .executeUpdate();
+    }
+}
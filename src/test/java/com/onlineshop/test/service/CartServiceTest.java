@@ -0,0 +1,142 @@
+package com.onlineshop.test.service;
+
+import com.onlineshop.test.configuration.CartProperties;
+import com.onlineshop.test.dto.request.CartItemRequest;
+import com.onlineshop.test.dto.request.CartRequest;
+import com.onlineshop.test.dto.request.CheckoutRequest;
+import com.onlineshop.test.entity.Product;
+import com.onlineshop.test.exception.CartCheckoutInProgressException;
+import com.onlineshop.test.exception.CartLimitExceededException;
+import com.onlineshop.test.exception.InsufficientStockException;
+import com.onlineshop.test.repository.CustomerRepository;
+import com.onlineshop.test.repository.EmployeeRepository;
+import com.onlineshop.test.repository.ProductRepository;
+import com.onlineshop.test.support.cart.CartStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// Unit tests
+@ExtendWith(MockitoExtension.class)
+class CartServiceTest {
+
+    private static final long PRODUCT_ID = 7L;
+
+    @Mock
+    OrderService orderService;
+    @Mock
+    CustomerRepository customerRepository;
+    @Mock
+    EmployeeRepository employeeRepository;
+    @Mock
+    ProductRepository productRepository;
+
+    CartService cartService;
+    UUID cartId;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new CartProperties(100, 10, 1_000, Duration.ofHours(1), false);
+        var meterRegistry = new SimpleMeterRegistry();
+        cartService = new CartService(new CartStore(properties, null, null, meterRegistry), properties, orderService,
+                customerRepository, employeeRepository, productRepository, meterRegistry);
+
+        when(customerRepository.existsById(anyLong())).thenReturn(true);
+        when(productRepository.existsById(PRODUCT_ID)).thenReturn(true);
+        when(employeeRepository.existsById(anyLong())).thenReturn(true);
+
+        cartId = cartService.createCart(cartRequest()).id();
+        var item = new CartItemRequest();
+        item.setQuantity(2);
+        cartService.setItem(cartId, PRODUCT_ID, item);
+    }
+
+    @Test
+    @DisplayName("Checkout rejects an order amount that overflows long")
+    void checkout_ShouldThrowCartLimitExceeded_WhenAmountOverflows() {
+        when(productRepository.findAllById(List.of(PRODUCT_ID)))
+                .thenReturn(List.of(new Product(PRODUCT_ID, Long.MAX_VALUE / 2 + 1, "Product")));
+
+        assertThrows(CartLimitExceededException.class, () -> cartService.checkout(cartId, checkoutRequest()));
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    @DisplayName("Cart is not locked while the order is created and is reopened when creation fails")
+    void checkout_ShouldReleaseCart_WhenOrderCreationFails() throws Exception {
+        when(productRepository.findAllById(List.of(PRODUCT_ID)))
+                .thenReturn(List.of(new Product(PRODUCT_ID, 100L, "Product")));
+
+        var creating = new CountDownLatch(1);
+        var proceed = new CountDownLatch(1);
+        when(orderService.createOrder(any())).thenAnswer(invocation -> {
+            creating.countDown();
+            proceed.await(5, TimeUnit.SECONDS);
+            throw new InsufficientStockException(PRODUCT_ID, 2L);
+        });
+
+        try (var executor = Executors.newSingleThreadExecutor()) {
+            var checkout = executor.submit(() -> cartService.checkout(cartId, checkoutRequest()));
+            assertThat(creating.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Монитор корзины свободен: чтение не ждёт создания заказа, а повторное оформление отклоняется
+            assertThat(cartService.getCart(cartId).items()).hasSize(1);
+            assertThrows(CartCheckoutInProgressException.class, () -> cartService.checkout(cartId, checkoutRequest()));
+
+            proceed.countDown();
+            assertThat(checkout).failsWithin(5, TimeUnit.SECONDS);
+        }
+
+        // После неудачи корзина снова меняется
+        assertThat(cartService.removeItem(cartId, PRODUCT_ID).items()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Cart being checked out is not evicted, so it cannot be checked out twice")
+    void checkout_ShouldKeepCartInMemory_WhileOrderIsCreated() {
+        when(productRepository.findAllById(List.of(PRODUCT_ID)))
+                .thenReturn(List.of(new Product(PRODUCT_ID, 100L, "Product")));
+        when(orderService.createOrder(any())).thenAnswer(invocation -> {
+            // Хранилище переполняется: вытесненная корзина без spill пропала бы вместе с флагом оформления
+            for (int i = 0; i < 200; i++) {
+                cartService.createCart(cartRequest());
+            }
+
+            assertThat(cartService.getCart(cartId).items()).hasSize(1);
+            assertThrows(CartCheckoutInProgressException.class, () -> cartService.checkout(cartId, checkoutRequest()));
+            return null;
+        });
+
+        cartService.checkout(cartId, checkoutRequest());
+    }
+
+    private static CartRequest cartRequest() {
+        var request = new CartRequest();
+        request.setCustomerId(1L);
+        return request;
+    }
+
+    private static CheckoutRequest checkoutRequest() {
+        var request = new CheckoutRequest();
+        request.setEmployeeId(1L);
+        return request;
+    }
+}
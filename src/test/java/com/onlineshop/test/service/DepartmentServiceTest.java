@@ -5,6 +5,8 @@ import com.onlineshop.test.entity.Department;
 import com.onlineshop.test.exception.DepartmentNotFoundException;
 import com.onlineshop.test.mapper.DepartmentMapper;
 import com.onlineshop.test.repository.DepartmentRepository;
+import com.onlineshop.test.support.cache.LocalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -34,6 +36,9 @@ class DepartmentServiceTest {
     DepartmentMapper departmentMapper;
     @Mock
     DepartmentRepository departmentRepository;
+    // Кэш нулевого размера: каждое чтение идёт в репозиторий
+    @Spy
+    LocalCache<DepartmentResponse> departmentCache = new LocalCache<>("departments", 0, 0, new SimpleMeterRegistry());
 
     @InjectMocks
     DepartmentService departmentService;
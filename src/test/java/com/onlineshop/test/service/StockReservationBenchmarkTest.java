@@ -0,0 +1,124 @@
+package com.onlineshop.test.service;
+
+import com.onlineshop.test.dto.request.ReservationRequest;
+import com.onlineshop.test.dto.request.StockRequest;
+import com.onlineshop.test.entity.Product;
+import com.onlineshop.test.exception.InsufficientStockException;
+import com.onlineshop.test.repository.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Benchmark: пропускная способность резервирования одного горячего товара (./gradlew benchmark);
+// проверка исчерпания остатка входит в обычный прогон тестов. Замеры пока не сняты: выигрыш шардов
+// над одной строкой остатка не подтверждён, проверяется только согласованность итогов
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class StockReservationBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationBenchmarkTest.class);
+
+    private static final int THREADS = 16;
+    private static final int RESERVATIONS_PER_THREAD = 100;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS + 2);
+    }
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Sharded stock keeps totals consistent under concurrent checkouts")
+    void reserve_ShouldKeepStockConsistent_WhenHotProductIsSharded() throws Exception {
+        long singleShard = measure(1);
+        long sharded = measure(16);
+
+        log.info("hot product checkouts/s: 1 shard={}, 16 shards={}", singleShard, sharded);
+    }
+
+    @Test
+    @DisplayName("Reservation fails when stock is exhausted")
+    void reserve_ShouldThrowInsufficientStock_WhenStockIsExhausted() {
+        var productId = createProduct(3, 2);
+
+        stockService.reserve(reservation(productId, 2L));
+
+        assertThrows(InsufficientStockException.class, () -> stockService.reserve(reservation(productId, 2L)));
+        assertThat(stockService.getStock(productId).available()).isEqualTo(1);
+    }
+
+    private long measure(int shards) throws Exception {
+        long initial = THREADS * RESERVATIONS_PER_THREAD * 2L;
+        var productId = createProduct(initial, shards);
+
+        var tasks = new ArrayList<Callable<Void>>();
+        for (int i = 0; i < THREADS; i++) {
+            tasks.add(() -> {
+                for (int j = 0; j < RESERVATIONS_PER_THREAD; j++) {
+                    stockService.reserve(reservation(productId, 1L));
+                }
+                return null;
+            });
+        }
+
+        long start = System.nanoTime();
+        try (var executor = Executors.newFixedThreadPool(THREADS)) {
+            for (var future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        var stock = stockService.getStock(productId);
+        assertThat(stock.available()).isEqualTo(initial - THREADS * RESERVATIONS_PER_THREAD);
+        assertThat(stock.reserved()).isEqualTo(THREADS * RESERVATIONS_PER_THREAD);
+
+        return THREADS * RESERVATIONS_PER_THREAD * 1_000_000_000L / elapsedNanos;
+    }
+
+    private Long createProduct(long quantity, int shards) {
+        var product = productRepository.save(new Product(null, 100L, "Hot product"));
+
+        var request = new StockRequest();
+        request.setQuantity(quantity);
+        request.setShards(shards);
+        stockService.setStock(product.getId(), request);
+
+        return product.getId();
+    }
+
+    private static ReservationRequest reservation(Long productId, Long quantity) {
+        var request = new ReservationRequest();
+        request.setProductId(productId);
+        request.setQuantity(quantity);
+        return request;
+    }
+}
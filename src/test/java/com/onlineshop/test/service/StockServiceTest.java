@@ -0,0 +1,128 @@
+package com.onlineshop.test.service;
+
+import com.onlineshop.test.configuration.StockProperties;
+import com.onlineshop.test.entity.Order;
+import com.onlineshop.test.entity.Product;
+import com.onlineshop.test.entity.ReservationStatus;
+import com.onlineshop.test.entity.StockReservation;
+import com.onlineshop.test.exception.ReservationNotUsableException;
+import com.onlineshop.test.mapper.ReservationMapper;
+import com.onlineshop.test.repository.ProductRepository;
+import com.onlineshop.test.repository.ProductStockShardRepository;
+import com.onlineshop.test.repository.StockReservationRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// Unit tests
+@ExtendWith(MockitoExtension.class)
+class StockServiceTest {
+
+    @Mock
+    ProductRepository productRepository;
+    @Mock
+    ProductStockShardRepository shardRepository;
+    @Mock
+    StockReservationRepository reservationRepository;
+    @Mock
+    ReservationMapper reservationMapper;
+    @Mock
+    StockProperties stockProperties;
+
+    @InjectMocks
+    StockService stockService;
+
+    @Captor
+    ArgumentCaptor<StockReservation> reservationCaptor;
+
+    @Test
+    @DisplayName("Order item with a reservation id takes over the reservation without claiming stock again")
+    void reserveForOrder_ShouldConfirmReservation_WhenReservationIdIsGiven() {
+        // Arrange
+        var order = new Order();
+        var reservation = reservation(7L, 2L, ReservationStatus.RESERVED, LocalDateTime.now().plusMinutes(5));
+        when(reservationRepository.lockById(1L)).thenReturn(Optional.of(reservation));
+
+        // Act
+        stockService.reserveForOrder(order, 7L, 2L, 1L);
+
+        // Assert
+        assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+        assertThat(reservation.getOrder()).isSameAs(order);
+        assertThat(reservation.getExpiresAt()).isNull();
+        verifyNoInteractions(shardRepository);
+    }
+
+    @Test
+    @DisplayName("Released, expired or mismatching reservation cannot be used by an order")
+    void reserveForOrder_ShouldThrowReservationNotUsable_WhenReservationIsNotActive() {
+        // Arrange
+        var released = reservation(7L, 2L, ReservationStatus.RELEASED, null);
+        var expired = reservation(7L, 2L, ReservationStatus.RESERVED, LocalDateTime.now().minusSeconds(1));
+        var otherQuantity = reservation(7L, 3L, ReservationStatus.RESERVED, LocalDateTime.now().plusMinutes(5));
+        when(reservationRepository.lockById(1L)).thenReturn(Optional.of(released));
+        when(reservationRepository.lockById(2L)).thenReturn(Optional.of(expired));
+        when(reservationRepository.lockById(3L)).thenReturn(Optional.of(otherQuantity));
+
+        // Act & Assert
+        assertThrows(ReservationNotUsableException.class, () -> stockService.reserveForOrder(new Order(), 7L, 2L, 1L));
+        assertThrows(ReservationNotUsableException.class, () -> stockService.reserveForOrder(new Order(), 7L, 2L, 2L));
+        assertThrows(ReservationNotUsableException.class, () -> stockService.reserveForOrder(new Order(), 7L, 2L, 3L));
+        verifyNoInteractions(shardRepository);
+    }
+
+    @Test
+    @DisplayName("Product without stock shards is ordered without claiming stock")
+    void reserveForOrder_ShouldSkipClaim_WhenProductHasNoShards() {
+        // Arrange
+        when(productRepository.existsById(7L)).thenReturn(true);
+        when(productRepository.getReferenceById(7L)).thenReturn(new Product(7L, 100L, "Product"));
+        when(shardRepository.countByProductId(7L)).thenReturn(0L);
+
+        // Act
+        stockService.reserveForOrder(new Order(), 7L, 2L, null);
+
+        // Assert
+        verify(shardRepository, never()).claimUnlocked(anyLong());
+        verify(reservationRepository).save(reservationCaptor.capture());
+        assertThat(reservationCaptor.getValue().getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+    }
+
+    @Test
+    @DisplayName("Deleting an order returns its stock")
+    void releaseForOrder_ShouldReturnStock_WhenOrderHasConfirmedReservations() {
+        // Arrange
+        var reservation = reservation(7L, 2L, ReservationStatus.CONFIRMED, null);
+        when(reservationRepository.lockConfirmedByOrderId(1L)).thenReturn(List.of(reservation));
+
+        // Act
+        stockService.releaseForOrder(1L);
+
+        // Assert
+        verify(shardRepository).addQuantityToFirstShard(7L, 2L);
+        assertThat(reservation.getStatus()).isEqualTo(ReservationStatus.RELEASED);
+    }
+
+    private static StockReservation reservation(Long productId, Long quantity, ReservationStatus status,
+                                                LocalDateTime expiresAt) {
+        return new StockReservation(null, new Product(productId, 100L, "Product"), null, quantity, status,
+                LocalDateTime.now(), expiresAt);
+    }
+}
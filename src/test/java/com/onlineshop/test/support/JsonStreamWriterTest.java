@@ -0,0 +1,89 @@
+package com.onlineshop.test.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlineshop.test.entity.Product;
+import com.onlineshop.test.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Integration tests
+@DataJpaTest
+@Testcontainers
+class JsonStreamWriterTest {
+
+    private static final int FLUSH_ROWS = 10;
+    private static final int ROWS = 35;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Streams every row as one JSON array and clears the persistence context every flush-rows rows")
+    void write_ShouldStreamAllRows_WhenRowsExceedFlushInterval() throws Exception {
+        var saved = productRepository.saveAll(IntStream.range(0, ROWS)
+                .mapToObj(i -> new Product(null, 100L + i, "Product " + i))
+                .toList());
+        productRepository.flush();
+        entityManager.clear();
+
+        // Сколько сущностей держит persistence context в момент маппинга каждой строки
+        var managed = new ArrayList<Integer>();
+        var writer = new JsonStreamWriter(objectMapper, entityManager, transactionManager, FLUSH_ROWS);
+        var out = new ByteArrayOutputStream();
+
+        writer.write(productRepository::streamAll, product -> {
+            managed.add(entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+            return new Row(product.getId(), product.getName());
+        }).writeTo(out);
+
+        var json = objectMapper.readTree(out.toByteArray());
+        assertThat(json.isArray()).isTrue();
+        List<Long> ids = StreamSupport.stream(json.spliterator(), false)
+                .map(row -> row.get("id").asLong())
+                .toList();
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(saved.stream().map(Product::getId).toList());
+
+        // Без очистки в контексте копились бы все 35 продуктов
+        assertThat(managed).hasSize(ROWS);
+        assertThat(managed).allMatch(count -> count <= FLUSH_ROWS);
+        assertThat(managed.get(FLUSH_ROWS)).isEqualTo(1);
+    }
+
+    private record Row(Long id, String name) {}
+}
@@ -0,0 +1,58 @@
+package com.onlineshop.test.support.admission;
+
+import com.onlineshop.test.configuration.AdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Unit tests
+class AdmissionControlFilterTest {
+
+    // Один слот и без очереди: пока внешний запрос выполняется, остальные получают 503
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(
+            new AdmissionProperties(null, 1_000, List.of(), new AdmissionProperties.Concurrency(
+                    true, 1, 1, 1, Duration.ofSeconds(1), 0.9, 0, Duration.ZERO, List.of("/api/orders/stream"))),
+            new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("SSE route bypasses the concurrency limit")
+    void doFilter_ShouldAdmitStreamRoute_WhenLimitIsReached() throws Exception {
+        var inner = new MockHttpServletResponse();
+
+        whileSlotIsTaken((request, response) ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/orders/stream"), inner, new MockFilterChain()));
+
+        assertThat(inner.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Accept: text/event-stream on another route does not bypass the concurrency limit")
+    void doFilter_ShouldShedRequest_WhenOnlyAcceptHeaderAsksForEventStream() throws Exception {
+        var inner = new MockHttpServletResponse();
+
+        whileSlotIsTaken((request, response) -> {
+            var spoofed = new MockHttpServletRequest("GET", "/api/orders");
+            spoofed.addHeader(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE);
+            filter.doFilter(spoofed, inner, new MockFilterChain());
+        });
+
+        assertThat(inner.getStatus()).isEqualTo(503);
+    }
+
+    private void whileSlotIsTaken(FilterChain chain) throws Exception {
+        var outer = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/orders/1"), outer, chain);
+        assertThat(outer.getStatus()).isEqualTo(200);
+    }
+}
@@ -0,0 +1,66 @@
+package com.onlineshop.test.support.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Unit tests
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    // Всплеск до 5 запросов, затем 10 запросов в секунду
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(5, 10, 1_000, clock::get);
+
+    @Test
+    @DisplayName("Burst up to capacity is admitted, the next request is rejected")
+    void tryAcquire_ShouldRejectAfterBurst() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("client")).isZero();
+        }
+
+        // Следующий токен появится через 100 мс
+        assertThat(limiter.tryAcquire("client")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    @DisplayName("Tokens are refilled over time")
+    void tryAcquire_ShouldAdmitAfterRefill() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("client");
+        }
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertThat(limiter.tryAcquire("client")).isZero();
+        assertThat(limiter.tryAcquire("client")).isPositive();
+    }
+
+    @Test
+    @DisplayName("Clients have independent buckets")
+    void tryAcquire_ShouldNotShareBucketsBetweenClients() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("client-1");
+        }
+
+        assertThat(limiter.tryAcquire("client-1")).isPositive();
+        assertThat(limiter.tryAcquire("client-2")).isZero();
+    }
+
+    @Test
+    @DisplayName("Idle clients are evicted when the table is full")
+    void tryAcquire_ShouldEvictIdleClients() {
+        var small = new TokenBucketRateLimiter(5, 10, 2, clock::get);
+        small.tryAcquire("client-1");
+        small.tryAcquire("client-2");
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        small.tryAcquire("client-3");
+
+        assertThat(small.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,57 @@
+package com.onlineshop.test.support.archive;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Unit tests
+class SegmentTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Every written order is found after reopening the segment, gaps are not")
+    void find_ShouldReturnWrittenOrders() throws Exception {
+        // Чётные id: нечётные попадают внутрь блоков, но в сегменте отсутствуют
+        var orders = LongStream.rangeClosed(1, 500)
+                .map(i -> i * 2)
+                .mapToObj(SegmentTest::order)
+                .toList();
+        Segment.write(directory.resolve("orders.seg"), orders, 16);
+
+        var segment = Segment.open(directory.resolve("orders.seg"));
+
+        assertThat(segment.recordCount()).isEqualTo(500);
+        assertThat(segment.find(2)).contains(orders.get(0));
+        assertThat(segment.find(514)).contains(orders.get(256));
+        assertThat(segment.find(1000)).contains(orders.get(499));
+        assertThat(segment.find(513)).isEmpty();
+        assertThat(segment.find(1002)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Null associations survive the round trip")
+    void find_ShouldKeepNullFields() throws Exception {
+        var order = new ArchivedOrder(7L, 100L, null, null, null, null,
+                LocalDateTime.of(2024, 1, 1, 12, 0), LocalDateTime.of(2024, 1, 1, 12, 0),
+                List.of(new ArchivedOrderItem(7L, null, 3L)));
+
+        var segment = Segment.write(directory.resolve("nulls.seg"), List.of(order), 64);
+
+        assertThat(segment.find(7)).contains(order);
+    }
+
+    private static ArchivedOrder order(long id) {
+        var createdAt = LocalDateTime.of(2023, 5, 1, 10, 30, 15, 123_000_000).plusMinutes(id);
+        return new ArchivedOrder(id, id * 100, id % 7, "Customer " + id % 7, id % 3, "Employee " + id % 3,
+                createdAt, createdAt, List.of(new ArchivedOrderItem(id, 1L, 2L), new ArchivedOrderItem(id, 5L, 1L)));
+    }
+}
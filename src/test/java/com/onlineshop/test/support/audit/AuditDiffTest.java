@@ -0,0 +1,40 @@
+package com.onlineshop.test.support.audit;
+
+import com.onlineshop.test.dto.response.ProductResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Unit tests
+class AuditDiffTest {
+
+    @Test
+    @DisplayName("Update keeps only the fields whose values changed")
+    void between_ShouldReturnChangedFields_WhenBothSnapshotsPresent() {
+        var before = new ProductResponse(1L, "Phone", 100L);
+        var after = new ProductResponse(1L, "Phone", 120L);
+
+        var changes = AuditDiff.between(before, after);
+
+        assertThat(changes).containsOnlyKeys("price");
+        assertThat(changes.get("price")).isEqualTo(new AuditDiff.Change(100L, 120L));
+    }
+
+    @Test
+    @DisplayName("Create records every non-null field")
+    void between_ShouldReturnAllFields_WhenBeforeIsNull() {
+        var changes = AuditDiff.between(null, new ProductResponse(1L, "Phone", 100L));
+
+        assertThat(changes).containsOnlyKeys("id", "name", "price");
+        assertThat(changes.get("name")).isEqualTo(new AuditDiff.Change(null, "Phone"));
+    }
+
+    @Test
+    @DisplayName("Unchanged snapshot produces an empty diff")
+    void between_ShouldReturnEmpty_WhenNothingChanged() {
+        var snapshot = new ProductResponse(1L, "Phone", 100L);
+
+        assertThat(AuditDiff.between(snapshot, snapshot)).isEmpty();
+    }
+}
@@ -0,0 +1,79 @@
+package com.onlineshop.test.support.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.onlineshop.test.configuration.AuditProperties;
+import com.onlineshop.test.entity.ChangeEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Unit tests
+class AuditLogTest {
+
+    private static final int MAX_RETRIES = 3;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AuditLog auditLog = new AuditLog(
+            new AuditProperties(true, AuditProperties.Durability.ASYNC, 100, 10,
+                    Duration.ofMillis(5), Duration.ofSeconds(1), Duration.ofMillis(5), MAX_RETRIES),
+            jdbcTemplate, new ObjectMapper(), "postgres", registry);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        auditLog.stop();
+    }
+
+    @Test
+    @DisplayName("Event whose changes cannot be serialized is dropped without blocking the others")
+    void record_ShouldDropEvent_WhenChangesCannotBeSerialized() throws InterruptedException {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(1L);
+        auditLog.start();
+
+        // У java.lang.Object нет свойств: Jackson отказывается его сериализовать
+        auditLog.record(ChangeEntity.ORDER, 1L, AuditOperation.CREATE, null, new Snapshot(new Object()));
+        auditLog.record(ChangeEntity.ORDER, 2L, AuditOperation.CREATE, null, new Snapshot("ok"));
+
+        awaitUntil(() -> registry.counter("audit.written").count() == 1);
+        assertThat(registry.counter("audit.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Batch that keeps failing is given up after max-retries attempts")
+    void record_ShouldGiveUpOnBatch_WhenRetriesAreExhausted() throws InterruptedException {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenThrow(new DataAccessResourceFailureException("audit_log недоступен"));
+        auditLog.start();
+
+        auditLog.record(ChangeEntity.ORDER, 1L, AuditOperation.CREATE, null, new Snapshot("lost"));
+
+        awaitUntil(() -> registry.counter("audit.failed").count() == 1);
+        // max-retries попыток пакетом и одна — по одному событию
+        verify(jdbcTemplate, times(MAX_RETRIES + 1)).execute(any(ConnectionCallback.class));
+        assertThat(registry.counter("audit.written").count()).isZero();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private record Snapshot(Object value) {}
+}
@@ -0,0 +1,94 @@
+package com.onlineshop.test.support.cache;
+
+import com.onlineshop.test.support.coalescing.CoalescingLoader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Unit tests
+class LocalCacheTest {
+
+    private final LocalCache<String> cache =
+            new LocalCache<>("test", 100, TimeUnit.MINUTES.toNanos(10), new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("Second read is served from the cache until the key is invalidated")
+    void get_ShouldLoadOnce_UntilInvalidated() {
+        var loads = new AtomicInteger();
+
+        cache.get(1L, id -> Optional.of("v" + loads.incrementAndGet()));
+        assertThat(cache.get(1L, id -> Optional.of("v" + loads.incrementAndGet()))).contains("v1");
+
+        cache.invalidate(List.of(1L));
+        assertThat(cache.get(1L, id -> Optional.of("v" + loads.incrementAndGet()))).contains("v2");
+    }
+
+    @Test
+    @DisplayName("Value loaded before a concurrent invalidation is not cached")
+    void get_ShouldNotCacheStaleValue_WhenInvalidatedDuringLoad() {
+        var stale = cache.get(1L, id -> {
+            cache.invalidate(List.of(id));
+            return Optional.of("stale");
+        });
+
+        assertThat(stale).contains("stale");
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Reader after an invalidation does not join a load that started before it")
+    void get_ShouldNotShareInFlightLoad_WhenInvalidatedDuringLoad() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var committed = new AtomicReference<>("old");
+
+        try (var loader = new CoalescingLoader<Long, String>(id -> {
+            var value = committed.get();
+            if (value.equals("old")) {
+                started.countDown();
+                awaitQuietly(release);
+            }
+            return Optional.of(value);
+        }); var executor = Executors.newSingleThreadExecutor()) {
+            var first = executor.submit(() -> cache.get(1L, loader::loadFresh));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // Запись закоммичена и инвалидировала ключ, пока первая загрузка ещё читает старое значение
+            committed.set("new");
+            cache.invalidate(List.of(1L));
+
+            assertThat(cache.get(1L, loader::loadFresh)).contains("new");
+
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).contains("old");
+            assertThat(cache.get(1L, loader::loadFresh)).contains("new");
+        }
+    }
+
+    @Test
+    @DisplayName("Invalidation message survives encode and parse")
+    void parse_ShouldRestoreEncodedMessage() {
+        var message = new InvalidationMessage("node", 42, "products", List.of(1L, 2L));
+
+        assertThat(InvalidationMessage.parse(message.encode())).contains(message);
+        assertThat(InvalidationMessage.parse("garbage")).isEmpty();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.onlineshop.test.support.coalescing;
+
+import com.onlineshop.test.exception.ProductNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Unit tests
+class CoalescingLoaderTest {
+
+    @Test
+    @DisplayName("Concurrent calls with the same key share one in-flight call")
+    void execute_ShouldShareInFlightCall() {
+        var singleFlight = new SingleFlight<Long, String>();
+        var calls = new AtomicInteger();
+        var pending = new CompletableFuture<String>();
+
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(singleFlight.execute(1L, key -> {
+                calls.incrementAndGet();
+                return pending;
+            }));
+        }
+        pending.complete("product-1");
+
+        assertThat(calls).hasValue(1);
+        assertThat(futures).allSatisfy(future -> assertThat(future).isCompletedWithValue("product-1"));
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Distinct keys within one window are loaded with a single batch")
+    void submit_ShouldMergeKeysIntoOneBatch() {
+        List<Set<Long>> batches = new CopyOnWriteArrayList<>();
+        try (var batcher = new MicroBatcher<Long, String>("test", ids -> {
+            batches.add(ids);
+            return Map.of(1L, "product-1", 2L, "product-2");
+        }, TimeUnit.MILLISECONDS.toNanos(50), 100, 1)) {
+
+            var first = batcher.submit(1L);
+            var second = batcher.submit(2L);
+            var missing = batcher.submit(3L);
+
+            assertThat(first.join()).isEqualTo("product-1");
+            assertThat(second.join()).isEqualTo("product-2");
+            assertThat(missing.join()).isNull();
+            assertThat(batches).containsExactly(Set.of(1L, 2L, 3L));
+        }
+    }
+
+    @Test
+    @DisplayName("Loader exceptions are rethrown unchanged")
+    void load_ShouldRethrowLoaderException() {
+        var loader = new CoalescingLoader<Long, String>(id -> {
+            throw new ProductNotFoundException(id);
+        });
+
+        assertThrows(ProductNotFoundException.class, () -> loader.load(1L));
+        assertThat(new CoalescingLoader<Long, String>(id -> Optional.empty()).load(1L)).isEmpty();
+    }
+}
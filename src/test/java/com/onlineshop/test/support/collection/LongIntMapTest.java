@@ -0,0 +1,49 @@
+package com.onlineshop.test.support.collection;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Unit tests
+class LongIntMapTest {
+
+    @Test
+    @DisplayName("Put with zero value removes the key")
+    void put_ShouldRemoveKey_WhenValueIsZero() {
+        var map = new LongIntMap();
+        map.put(42, 3);
+        map.put(42, 0);
+
+        assertThat(map.get(42)).isZero();
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Random operations match HashMap")
+    void operations_ShouldMatchHashMap() {
+        var random = new Random(7);
+        var map = new LongIntMap();
+        var expected = new HashMap<Long, Integer>();
+
+        // Маленький диапазон ключей, чтобы чаще попадать в коллизии и удаления внутри цепочек
+        for (int i = 0; i < 100_000; i++) {
+            long key = 1 + random.nextInt(64);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.getOrDefault(key, 0));
+                expected.remove(key);
+            } else {
+                int value = 1 + random.nextInt(100);
+                map.put(key, value);
+                expected.put(key, value);
+            }
+            assertThat(map.size()).isEqualTo(expected.size());
+        }
+
+        expected.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+        map.forEach((key, value) -> assertThat(expected).containsEntry(key, value));
+    }
+}
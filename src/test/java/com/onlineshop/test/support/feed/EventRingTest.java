@@ -0,0 +1,55 @@
+package com.onlineshop.test.support.feed;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Unit tests
+class EventRingTest {
+
+    @Test
+    @DisplayName("Overwritten events are no longer readable, the tail moves forward")
+    void get_ShouldReturnNull_WhenEventOverwritten() {
+        var ring = new EventRing<Integer>(4);
+        IntStream.range(0, 6).forEach(ring::publish);
+
+        assertThat(ring.head()).isEqualTo(6);
+        assertThat(ring.tail()).isEqualTo(2);
+        assertThat(ring.get(1)).isNull();
+        assertThat(ring.get(2)).isEqualTo(2);
+        assertThat(ring.get(5)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Capacity must be a power of two")
+    void constructor_ShouldReject_WhenCapacityNotPowerOfTwo() {
+        assertThatThrownBy(() -> new EventRing<Integer>(100)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Concurrent publishers get distinct sequences and every published event is visible")
+    void publish_ShouldBeThreadSafe() throws Exception {
+        var ring = new EventRing<Integer>(1024);
+        var sequences = new HashSet<Long>();
+
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            var futures = IntStream.range(0, 1000)
+                    .mapToObj(i -> executor.submit(() -> ring.publish(i)))
+                    .toList();
+            for (var future : futures) {
+                sequences.add(future.get());
+            }
+        }
+
+        assertThat(ring.head()).isEqualTo(1000);
+        assertThat(sequences).hasSize(1000);
+        assertThat(LongStream.range(0, 1000).allMatch(seq -> ring.get(seq) != null)).isTrue();
+    }
+}
@@ -0,0 +1,100 @@
+package com.onlineshop.test.support.leaderboard;
+
+import com.onlineshop.test.configuration.LeaderboardProperties;
+import com.onlineshop.test.event.OrderChangedEvent;
+import com.onlineshop.test.event.OrderChangedEvent.ChangeType;
+import com.onlineshop.test.event.TransactionSnapshot;
+import com.onlineshop.test.repository.EmployeeRepository;
+import com.onlineshop.test.repository.OrderRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Unit tests
+class SalesLeaderboardTest {
+
+    private static final long EMPLOYEE_ID = 1L;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+    private final SalesLeaderboard leaderboard = new SalesLeaderboard(
+            new LeaderboardProperties(Duration.ofHours(1), Duration.ofMinutes(5)),
+            orderRepository, employeeRepository, mock(PlatformTransactionManager.class));
+
+    @Test
+    @DisplayName("Events fired during and after a rebuild are counted once")
+    void reconcile_ShouldNotDoubleCount_EventsConcurrentWithRebuild() {
+        var now = LocalDateTime.now();
+        // Снимок пересборки: транзакции до 100 и 101, 103, 104 видны, 102 ещё активна, с 105 — после снимка
+        when(orderRepository.currentSnapshot()).thenReturn("100:105:102");
+        when(orderRepository.sumSalesByEmployeeMinute(any())).thenAnswer(invocation -> {
+            leaderboard.onOrderChanged(created(1L, 10L, now, 99L));
+            leaderboard.onOrderChanged(created(2L, 20L, now, 102L));
+            // В агрегате снимка только заказ транзакции 99
+            return List.of(sales(now, 10L, 1L));
+        });
+        when(employeeRepository.findAllNames()).thenReturn(List.of());
+
+        leaderboard.reconcile();
+        // Запоздавшее событие транзакции, видной снимку, и событие новой транзакции
+        leaderboard.onOrderChanged(created(3L, 7L, now, 101L));
+        leaderboard.onOrderChanged(created(4L, 5L, now, 106L));
+
+        var top = leaderboard.top(Duration.ofHours(1), 10);
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).amount()).isEqualTo(35L);
+        assertThat(top.get(0).orders()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Snapshot sees transactions below xmin and finished ones below xmax")
+    void sees_ShouldFollowPostgresVisibilityRules() {
+        var snapshot = TransactionSnapshot.parse("100:105:102,104");
+
+        assertThat(snapshot.sees(99)).isTrue();
+        assertThat(snapshot.sees(103)).isTrue();
+        assertThat(snapshot.sees(102)).isFalse();
+        assertThat(snapshot.sees(105)).isFalse();
+        assertThat(TransactionSnapshot.parse("100:100:").sees(100)).isFalse();
+    }
+
+    private static OrderChangedEvent created(Long orderId, Long amount, LocalDateTime createdAt, Long transactionId) {
+        return new OrderChangedEvent(ChangeType.CREATED, orderId, null, EMPLOYEE_ID, amount, null, createdAt,
+                List.of(), transactionId);
+    }
+
+    private static OrderRepository.EmployeeSalesMinute sales(LocalDateTime time, Long amount, Long orders) {
+        long minute = time.toEpochSecond(ZoneOffset.UTC) / 60;
+        return new OrderRepository.EmployeeSalesMinute() {
+            @Override
+            public Long getEmployeeId() {
+                return EMPLOYEE_ID;
+            }
+
+            @Override
+            public Long getMinute() {
+                return minute;
+            }
+
+            @Override
+            public Long getAmount() {
+                return amount;
+            }
+
+            @Override
+            public Long getOrders() {
+                return orders;
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.onlineshop.test.support.leaderboard;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Unit tests
+class SalesWindowTest {
+
+    private final SalesWindow window = new SalesWindow(60);
+
+    @Test
+    @DisplayName("Sum covers only minutes inside the window")
+    void sum_ShouldIgnoreMinutesOutsideWindow() {
+        window.add(1_000, 100, 1);
+        window.add(1_030, 50, 1);
+        window.add(1_059, 25, 1);
+
+        assertThat(window.sum(1_059, 30)).isEqualTo(new SalesWindow.Totals(75, 2));
+        assertThat(window.sum(1_059, 60)).isEqualTo(new SalesWindow.Totals(175, 3));
+    }
+
+    @Test
+    @DisplayName("A newer minute replaces the bucket of the same slot, older writes are dropped")
+    void add_ShouldReplaceStaleBucket() {
+        window.add(1_000, 100, 1);
+        window.add(1_060, 10, 1);
+        window.add(1_000, 100, 1);
+
+        assertThat(window.sum(1_060, 60)).isEqualTo(new SalesWindow.Totals(10, 1));
+    }
+
+    @Test
+    @DisplayName("Concurrent writers do not lose increments")
+    void add_ShouldBeThreadSafe() throws Exception {
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            IntStream.range(0, 8).forEach(thread -> executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    window.add(1_000 + i % 10, 1, 1);
+                }
+            }));
+        }
+
+        assertThat(window.sum(1_009, 10)).isEqualTo(new SalesWindow.Totals(80_000, 80_000));
+    }
+}
@@ -0,0 +1,77 @@
+package com.onlineshop.test.support.query;
+
+import com.onlineshop.test.configuration.QueryProperties;
+import com.onlineshop.test.dto.request.ListQuery;
+import com.onlineshop.test.exception.InvalidQueryException;
+import com.onlineshop.test.repository.specification.CustomerSpecifications;
+import com.onlineshop.test.repository.specification.ProductSpecifications;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.LinkedMultiValueMap;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Unit tests
+class ListQueryCompilerTest {
+
+    private final TableStatistics tableStatistics = mock(TableStatistics.class);
+    private final ListQueryCompiler compiler = new ListQueryCompiler(
+            new QueryProperties(100_000, Duration.ofMinutes(10), 100, 1000), tableStatistics);
+
+    @Test
+    @DisplayName("Whitelisted filter and sort are compiled")
+    void compile_ShouldBuildSortAndLimit() {
+        var compiled = compiler.compile(ProductSpecifications.SCHEMA,
+                query(Map.of("price.gte", "100", "sort", "price,desc", "limit", "20")));
+
+        assertThat(compiled.sort()).isEqualTo(Sort.by(Sort.Order.desc("price")));
+        assertThat(compiled.limit()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Unknown field is rejected")
+    void compile_ShouldReject_WhenFieldIsNotWhitelisted() {
+        assertThatThrownBy(() -> compiler.compile(ProductSpecifications.SCHEMA, query(Map.of("id.gte", "1"))))
+                .isInstanceOf(InvalidQueryException.class);
+    }
+
+    @Test
+    @DisplayName("Unsupported operator is rejected")
+    void compile_ShouldReject_WhenOperatorIsNotAllowed() {
+        assertThatThrownBy(() -> compiler.compile(CustomerSpecifications.SCHEMA, query(Map.of("city.gte", "A"))))
+                .isInstanceOf(InvalidQueryException.class);
+    }
+
+    @Test
+    @DisplayName("Unindexed sort is rejected on a large table")
+    void compile_ShouldReject_WhenLargeTableHasNoIndexedAccess() {
+        when(tableStatistics.isLarge("products")).thenReturn(true);
+
+        assertThatThrownBy(() -> compiler.compile(ProductSpecifications.SCHEMA, query(Map.of("sort", "name"))))
+                .isInstanceOf(InvalidQueryException.class);
+    }
+
+    @Test
+    @DisplayName("Unindexed sort is allowed on a large table with an indexed filter")
+    void compile_ShouldAccept_WhenIndexedFilterIsPresent() {
+        when(tableStatistics.isLarge("products")).thenReturn(true);
+
+        var compiled = compiler.compile(ProductSpecifications.SCHEMA,
+                query(Map.of("name.prefix", "lap", "sort", "name")));
+
+        assertThat(compiled.limit()).isEqualTo(100);
+    }
+
+    private static ListQuery query(Map<String, String> params) {
+        var map = new LinkedMultiValueMap<String, String>();
+        params.forEach(map::add);
+        return ListQuery.from(map);
+    }
+}
@@ -0,0 +1,57 @@
+package com.onlineshop.test.support.recommendation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Unit tests
+class CooccurrenceMatrixTest {
+
+    @Test
+    @DisplayName("Top returns products bought together, most frequent first")
+    void top_ShouldOrderByOrderCount() {
+        var matrix = new CooccurrenceMatrix();
+        matrix.add(new long[]{1, 2, 3}, 3, 1);
+        matrix.add(new long[]{1, 3}, 2, 1);
+        matrix.add(new long[]{1, 4}, 2, 1);
+
+        assertThat(matrix.top(1, 2)).containsExactly(
+                new CooccurrenceMatrix.Related(3, 2),
+                new CooccurrenceMatrix.Related(2, 1));
+        assertThat(matrix.top(3, 10)).containsExactly(
+                new CooccurrenceMatrix.Related(1, 2),
+                new CooccurrenceMatrix.Related(2, 1));
+    }
+
+    @Test
+    @DisplayName("Deleted order no longer counts")
+    void add_ShouldDropPair_WhenOrderIsDeleted() {
+        var matrix = new CooccurrenceMatrix();
+        matrix.add(new long[]{1, 2}, 2, 1);
+        matrix.add(new long[]{1, 3}, 2, 1);
+        matrix.add(new long[]{1, 2}, 2, -1);
+
+        assertThat(matrix.top(1, 10)).containsExactly(new CooccurrenceMatrix.Related(3, 1));
+        assertThat(matrix.top(2, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Merged partial matrices equal a single matrix")
+    void merge_ShouldSumCounters() {
+        var left = new CooccurrenceMatrix();
+        left.add(new long[]{1, 2}, 2, 1);
+        var right = new CooccurrenceMatrix();
+        right.add(new long[]{1, 2, 5}, 3, 1);
+
+        left.merge(right);
+
+        assertThat(left.top(1, 10)).containsExactly(
+                new CooccurrenceMatrix.Related(2, 2),
+                new CooccurrenceMatrix.Related(5, 1));
+        assertThat(left.top(5, 10)).containsExactly(
+                new CooccurrenceMatrix.Related(1, 1),
+                new CooccurrenceMatrix.Related(2, 1));
+        assertThat(left.products()).isEqualTo(3);
+    }
+}
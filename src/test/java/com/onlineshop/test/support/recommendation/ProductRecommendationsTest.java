@@ -0,0 +1,86 @@
+package com.onlineshop.test.support.recommendation;
+
+import com.onlineshop.test.configuration.RecommendationProperties;
+import com.onlineshop.test.dto.response.RelatedProductResponse;
+import com.onlineshop.test.event.OrderChangedEvent;
+import com.onlineshop.test.event.OrderChangedEvent.ChangeType;
+import com.onlineshop.test.repository.OrderItemRepository;
+import com.onlineshop.test.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Unit tests
+class ProductRecommendationsTest {
+
+    private static final String EXPORTED = "00000003-0000001B-1";
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ProductRecommendations recommendations = new ProductRecommendations(
+            new RecommendationProperties(Duration.ofHours(6), 2, 4),
+            orderRepository, orderItemRepository, jdbcTemplate, mock(PlatformTransactionManager.class),
+            new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("Events fired during and after a rebuild are counted once")
+    void rebuild_ShouldNotDoubleCount_EventsConcurrentWithRebuild() {
+        // Снимок пересборки: транзакции до 100 и 101, 103, 104 видны, 102 ещё активна, с 105 — после снимка
+        when(orderRepository.currentSnapshot()).thenReturn("100:105:102");
+        when(orderRepository.exportSnapshot()).thenReturn(EXPORTED);
+        when(orderRepository.findMaxId()).thenReturn(10L);
+        when(orderItemRepository.findOrderProducts(any(), any())).thenAnswer(invocation -> {
+            long fromId = invocation.getArgument(0);
+            if (fromId != 1L) {
+                return List.of();
+            }
+            recommendations.onOrderChanged(created(1L, 99L));
+            recommendations.onOrderChanged(created(2L, 102L));
+            // В скане снимка только заказ транзакции 99
+            return List.of(new OrderProduct(1L, 1L), new OrderProduct(1L, 2L));
+        });
+
+        recommendations.rebuild();
+        // Запоздавшее событие транзакции, видной снимку, и событие новой транзакции
+        recommendations.onOrderChanged(created(3L, 101L));
+        recommendations.onOrderChanged(created(4L, 106L));
+
+        assertThat(recommendations.related(1L, 10)).containsExactly(new RelatedProductResponse(2L, 3));
+        // Диапазон 1..10 по кускам меньше 4 ID: 1-3, 4-5, 6-8, 9-10 — каждый импортирует снимок пересборки
+        verify(jdbcTemplate, times(4)).execute("SET TRANSACTION SNAPSHOT '" + EXPORTED + "'");
+    }
+
+    @Test
+    @DisplayName("Rebuild keeps the previous matrix when the exported snapshot id is malformed")
+    void rebuild_ShouldKeepMatrix_WhenSnapshotIdIsMalformed() {
+        recommendations.onOrderChanged(created(1L, 99L));
+        when(orderRepository.currentSnapshot()).thenReturn("100:105:");
+        when(orderRepository.exportSnapshot()).thenReturn("1'; DROP TABLE orders; --");
+        when(orderRepository.findMaxId()).thenReturn(10L);
+
+        recommendations.rebuild();
+
+        assertThat(recommendations.related(1L, 10)).containsExactly(new RelatedProductResponse(2L, 1));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    private static OrderChangedEvent created(Long orderId, Long transactionId) {
+        return new OrderChangedEvent(ChangeType.CREATED, orderId, null, null, 0L, null, null,
+                List.of(1L, 2L), transactionId);
+    }
+}
@@ -0,0 +1,38 @@
+package com.onlineshop.test.support.sql;
+
+import com.onlineshop.test.configuration.SqlLoggingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+// Unit tests
+class SlowQueryLogTest {
+
+    private final SlowQueryLog slowQueryLog = new SlowQueryLog(
+            new SqlLoggingProperties(0.0, Duration.ofMillis(200), false, Duration.ofSeconds(5), 3),
+            mock());
+
+    @AfterEach
+    void tearDown() {
+        slowQueryLog.shutdown();
+    }
+
+    @Test
+    @DisplayName("Keeps only the latest entries, newest first")
+    void recent_ShouldReturnLatestEntriesNewestFirst() {
+        for (int i = 1; i <= 5; i++) {
+            slowQueryLog.record(new SlowQuery(Instant.now(), i, "thread:test", "select " + i, "[]", null), List.of());
+        }
+
+        assertThat(slowQueryLog.recent())
+                .extracting(SlowQuery::elapsedMillis)
+                .containsExactly(5L, 4L, 3L);
+    }
+}
@@ -0,0 +1,85 @@
+package com.onlineshop.test.support.tracing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Unit tests
+class TracingTest {
+
+    @AfterEach
+    void clear() {
+        Tracing.restore(null);
+    }
+
+    @Test
+    @DisplayName("Layer times are self times and add up to the request duration")
+    void complete_ShouldSplitDurationByLayerSelfTime() {
+        var trace = new Trace("GET", "/api/orders", 100);
+        var root = Tracing.begin(trace);
+        var service = Tracing.open(Layer.SERVICE, "OrderService.getAllOrders");
+        Tracing.close(Tracing.open(Layer.JDBC, "select 1"));
+        Tracing.close(service);
+        Tracing.restore(null);
+        root.end();
+
+        var completed = trace.complete(200);
+
+        assertThat(completed.layerNanos()).containsKeys(Layer.HTTP, Layer.SERVICE, Layer.JDBC);
+        assertThat(completed.layerNanos().values().stream().mapToLong(Long::longValue).sum())
+                .isEqualTo(completed.durationNanos());
+        assertThat(completed.spans()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Spans over the limit are counted, the root span is always kept")
+    void complete_ShouldDropSpansOverLimit_ButKeepRoot() {
+        var trace = new Trace("GET", "/api/orders", 2);
+        var root = Tracing.begin(trace);
+        for (int i = 0; i < 5; i++) {
+            Tracing.close(Tracing.open(Layer.MAPPING, "OrderMapper.toResponse"));
+        }
+        Tracing.restore(null);
+        root.end();
+
+        var completed = trace.complete(200);
+
+        assertThat(completed.spans()).hasSize(3);
+        assertThat(completed.spans()).anyMatch(span -> span.parentSpanId() == null);
+        assertThat(completed.droppedSpans()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Wrapped task continues the trace on another thread")
+    void wrap_ShouldPropagateCurrentSpan_ToAnotherThread() throws InterruptedException {
+        var trace = new Trace("GET", "/api/orders/export", 100);
+        var root = Tracing.begin(trace);
+        var task = Tracing.wrap(() -> Tracing.close(Tracing.open(Layer.JDBC, "select 1")));
+        var thread = Thread.ofPlatform().start(task);
+        thread.join();
+        Tracing.restore(null);
+        root.end();
+
+        var completed = trace.complete(200);
+
+        assertThat(completed.spans())
+                .anyMatch(span -> span.layer() == Layer.JDBC && !span.thread().equals(Thread.currentThread().getName()));
+    }
+
+    @Test
+    @DisplayName("Outside a trace no span is opened")
+    void open_ShouldReturnNull_WhenNoTrace() {
+        assertThat(Tracing.open(Layer.SERVICE, "OrderService.getAllOrders")).isNull();
+    }
+
+    @Test
+    @DisplayName("Only statements that can wait for a lock count as lock time")
+    void waitsForLock_ShouldDetectBlockingLocks() {
+        assertThat(TracingJdbcListener.waitsForLock("select * from stock where id = ? for update")).isTrue();
+        assertThat(TracingJdbcListener.waitsForLock("select pg_advisory_xact_lock(?)")).isTrue();
+        assertThat(TracingJdbcListener.waitsForLock("select * from jobs for update skip locked")).isFalse();
+        assertThat(TracingJdbcListener.waitsForLock("select pg_try_advisory_xact_lock(?)")).isFalse();
+    }
+}